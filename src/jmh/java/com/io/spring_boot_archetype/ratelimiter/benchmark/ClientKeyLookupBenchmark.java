@@ -0,0 +1,92 @@
+package com.io.spring_boot_archetype.ratelimiter.benchmark;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitAlgorithm;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientAddress;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKey;
+import com.io.spring_boot_archetype.ratelimiter.key.RemoteAddressClientKeyResolver;
+import com.io.spring_boot_archetype.ratelimiter.store.InMemoryLimiterStore;
+import com.io.spring_boot_archetype.ratelimiter.store.LimiterStore;
+import com.io.spring_boot_archetype.ratelimiter.store.LimiterStoreType;
+import com.io.spring_boot_archetype.ratelimiter.store.OffHeapLimiterStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the per-request work of {@code RateLimitAspect.handleRateLimit} besides the limiter itself:
+ * parsing the client address into a key and looking the limiter up in the store, for 1, 10k and 1M clients.
+ * The aspect needs a Spring context, so its steps are replayed here on the same classes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ClientKeyLookupBenchmark {
+
+	private static final EffectiveRateLimitConfig CONFIG = new EffectiveRateLimitConfig(0, 1L, "Benchmark.endpoint()",
+			true, 1_000_000, 1000, RateLimitAlgorithm.TOKEN_BUCKET, 0, RemoteAddressClientKeyResolver.INSTANCE, null);
+
+	@State(Scope.Benchmark)
+	public static class Clients {
+
+		@Param({"1", "10000", "1000000"})
+		int keys;
+
+		@Param({"HEAP", "OFF_HEAP"})
+		LimiterStoreType store;
+
+		String[] addresses;
+		LimiterStore limiterStore;
+
+		@Setup
+		public void setUp() {
+			addresses = new String[keys];
+			for (int i = 0; i < keys; i++) {
+				addresses[i] = "10." + ((i >>> 16) & 0xFF) + "." + ((i >>> 8) & 0xFF) + "." + (i & 0xFF);
+			}
+			limiterStore = store == LimiterStoreType.HEAP
+					? new InMemoryLimiterStore(keys)
+					: new OffHeapLimiterStore(keys);
+			ClientKey key = new ClientKey();
+			for (String address : addresses) {
+				ClientAddress.parse(address, key);
+				limiterStore.tryAcquire(CONFIG, key.getHigh(), key.getLow());
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Cursor {
+		final ClientKey key = new ClientKey();
+		int next;
+
+		String nextAddress(Clients clients) {
+			String address = clients.addresses[next];
+			next = next + 1 == clients.keys ? 0 : next + 1;
+			return address;
+		}
+	}
+
+	@Benchmark
+	public ClientKey parseAddress(Clients clients, Cursor cursor) {
+		return ClientAddress.parse(cursor.nextAddress(clients), cursor.key);
+	}
+
+	@Benchmark
+	public long parseAndAcquire(Clients clients, Cursor cursor) {
+		ClientKey key = ClientAddress.parse(cursor.nextAddress(clients), cursor.key);
+		return clients.limiterStore.tryAcquire(CONFIG, key.getHigh(), key.getLow());
+	}
+}
@@ -0,0 +1,80 @@
+package com.io.spring_boot_archetype.ratelimiter.benchmark;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimit;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitConfigRegistry;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitProperties;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKeyResolvers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving an endpoint's effective configuration: the cached lookup done on every request,
+ * and the full resolution from annotations and properties done on first use.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigResolutionBenchmark {
+
+	@RateLimit(limit = 100, duration = 1, unit = "minute")
+	public static class AnnotatedController {
+
+		@RateLimit(limit = 5, duration = 60, unit = "second")
+		public String hello() {
+			return "hello";
+		}
+
+		public String greet(String name) {
+			return name;
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Registry {
+		final RateLimitProperties properties = new RateLimitProperties();
+		final ClientKeyResolvers clientKeyResolvers = new ClientKeyResolvers(properties);
+		RateLimitConfigRegistry registry;
+		Method methodLevel;
+		Method classLevel;
+
+		@Setup
+		public void setUp() throws NoSuchMethodException {
+			registry = new RateLimitConfigRegistry(properties, clientKeyResolvers);
+			methodLevel = AnnotatedController.class.getMethod("hello");
+			classLevel = AnnotatedController.class.getMethod("greet", String.class);
+			registry.getConfig(methodLevel, AnnotatedController.class);
+			registry.getConfig(classLevel, AnnotatedController.class);
+		}
+	}
+
+	@Benchmark
+	public EffectiveRateLimitConfig cachedMethodLevel(Registry state) {
+		return state.registry.getConfig(state.methodLevel, AnnotatedController.class);
+	}
+
+	@Benchmark
+	public EffectiveRateLimitConfig cachedClassLevel(Registry state) {
+		return state.registry.getConfig(state.classLevel, AnnotatedController.class);
+	}
+
+	@Benchmark
+	public EffectiveRateLimitConfig resolveMethodLevel(Registry state) {
+		// A fresh registry has an empty cache, so this measures the full resolution plus one cache insert.
+		return new RateLimitConfigRegistry(state.properties, state.clientKeyResolvers)
+				.getConfig(state.methodLevel, AnnotatedController.class);
+	}
+}
@@ -0,0 +1,94 @@
+package com.io.spring_boot_archetype.ratelimiter.benchmark;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimitAlgorithm;
+import com.io.spring_boot_archetype.ratelimiter.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link RateLimiter#allowRequest()} per algorithm.
+ * <p>
+ * The {@code shared} benchmarks let all threads hit one limiter, as a single hot client would; the {@code owned}
+ * benchmarks give each thread its own limiter, as many distinct clients would. With a 1 ms duration most requests
+ * are admitted; with 60 s the budget is spent at once and the rejection path is measured.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class SharedLimiter {
+
+		@Param({"TOKEN_BUCKET", "STRIPED_TOKEN_BUCKET", "FIXED_WINDOW", "SLIDING_WINDOW_COUNTER", "SLIDING_LOG"})
+		RateLimitAlgorithm algorithm;
+
+		@Param({"1000"})
+		int capacity;
+
+		@Param({"1", "60000"})
+		long duration;
+
+		RateLimiter limiter;
+
+		@Setup
+		public void setUp() {
+			limiter = algorithm.newLimiter(capacity, duration);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class OwnedLimiter extends SharedLimiter {
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean shared_1(SharedLimiter state) {
+		return state.limiter.allowRequest();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public boolean shared_8(SharedLimiter state) {
+		return state.limiter.allowRequest();
+	}
+
+	@Benchmark
+	@Threads(64)
+	public boolean shared_64(SharedLimiter state) {
+		return state.limiter.allowRequest();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean owned_1(OwnedLimiter state) {
+		return state.limiter.allowRequest();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public boolean owned_8(OwnedLimiter state) {
+		return state.limiter.allowRequest();
+	}
+
+	@Benchmark
+	@Threads(64)
+	public boolean owned_64(OwnedLimiter state) {
+		return state.limiter.allowRequest();
+	}
+}
@@ -0,0 +1,20 @@
+package com.io.spring_boot_archetype;
+
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Lifecycle phases shared by components that must stop in a given order relative to the web server.
+ */
+public final class LifecyclePhases {
+
+    /**
+     * Phase stopped after graceful shutdown has drained in-flight requests, but before the web server stops, so that
+     * state produced by the last requests is still flushed within {@code timeout-per-shutdown-phase}.
+     * Graceful shutdown drains requests at {@code DEFAULT_PHASE - 1024}, and the web server stops at
+     * {@code DEFAULT_PHASE - 2048}.
+     */
+    public static final int AFTER_REQUESTS_DRAINED = SmartLifecycle.DEFAULT_PHASE - 1536;
+
+    private LifecyclePhases() {
+    }
+}
@@ -0,0 +1,37 @@
+package com.io.spring_boot_archetype.audit;
+
+/**
+ * Audit event of an HTTP exchange, published by request threads once the response is complete and encoded by the
+ * audit writer.
+ * <p>
+ * Values are kept as typed fields rather than formatted text, so that nothing is formatted on the request thread
+ * and each field becomes a JSON field of its own, see {@link AuditEventEncoder}. Fields that do not apply to the
+ * exchange are null and are left out of the JSON.
+ * </p>
+ *
+ * @param timestamp     the wall-clock time the request was received, in epoch milliseconds.
+ * @param requestId     the id generated for the exchange, also put in the MDC and the {@code X-Request-Id} header.
+ * @param method        the HTTP method.
+ * @param route         the route template matched by the request, or {@link AuditMetrics#UNMATCHED_ROUTE}.
+ * @param path          the request URI.
+ * @param query         the query string, or null.
+ * @param remoteIp      the address of the client.
+ * @param status        the response status.
+ * @param durationNanos the time from receiving the request to completing the response, from {@link System#nanoTime()}.
+ * @param requestBytes  the number of request body bytes.
+ * @param responseBytes the number of response body bytes.
+ * @param body          the captured start of the response body, or null.
+ */
+public record AuditEvent(long timestamp,
+                         String requestId,
+                         String method,
+                         String route,
+                         String path,
+                         String query,
+                         String remoteIp,
+                         int status,
+                         long durationNanos,
+                         long requestBytes,
+                         long responseBytes,
+                         String body) {
+}
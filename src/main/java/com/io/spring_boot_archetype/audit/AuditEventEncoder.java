@@ -0,0 +1,225 @@
+package com.io.spring_boot_archetype.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Encodes {@link AuditEvent}s as JSON lines, straight from their fields to UTF-8 bytes.
+ * <p>
+ * Events are appended to a reusable byte buffer that grows as needed and is reset after each batch is written,
+ * so encoding does not go through intermediate strings nor allocate once the buffer has reached its working size.
+ * String values are escaped as JSON requires, and each value is a field of its own, so that Filebeat indexes the
+ * fields directly. The timestamp is written in ISO-8601 UTC with milliseconds, as in the application log.
+ * </p>
+ * <p>
+ * An encoder is not thread-safe; each thread encoding events, i.e. the audit writer, has its own.
+ * </p>
+ */
+public class AuditEventEncoder {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final long MILLIS_PER_DAY = 86_400_000;
+
+    private byte[] bytes = new byte[8192];
+    private int length;
+    private long cachedDay = Long.MIN_VALUE;
+    private final byte[] cachedDate = new byte[10];
+
+    /**
+     * Appends an event as one JSON line, including the trailing line break.
+     *
+     * @param event the event.
+     */
+    public void append(AuditEvent event) {
+        writeAscii("{\"@timestamp\":\"");
+        writeTimestamp(event.timestamp());
+        writeByte('"');
+        writeString(",\"requestId\":", event.requestId());
+        writeString(",\"method\":", event.method());
+        writeString(",\"route\":", event.route());
+        writeString(",\"path\":", event.path());
+        writeString(",\"query\":", event.query());
+        writeString(",\"remoteIp\":", event.remoteIp());
+        writeAscii(",\"status\":");
+        writeLong(event.status());
+        writeAscii(",\"durationMs\":");
+        writeMillis(event.durationNanos());
+        writeAscii(",\"requestBytes\":");
+        writeLong(event.requestBytes());
+        writeAscii(",\"responseBytes\":");
+        writeLong(event.responseBytes());
+        writeString(",\"body\":", event.body());
+        writeByte('}');
+        writeByte('\n');
+    }
+
+    /**
+     * @return the encoded events, as a buffer over the encoder's bytes, valid until the next call to {@link #reset()}.
+     */
+    public ByteBuffer buffer() {
+        return ByteBuffer.wrap(bytes, 0, length);
+    }
+
+    /**
+     * @return the number of bytes encoded since the last reset.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Discards the encoded events, keeping the buffer for reuse.
+     */
+    public void reset() {
+        length = 0;
+    }
+
+    private void writeString(String name, String value) {
+        if (value == null) {
+            return;
+        }
+        writeAscii(name);
+        writeByte('"');
+        ensureCapacity(value.length() * 6 + 1);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    bytes[length++] = '\\';
+                    bytes[length++] = (byte) c;
+                } else if (c >= 0x20) {
+                    bytes[length++] = (byte) c;
+                } else {
+                    writeControl(c);
+                }
+            } else if (c < 0x800) {
+                bytes[length++] = (byte) (0xC0 | (c >> 6));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates cannot be encoded in UTF-8.
+                bytes[length++] = '?';
+            } else {
+                bytes[length++] = (byte) (0xE0 | (c >> 12));
+                bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        bytes[length++] = '"';
+    }
+
+    private void writeControl(char c) {
+        bytes[length++] = '\\';
+        switch (c) {
+            case '\n' -> bytes[length++] = 'n';
+            case '\r' -> bytes[length++] = 'r';
+            case '\t' -> bytes[length++] = 't';
+            default -> {
+                bytes[length++] = 'u';
+                bytes[length++] = '0';
+                bytes[length++] = '0';
+                bytes[length++] = HEX[c >> 4];
+                bytes[length++] = HEX[c & 0xF];
+            }
+        }
+    }
+
+    /**
+     * Writes {@code yyyy-MM-ddTHH:mm:ss.SSSZ}; the date part is only computed again when the day changes.
+     */
+    private void writeTimestamp(long epochMillis) {
+        long day = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        if (day != cachedDay) {
+            String date = LocalDate.ofEpochDay(day).toString();
+            if (date.length() != cachedDate.length) {
+                // Years beyond 9999 are not worth caching.
+                writeAscii(date);
+                writeTime(Math.floorMod(epochMillis, MILLIS_PER_DAY));
+                return;
+            }
+            for (int i = 0; i < cachedDate.length; i++) {
+                cachedDate[i] = (byte) date.charAt(i);
+            }
+            cachedDay = day;
+        }
+        ensureCapacity(cachedDate.length);
+        System.arraycopy(cachedDate, 0, bytes, length, cachedDate.length);
+        length += cachedDate.length;
+        writeTime(Math.floorMod(epochMillis, MILLIS_PER_DAY));
+    }
+
+    private void writeTime(long millisOfDay) {
+        ensureCapacity(14);
+        bytes[length++] = 'T';
+        writeDigits(millisOfDay / 3_600_000, 2);
+        bytes[length++] = ':';
+        writeDigits(millisOfDay / 60_000 % 60, 2);
+        bytes[length++] = ':';
+        writeDigits(millisOfDay / 1000 % 60, 2);
+        bytes[length++] = '.';
+        writeDigits(millisOfDay % 1000, 3);
+        bytes[length++] = 'Z';
+    }
+
+    private void writeDigits(long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            bytes[length + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    /**
+     * Writes a duration in milliseconds with microsecond precision, e.g. {@code 12.345}.
+     */
+    private void writeMillis(long nanos) {
+        long micros = Math.max(0, nanos) / 1000;
+        writeLong(micros / 1000);
+        ensureCapacity(4);
+        bytes[length++] = '.';
+        writeDigits(micros % 1000, 3);
+    }
+
+    private void writeLong(long value) {
+        if (value < 0) {
+            writeByte('-');
+            if (value == Long.MIN_VALUE) {
+                writeAscii("9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        writeDigits(value, digits);
+    }
+
+    private void writeAscii(String value) {
+        ensureCapacity(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            bytes[length++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void writeByte(char c) {
+        ensureCapacity(1);
+        bytes[length++] = (byte) c;
+    }
+
+    private void ensureCapacity(int more) {
+        if (length + more > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + more));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.io.spring_boot_archetype.audit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the duration of audited exchanges as Micrometer timers.
+ * <p>
+ * {@code audit.exchange.duration} is tagged with the HTTP method, the matched route template (never the raw URI)
+ * and the status class, so the number of series is bounded by the application's routes. The timers of a route are
+ * created on its first exchange and cached in an array indexed by method and status class, so recording an
+ * exchange costs a map lookup on the route template and no allocation.
+ * </p>
+ */
+@Component
+public class AuditMetrics {
+
+    /**
+     * Route of requests that no handler matched, which are counted together.
+     */
+    public static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS", "OTHER"};
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx", "UNKNOWN"};
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, Timer[]> routes = new ConcurrentHashMap<>();
+
+    public AuditMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Records an exchange.
+     *
+     * @param method        the HTTP method.
+     * @param route         the matched route template, or {@link #UNMATCHED_ROUTE}.
+     * @param status        the response status.
+     * @param durationNanos the duration of the exchange.
+     */
+    public void record(String method, String route, int status, long durationNanos) {
+        Timer[] timers = routes.get(route);
+        if (timers == null) {
+            timers = routes.computeIfAbsent(route, r -> new Timer[METHODS.length * STATUS_CLASSES.length]);
+        }
+        int index = methodIndex(method) * STATUS_CLASSES.length + statusClassIndex(status);
+        Timer timer = timers[index];
+        if (timer == null) {
+            // Racing threads register the same timer, which the registry returns to both.
+            timer = Timer.builder("audit.exchange.duration")
+                    .description("Duration of HTTP exchanges, from the audit filter")
+                    .tags("method", METHODS[index / STATUS_CLASSES.length], "route", route,
+                            "status", STATUS_CLASSES[index % STATUS_CLASSES.length])
+                    .register(registry);
+            timers[index] = timer;
+        }
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static int methodIndex(String method) {
+        for (int i = 0; i < METHODS.length - 1; i++) {
+            if (METHODS[i].equals(method)) {
+                return i;
+            }
+        }
+        return METHODS.length - 1;
+    }
+
+    private static int statusClassIndex(int status) {
+        int statusClass = status / 100 - 1;
+        return statusClass >= 0 && statusClass < STATUS_CLASSES.length - 1 ? statusClass : STATUS_CLASSES.length - 1;
+    }
+}
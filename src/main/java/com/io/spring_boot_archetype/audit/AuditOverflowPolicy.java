@@ -0,0 +1,20 @@
+package com.io.spring_boot_archetype.audit;
+
+/**
+ * What a request thread does with its audit record when the audit writer falls behind.
+ */
+public enum AuditOverflowPolicy {
+    /**
+     * Drop the record if the buffer is full; requests are never slowed down by auditing.
+     */
+    DROP,
+    /**
+     * Keep only a sample of the records ({@code audit.overflow-sample-rate}) once the buffer is three quarters full,
+     * so that a backlog thins out evenly instead of losing every record past the point it filled up.
+     */
+    SAMPLE,
+    /**
+     * Wait for room in the buffer; no record is lost, but requests are slowed down to the writer's pace.
+     */
+    BLOCK
+}
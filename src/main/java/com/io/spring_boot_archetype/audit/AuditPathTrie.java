@@ -0,0 +1,119 @@
+package com.io.spring_boot_archetype.audit;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Set of path patterns compiled into a trie of path segments, matched without allocating.
+ * <p>
+ * Patterns are literal segments separated by {@code /}, where a {@code *} segment matches any single segment and a
+ * trailing {@code **} matches any number of remaining segments, including none. Matching walks the path's segments
+ * in place, comparing them with the children of the current node, so its cost depends on the depth of the path
+ * rather than on the number of patterns. Empty segments are ignored, so {@code /a//b/} matches {@code /a/b}.
+ * </p>
+ */
+public class AuditPathTrie {
+
+    private static final String ANY_SEGMENT = "*";
+    private static final String ANY_REST = "**";
+
+    private final Node root = new Node();
+
+    /**
+     * @param patterns the patterns to match.
+     * @throws IllegalArgumentException if {@code **} is used anywhere but as the last segment.
+     */
+    public AuditPathTrie(List<String> patterns) {
+        for (String pattern : patterns) {
+            add(pattern);
+        }
+    }
+
+    /**
+     * @param path the path, without query string.
+     * @return whether any pattern matches the path.
+     */
+    public boolean matches(String path) {
+        return matches(root, path, next(path, 0));
+    }
+
+    private void add(String pattern) {
+        Node node = root;
+        String[] segments = Arrays.stream(pattern.split("/")).filter(s -> !s.isEmpty()).toArray(String[]::new);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.equals(ANY_REST)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("Invalid path pattern: " + pattern
+                            + ". ** is only supported as the last segment.");
+                }
+                node.anyRest = true;
+                return;
+            }
+            node = segment.equals(ANY_SEGMENT) ? node.anySegment() : node.child(segment);
+        }
+        node.terminal = true;
+    }
+
+    private static boolean matches(Node node, String path, int start) {
+        if (node.anyRest) {
+            return true;
+        }
+        if (start >= path.length()) {
+            return node.terminal;
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        int rest = next(path, end);
+        int length = end - start;
+        for (int i = 0; i < node.childCount; i++) {
+            String name = node.names[i];
+            if (name.length() == length && path.regionMatches(start, name, 0, length)
+                    && matches(node.children[i], path, rest)) {
+                return true;
+            }
+        }
+        return node.anySegment != null && matches(node.anySegment, path, rest);
+    }
+
+    /**
+     * Returns the start of the next non-empty segment at or after {@code index}, or the path's length.
+     */
+    private static int next(String path, int index) {
+        while (index < path.length() && path.charAt(index) == '/') {
+            index++;
+        }
+        return index;
+    }
+
+    private static final class Node {
+        private String[] names = new String[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private Node anySegment;
+        private boolean anyRest;
+        private boolean terminal;
+
+        Node child(String name) {
+            for (int i = 0; i < childCount; i++) {
+                if (names[i].equals(name)) {
+                    return children[i];
+                }
+            }
+            names = Arrays.copyOf(names, childCount + 1);
+            children = Arrays.copyOf(children, childCount + 1);
+            names[childCount] = name;
+            children[childCount] = new Node();
+            return children[childCount++];
+        }
+
+        Node anySegment() {
+            if (anySegment == null) {
+                anySegment = new Node();
+            }
+            return anySegment;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.io.spring_boot_archetype.audit;
+
+import com.io.spring_boot_archetype.LifecyclePhases;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Moves audit records off the request threads and writes them to the audit file in batches.
+ * <p>
+ * Request threads {@link #publish} records into an {@link AuditRingBuffer}, which costs a CAS and never touches
+ * the file. A single writer thread drains the buffer, encodes up to {@code audit.batch-size} records into one buffer
+ * and appends it to the file with a single write, then parks briefly when there is nothing left. When the writer
+ * falls behind and the buffer fills up, the {@link AuditOverflowPolicy} decides whether records are dropped, sampled
+ * or waited for; every discarded record is counted in {@code audit.records.dropped}.
+ * </p>
+ * <p>
+ * The file is rolled at the first write of each day to {@code <name>.<yyyy-MM-dd>.json}, as the application log is,
+ * and rolled files older than {@code audit.max-history} days are deleted then. A batch that cannot be encoded or
+ * written is counted as dropped and the writer carries on with the next one. At shutdown the writer stops after
+ * graceful shutdown has drained in-flight requests, once the records they published have been written.
+ * </p>
+ */
+@Slf4j
+@Component
+public class AuditPipeline implements SmartLifecycle, MeterBinder {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long ERROR_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long STOP_TIMEOUT_MILLIS = 3000;
+
+    private final AuditRingBuffer<AuditEvent> buffer;
+    private final AuditOverflowPolicy overflowPolicy;
+    private final double sampleRate;
+    private final int sampleThreshold;
+    private final int batchSize;
+    private final Path file;
+    private final int maxHistory;
+    private final AuditEventEncoder encoder = new AuditEventEncoder();
+    private final Consumer<AuditEvent> encode = this::encode;
+    private final LongAdder droppedFull = new LongAdder();
+    private final LongAdder droppedSampled = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final AtomicLong failed = new AtomicLong();
+    private FileChannel channel;
+    private LocalDate fileDate;
+    private LocalDate cleanedUpDate;
+    private int batchRecords;
+    private long nextErrorLogAt = System.nanoTime();
+    private Thread writer;
+    private volatile boolean running;
+    private volatile boolean closed;
+
+    /**
+     * @param auditProperties the audit properties.
+     */
+    public AuditPipeline(AuditProperties auditProperties) {
+        if (auditProperties.getBatchSize() <= 0) {
+            throw new IllegalArgumentException("Invalid audit batch size: " + auditProperties.getBatchSize() + ".");
+        }
+        if (auditProperties.getMaxHistory() < 0) {
+            throw new IllegalArgumentException("Invalid audit max history: " + auditProperties.getMaxHistory() + ".");
+        }
+        this.buffer = new AuditRingBuffer<>(auditProperties.getBufferSize());
+        this.overflowPolicy = auditProperties.getOverflowPolicy();
+        this.sampleRate = auditProperties.getOverflowSampleRate();
+        this.sampleThreshold = buffer.capacity() / 4 * 3;
+        this.batchSize = auditProperties.getBatchSize();
+        this.file = Path.of(auditProperties.getFile());
+        this.maxHistory = auditProperties.getMaxHistory();
+    }
+
+    /**
+     * Queues an event for writing, applying the overflow policy if the writer falls behind.
+     *
+     * @param event the event.
+     */
+    public void publish(AuditEvent event) {
+        if (overflowPolicy == AuditOverflowPolicy.SAMPLE && buffer.size() >= sampleThreshold
+                && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            droppedSampled.increment();
+            return;
+        }
+        while (!buffer.offer(event)) {
+            if (overflowPolicy != AuditOverflowPolicy.BLOCK || closed) {
+                droppedFull.increment();
+                return;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::writeLoop);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Audit writer did not finish within {} ms; {} records may be lost",
+                    STOP_TIMEOUT_MILLIS, buffer.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return LifecyclePhases.AFTER_REQUESTS_DRAINED;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("audit.records.written", written, LongAdder::sum)
+                .description("Audit records written to the audit file")
+                .register(registry);
+        FunctionCounter.builder("audit.records.dropped", droppedFull, LongAdder::sum)
+                .description("Audit records discarded before being written")
+                .tag("reason", "full")
+                .register(registry);
+        FunctionCounter.builder("audit.records.dropped", droppedSampled, LongAdder::sum)
+                .description("Audit records discarded before being written")
+                .tag("reason", "sampled")
+                .register(registry);
+        FunctionCounter.builder("audit.records.dropped", failed, AtomicLong::get)
+                .description("Audit records discarded before being written")
+                .tag("reason", "error")
+                .register(registry);
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size)
+                .description("Audit records waiting to be written")
+                .register(registry);
+    }
+
+    private void writeLoop() {
+        while (true) {
+            boolean stopping = !running;
+            if (writeBatch() == 0) {
+                if (stopping) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        close();
+    }
+
+    /**
+     * Drains and writes one batch. Whatever goes wrong costs the batch, never the writer thread: with the
+     * {@link AuditOverflowPolicy#BLOCK} policy, publishers would otherwise wait for it forever.
+     *
+     * @return the number of records drained, including those that could not be written.
+     */
+    private int writeBatch() {
+        batchRecords = 0;
+        try {
+            buffer.drain(encode, batchSize);
+            if (batchRecords > 0) {
+                ByteBuffer bytes = encoder.buffer();
+                FileChannel target = channel();
+                while (bytes.hasRemaining()) {
+                    target.write(bytes);
+                }
+                written.add(batchRecords);
+            }
+        } catch (Throwable e) {
+            failed.addAndGet(batchRecords);
+            close();
+            long now = System.nanoTime();
+            if (now - nextErrorLogAt >= 0) {
+                nextErrorLogAt = now + ERROR_LOG_INTERVAL_NANOS;
+                if (e instanceof IOException) {
+                    log.warn("Cannot write audit records to {}: {}", file, e.getMessage());
+                } else {
+                    log.error("Audit writer dropped a batch of {} records", batchRecords, e);
+                }
+            }
+        } finally {
+            encoder.reset();
+        }
+        return batchRecords;
+    }
+
+    private void encode(AuditEvent event) {
+        // Counted first, so that a record failing to encode is counted with its batch.
+        batchRecords++;
+        encoder.append(event);
+    }
+
+    /**
+     * Returns the channel of the current day's file, rolling the file over first if the day has changed.
+     */
+    private FileChannel channel() throws IOException {
+        LocalDate today = LocalDate.now();
+        if (channel != null && today.equals(fileDate)) {
+            return channel;
+        }
+        close();
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (Files.exists(file)) {
+            LocalDate modified = LocalDate.ofInstant(Files.getLastModifiedTime(file).toInstant(),
+                    ZoneId.systemDefault());
+            if (modified.isBefore(today)) {
+                Files.move(file, rolledFile(modified), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        fileDate = today;
+        if (maxHistory > 0 && !today.equals(cleanedUpDate)) {
+            cleanedUpDate = today;
+            deleteRolledFilesBefore(today.minusDays(maxHistory));
+        }
+        return channel;
+    }
+
+    private Path rolledFile(LocalDate date) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String rolled = dot < 0 ? name + "." + date : name.substring(0, dot) + "." + date + name.substring(dot);
+        return file.resolveSibling(rolled);
+    }
+
+    /**
+     * Deletes the rolled files dated before the given day. Failing to delete one does not stop the audit log.
+     */
+    private void deleteRolledFilesBefore(LocalDate cutoff) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String prefix = (dot < 0 ? name : name.substring(0, dot)) + ".";
+        String suffix = dot < 0 ? "" : name.substring(dot);
+        Path directory = file.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> rolled = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path path : rolled) {
+                String rolledName = path.getFileName().toString();
+                if (rolledName.length() != prefix.length() + 10 + suffix.length()) {
+                    continue;
+                }
+                try {
+                    LocalDate date = LocalDate.parse(rolledName.substring(prefix.length(), prefix.length() + 10));
+                    if (date.isBefore(cutoff)) {
+                        Files.deleteIfExists(path);
+                    }
+                } catch (DateTimeParseException ignored) {
+                    // Not a rolled audit file.
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Cannot delete audit files older than {} in {}: {}", cutoff, directory, e.getMessage());
+        }
+    }
+
+    private void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Reopened on the next batch.
+            }
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.io.spring_boot_archetype.audit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties of the HTTP audit log.
+ * <p>
+ * Default values:
+ * - file: logs/audit-log.json (JSON lines file the audit records are written to, rolled daily)
+ * - max-history: 30 (days of rolled files kept; 0 keeps them all)
+ * - buffer-size: 8192 (records queued between request threads and the writer)
+ * - batch-size: 512 (records written to the file at once)
+ * - overflow-policy: DROP (what happens to records when the buffer is full: DROP, SAMPLE or BLOCK)
+ * - overflow-sample-rate: 0.1 (SAMPLE: fraction of records kept once the buffer is three quarters full)
+ * - body-capture-size: 0 (bytes of the response body recorded with the response; 0 records none)
+ * - body-capture-types: application/json, text/* (content types whose response body may be recorded)
+ * - excluded-paths: /actuator/prometheus, /actuator/health/** (paths never audited; * matches one segment,
+ *   a trailing ** any number of segments)
+ * - sampling.default-rate: 1.0 (fraction of exchanges recorded when no route or status class rule applies)
+ * - sampling.routes: none (fraction recorded per route template, e.g. /api/items/{id}: 0.01)
+ * - sampling.status-classes: none (fraction recorded per status class, e.g. 2xx: 0.05)
+ * - sampling.slow-threshold: 1s (exchanges at least this slow are always recorded)
+ * - sampling.keep-errors: true (whether server errors are always recorded)
+ * - sampling.keep-rejections: true (whether rate limit rejections are always recorded)
+ * <p>
+ * These values can be overridden in application.yml.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit")
+public class AuditProperties {
+    private String file = "logs/audit-log.json";
+    private int maxHistory = 30;
+    private int bufferSize = 8192;
+    private int batchSize = 512;
+    private AuditOverflowPolicy overflowPolicy = AuditOverflowPolicy.DROP;
+    private double overflowSampleRate = 0.1;
+    private int bodyCaptureSize = 0;
+    private List<String> bodyCaptureTypes = new ArrayList<>(List.of("application/json", "text/*"));
+    private List<String> excludedPaths = new ArrayList<>(List.of("/actuator/prometheus", "/actuator/health/**"));
+    private Sampling sampling = new Sampling();
+
+    /**
+     * Head sampling rates and tail-based retention rules of the exchange events.
+     */
+    @Data
+    public static class Sampling {
+        private double defaultRate = 1.0;
+        private Map<String, Double> routes = new LinkedHashMap<>();
+        private Map<String, Double> statusClasses = new LinkedHashMap<>();
+        private Duration slowThreshold = Duration.ofSeconds(1);
+        private boolean keepErrors = true;
+        private boolean keepRejections = true;
+    }
+}
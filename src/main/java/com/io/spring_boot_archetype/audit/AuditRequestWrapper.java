@@ -0,0 +1,117 @@
+package com.io.spring_boot_archetype.audit;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request wrapper counting the bytes of the body as the application reads them.
+ * <p>
+ * The body is not copied, only counted as it passes through. A body consumed by the container itself, e.g. to
+ * parse form parameters, is not seen by the wrapper; {@link #getBytesRead()} then falls back to the declared
+ * content length.
+ * </p>
+ */
+public class AuditRequestWrapper extends HttpServletRequestWrapper {
+
+    private CountingInputStream inputStream;
+    private BufferedReader reader;
+
+    /**
+     * @param request the request to wrap.
+     */
+    public AuditRequestWrapper(HttpServletRequest request) {
+        super(request);
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (reader != null) {
+            throw new IllegalStateException("getReader() has already been called for this request");
+        }
+        return stream();
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            if (inputStream != null) {
+                throw new IllegalStateException("getInputStream() has already been called for this request");
+            }
+            // The container's reader cannot be counted, so bytes are decoded from the counted stream instead.
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(encoding);
+            reader = new BufferedReader(new InputStreamReader(stream(), charset));
+        }
+        return reader;
+    }
+
+    /**
+     * @return the number of body bytes read, or the declared content length if more.
+     */
+    public long getBytesRead() {
+        long read = inputStream == null ? 0 : inputStream.count;
+        return Math.max(read, getContentLengthLong());
+    }
+
+    private CountingInputStream stream() throws IOException {
+        if (inputStream == null) {
+            inputStream = new CountingInputStream(super.getInputStream());
+        }
+        return inputStream;
+    }
+
+    private static final class CountingInputStream extends ServletInputStream {
+        private final ServletInputStream delegate;
+        private long count;
+
+        CountingInputStream(ServletInputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = delegate.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            delegate.setReadListener(listener);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
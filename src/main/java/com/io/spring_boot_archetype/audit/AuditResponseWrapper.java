@@ -0,0 +1,238 @@
+package com.io.spring_boot_archetype.audit;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Response wrapper counting the bytes of the body as they pass through to the client.
+ * <p>
+ * Unlike a content caching wrapper, the body is not held back: every write goes straight to the container's
+ * stream, so streaming, chunked responses and time to first byte are unaffected and no per-response copy of the
+ * body is kept. Optionally, the first {@code maxCapture} bytes of a body whose content type is among
+ * {@code captureTypes} are copied aside for the audit record; the type is checked once, on the first write.
+ * </p>
+ */
+public class AuditResponseWrapper extends HttpServletResponseWrapper {
+
+    private final int maxCapture;
+    private final List<MediaType> captureTypes;
+    private CountingOutputStream outputStream;
+    private PrintWriter writer;
+
+    /**
+     * @param response     the response to wrap.
+     * @param maxCapture   the maximum number of body bytes to capture, or 0 to capture nothing.
+     * @param captureTypes the content types whose body is captured.
+     */
+    public AuditResponseWrapper(HttpServletResponse response, int maxCapture, List<MediaType> captureTypes) {
+        super(response);
+        this.maxCapture = maxCapture;
+        this.captureTypes = captureTypes;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        return stream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
+            }
+            // The container's writer cannot be counted, so characters are encoded onto the counted stream instead.
+            // Setting the encoding locks it into the Content-Type, as the container's getWriter() would.
+            setCharacterEncoding(getCharacterEncoding());
+            writer = newWriter(stream());
+        }
+        return writer;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Characters still buffered in the writer, the byte count and the captured body are discarded with the rest.
+     * </p>
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        writer = null;
+        outputStream = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Characters still buffered in the writer, the byte count and the captured body are discarded with the buffer.
+     * </p>
+     */
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if (outputStream != null) {
+            outputStream.clear();
+            if (writer != null) {
+                writer = newWriter(outputStream);
+            }
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        super.flushBuffer();
+    }
+
+    /**
+     * Flushes characters written through {@link #getWriter()} to the client, so that they are counted.
+     */
+    public void flushWriter() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * @return the number of body bytes written so far.
+     */
+    public long getBytesWritten() {
+        return outputStream == null ? 0 : outputStream.count;
+    }
+
+    /**
+     * @return the captured start of the body decoded with the response's character encoding, or null if it was
+     * not captured.
+     */
+    public String getCapturedBody() {
+        if (outputStream == null || outputStream.captured == null) {
+            return null;
+        }
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        return new String(outputStream.captured, 0, outputStream.capturedLength, charset);
+    }
+
+    private PrintWriter newWriter(CountingOutputStream stream) {
+        return new PrintWriter(new OutputStreamWriter(stream, Charset.forName(getCharacterEncoding())));
+    }
+
+    private CountingOutputStream stream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new CountingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    private boolean capturable() {
+        if (maxCapture <= 0) {
+            return false;
+        }
+        String contentType = getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            for (MediaType captureType : captureTypes) {
+                if (captureType.includes(mediaType)) {
+                    return true;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // An unparsable content type is not captured.
+        }
+        return false;
+    }
+
+    private final class CountingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private long count;
+        private boolean started;
+        private byte[] captured;
+        private int capturedLength;
+
+        CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+            if (capture(1)) {
+                captured[capturedLength++] = (byte) b;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+            if (capture(len)) {
+                int copied = Math.min(len, captured.length - capturedLength);
+                System.arraycopy(b, off, captured, capturedLength, copied);
+                capturedLength += copied;
+            }
+        }
+
+        /**
+         * Forgets what was written so far, after the container discarded it.
+         */
+        void clear() {
+            count = 0;
+            started = false;
+            captured = null;
+            capturedLength = 0;
+        }
+
+        /**
+         * Decides on the first write whether to capture, and returns whether there is room for more.
+         */
+        private boolean capture(int len) {
+            if (!started) {
+                started = true;
+                if (capturable()) {
+                    captured = new byte[maxCapture];
+                }
+            }
+            return len > 0 && captured != null && capturedLength < captured.length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            delegate.setWriteListener(listener);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.io.spring_boot_archetype.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free queue of many producers and a single consumer, backed by a ring of preallocated slots.
+ * <p>
+ * Each slot carries a sequence number telling whose turn it is: a producer claims the next position with one CAS
+ * on the tail once the slot's sequence shows it has been consumed, stores its element and publishes it by
+ * advancing the sequence; the consumer reads slots in order as their sequence shows they are published.
+ * Producers never wait for one another beyond CAS retries and never wait for the consumer: when the ring is full,
+ * {@link #offer} fails immediately and the caller decides what to do with the element.
+ * </p>
+ *
+ * @param <E> the type of elements.
+ */
+public class AuditRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only accessed by the consumer, but read by size() from other threads.
+    private volatile long head;
+
+    /**
+     * @param capacity the number of slots, rounded up to a power of two.
+     */
+    public AuditRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid audit buffer capacity: " + capacity + ".");
+        }
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element unless the ring is full.
+     *
+     * @param element the element.
+     * @return false if the ring is full.
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference < 0) {
+                // The slot still holds the element of the previous lap.
+                return false;
+            }
+            if (difference == 0 && tail.compareAndSet(position, position + 1)) {
+                elements.lazySet(slot, element);
+                sequences.set(slot, position + 1);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes up to {@code max} elements in order and passes them to the consumer. Must only be called by one
+     * thread at a time. If the consumer throws, the element it failed on stays removed along with those before it.
+     *
+     * @param consumer the consumer.
+     * @param max      the maximum number of elements to remove.
+     * @return the number of elements removed.
+     */
+    public int drain(Consumer<? super E> consumer, int max) {
+        long position = head;
+        int drained = 0;
+        try {
+            while (drained < max) {
+                int slot = (int) position & mask;
+                if (sequences.get(slot) != position + 1) {
+                    // Empty, or the producer of this position has not published its element yet.
+                    break;
+                }
+                E element = elements.get(slot);
+                elements.lazySet(slot, null);
+                sequences.set(slot, position + mask + 1);
+                position++;
+                drained++;
+                consumer.accept(element);
+            }
+        } finally {
+            // The slots are already released, so the head must move past them even if the consumer failed.
+            head = position;
+        }
+        return drained;
+    }
+
+    /**
+     * @return the number of elements queued, approximate while producers are active.
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * @return the number of slots.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,88 @@
+package com.io.spring_boot_archetype.audit;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decides which exchanges are written to the audit log.
+ * <p>
+ * Head sampling keeps a configured fraction of the exchanges of each route template, or failing a route rule, of
+ * each status class, or otherwise {@code audit.sampling.default-rate}. The decision is derived from the random
+ * bits of the exchange's request id, so it costs no extra random number and can be reproduced from the id.
+ * Tail-based retention then keeps the exchanges that matter regardless of sampling: server errors, requests slower
+ * than {@code audit.sampling.slow-threshold} and rate limit rejections (429).
+ * </p>
+ */
+public class AuditSampler {
+
+    private static final double RANDOM_UNIT = 0x1.0p-53;
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final double defaultRate;
+    private final Map<String, Double> routeRates;
+    // Indexed by status / 100 - 1, NaN where no rule applies.
+    private final double[] statusClassRates = new double[5];
+    private final long slowThresholdNanos;
+    private final boolean keepErrors;
+    private final boolean keepRejections;
+
+    /**
+     * @param sampling the sampling properties.
+     * @throws IllegalArgumentException if a rate is outside of [0, 1] or a status class is not one of 1xx to 5xx.
+     */
+    public AuditSampler(AuditProperties.Sampling sampling) {
+        this.defaultRate = validateRate(sampling.getDefaultRate(), "default");
+        this.routeRates = new HashMap<>();
+        sampling.getRoutes().forEach((route, rate) -> routeRates.put(route, validateRate(rate, route)));
+        Arrays.fill(statusClassRates, Double.NaN);
+        sampling.getStatusClasses().forEach((statusClass, rate) -> {
+            String normalized = statusClass.toLowerCase();
+            int index = normalized.length() == 3 && normalized.endsWith("xx") ? normalized.charAt(0) - '1' : -1;
+            if (index < 0 || index >= statusClassRates.length) {
+                throw new IllegalArgumentException("Invalid status class: " + statusClass
+                        + ". Expected one of 1xx, 2xx, 3xx, 4xx or 5xx.");
+            }
+            statusClassRates[index] = validateRate(rate, statusClass);
+        });
+        this.slowThresholdNanos = sampling.getSlowThreshold().toNanos();
+        this.keepErrors = sampling.isKeepErrors();
+        this.keepRejections = sampling.isKeepRejections();
+    }
+
+    /**
+     * @param route         the matched route template.
+     * @param status        the response status.
+     * @param durationNanos the duration of the exchange.
+     * @param randomBits    the random bits of the exchange's request id.
+     * @return whether the exchange is written to the audit log.
+     */
+    public boolean retain(String route, int status, long durationNanos, long randomBits) {
+        if (keepErrors && status >= 500
+                || keepRejections && status == TOO_MANY_REQUESTS
+                || durationNanos >= slowThresholdNanos) {
+            return true;
+        }
+        return (randomBits >>> 11) * RANDOM_UNIT < rate(route, status);
+    }
+
+    private double rate(String route, int status) {
+        Double routeRate = routeRates.get(route);
+        if (routeRate != null) {
+            return routeRate;
+        }
+        int index = status / 100 - 1;
+        if (index >= 0 && index < statusClassRates.length && !Double.isNaN(statusClassRates[index])) {
+            return statusClassRates[index];
+        }
+        return defaultRate;
+    }
+
+    private static double validateRate(double rate, String rule) {
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IllegalArgumentException("Invalid audit sample rate for " + rule + ": " + rate
+                    + ". Expected a value between 0 and 1.");
+        }
+        return rate;
+    }
+}
@@ -3,10 +3,13 @@ package com.io.spring_boot_archetype.exception.handler;
 import com.io.spring_boot_archetype.exception.model.GenericExceptionResponse;
 import com.io.spring_boot_archetype.exception.model.NotFoundException;
 import com.io.spring_boot_archetype.ratelimiter.RateLimitExceededException;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitRejectionLogger;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
@@ -29,8 +32,11 @@ import java.util.stream.Collectors;
 
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final RateLimitRejectionLogger rateLimitRejectionLogger;
+
     /**
      * Handles NotFoundException.
      * Thrown when a requested resource is not found.
@@ -200,13 +206,16 @@ public class GlobalExceptionHandler {
 
     /**
      * Handles RateLimitExceededException.
-     * Thrown when the rate limit for a specific endpoint is exceeded.
+     * Thrown when the rate limit for a specific endpoint is exceeded (429), or when load is shed (503).
+     * Rejections are expected under load, so they are counted rather than logged one by one,
+     * and the exception's pre-serialized body is returned as is.
      */
     @ExceptionHandler(RateLimitExceededException.class)
-    public ResponseEntity<GenericExceptionResponse> handleRateLimitExceededException(
-            RateLimitExceededException ex, WebRequest request) {
-        log.error("Rate limit exceeded: {}", ex.getMessage(), ex);
-        return createErrorResponse(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), request.getDescription(false));
+    public ResponseEntity<byte[]> handleRateLimitExceededException(RateLimitExceededException ex) {
+        rateLimitRejectionLogger.record(ex);
+        return ResponseEntity.status(ex.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ex.getBody());
     }
 
     /**
@@ -1,25 +1,91 @@
 package com.io.spring_boot_archetype.filter;
 
+import com.io.spring_boot_archetype.audit.AuditEvent;
+import com.io.spring_boot_archetype.audit.AuditMetrics;
+import com.io.spring_boot_archetype.audit.AuditPathTrie;
+import com.io.spring_boot_archetype.audit.AuditPipeline;
+import com.io.spring_boot_archetype.audit.AuditProperties;
+import com.io.spring_boot_archetype.audit.AuditRequestWrapper;
+import com.io.spring_boot_archetype.audit.AuditResponseWrapper;
+import com.io.spring_boot_archetype.audit.AuditSampler;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.IOException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
-@Slf4j
 @Component
+@Order(HttpAuditFilter.ORDER)
 public class HttpAuditFilter extends OncePerRequestFilter {
 
     /**
-     * This method is called for each request to log the audit information.
+     * Order of the filter, ahead of the load shedding and rate limit filters so that their rejections are audited.
+     */
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 1;
+
+    /**
+     * MDC key of the id of the exchange, included in every log line written while the request is processed.
+     */
+    public static final String REQUEST_ID_MDC_KEY = "requestId";
+
+    /**
+     * Response header returning the id of the exchange to the client.
+     */
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private final AuditPipeline auditPipeline;
+    private final AuditMetrics auditMetrics;
+    private final int bodyCaptureSize;
+    private final List<MediaType> bodyCaptureTypes;
+    private final AuditPathTrie excludedPaths;
+    private final AuditSampler sampler;
+
+    public HttpAuditFilter(AuditPipeline auditPipeline, AuditMetrics auditMetrics, AuditProperties auditProperties) {
+        this.auditPipeline = auditPipeline;
+        this.auditMetrics = auditMetrics;
+        this.bodyCaptureSize = auditProperties.getBodyCaptureSize();
+        this.bodyCaptureTypes = MediaType.parseMediaTypes(auditProperties.getBodyCaptureTypes());
+        this.excludedPaths = new AuditPathTrie(auditProperties.getExcludedPaths());
+        this.sampler = new AuditSampler(auditProperties.getSampling());
+    }
+
+    /**
+     * Skips the paths listed in {@code audit.excluded-paths}, such as health probes and metrics scrapes,
+     * matched within the application's context path.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return excludedPaths.matches(path);
+    }
+
+    /**
+     * This method is called for each request to record the audit information.
      * <p>
-     * Logs both the incoming request and the outgoing response
-     * in a structured format, suitable for Elasticsearch/Kibana.
+     * Records the request and its response as a single typed event once the response is complete,
+     * written as JSON fields suitable for Elasticsearch/Kibana. The event carries the matched route template,
+     * the status, the body sizes and the duration measured with {@link System#nanoTime()},
+     * which is also recorded in the {@code audit.exchange.duration} timer.
+     * Events are handed to the {@link AuditPipeline}, which encodes and writes them
+     * to the audit file from its own thread.
+     * The response body passes through to the client as it is written;
+     * only its size, and optionally its first bytes, are recorded.
+     * A generated request id correlates the event with the application's log lines through the MDC
+     * and is returned to the client in the {@value #REQUEST_ID_HEADER} header.
+     * Every exchange is timed, but only those retained by the {@link AuditSampler} are published:
+     * a sampled fraction per route and status class, plus all errors, slow requests and rejections.
      *
      * @param request     the HttpServletRequest object
      * @param response    the HttpServletResponse object
@@ -32,29 +98,49 @@ public class HttpAuditFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
-        ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
-
-        // Request log
-        log.info(""" 
-                        { "type": "REQUEST", "method": "{}", "path": "{}", "query": "{}", "remoteIp": "{}" } """,
-                request.getMethod(),
-                request.getRequestURI(),
-                request.getQueryString(),
-                request.getRemoteAddr()
-        );
+        long started = System.nanoTime();
+        long timestamp = System.currentTimeMillis();
+        long requestBits = ThreadLocalRandom.current().nextLong();
+        String requestId = HexFormat.of().toHexDigits(requestBits);
+        MDC.put(REQUEST_ID_MDC_KEY, requestId);
+        response.setHeader(REQUEST_ID_HEADER, requestId);
 
+        AuditRequestWrapper wrappedRequest = new AuditRequestWrapper(request);
+        AuditResponseWrapper wrappedResponse = new AuditResponseWrapper(response, bodyCaptureSize,
+                bodyCaptureTypes);
+        boolean completed = false;
         try {
-            filterChain.doFilter(request, wrappedResponse);
+            filterChain.doFilter(wrappedRequest, wrappedResponse);
+            completed = true;
         } finally {
+            wrappedResponse.flushWriter();
+            long duration = System.nanoTime() - started;
+            // An exception escaping the chain is turned into an error response by the container afterwards.
+            int status = completed || response.isCommitted()
+                    ? wrappedResponse.getStatus() : HttpStatus.INTERNAL_SERVER_ERROR.value();
+            String route = routeOf(request);
+            auditMetrics.record(request.getMethod(), route, status, duration);
 
-            // Response log
-            log.info(""" 
-                            { "type": "RESPONSE", "status": {}, "path": "{}" } """,
-                    wrappedResponse.getStatus(),
-                    request.getRequestURI()
-            );
-
-            wrappedResponse.copyBodyToResponse();
+            // Exchange event
+            if (sampler.retain(route, status, duration, requestBits)) {
+                auditPipeline.publish(new AuditEvent(timestamp, requestId,
+                        request.getMethod(),
+                        route,
+                        request.getRequestURI(),
+                        request.getQueryString(),
+                        request.getRemoteAddr(),
+                        status,
+                        duration,
+                        wrappedRequest.getBytesRead(),
+                        wrappedResponse.getBytesWritten(),
+                        wrappedResponse.getCapturedBody()));
+            }
+            MDC.remove(REQUEST_ID_MDC_KEY);
         }
     }
+
+    private static String routeOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern instanceof String route ? route : AuditMetrics.UNMATCHED_ROUTE;
+    }
 }
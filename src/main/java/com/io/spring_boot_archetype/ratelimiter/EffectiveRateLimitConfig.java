@@ -0,0 +1,50 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKeyResolver;
+
+/**
+ * Immutable, fully resolved rate limiting configuration of a single endpoint.
+ * <p>
+ * Instances are computed once per handler method by {@link RateLimitConfigRegistry} from the method-level
+ * and class-level {@code @RateLimit} annotations and the global {@link RateLimitProperties}.
+ * An endpoint with several limits has one instance per tier, chained through {@link #next()}; all tiers are
+ * evaluated by {@link RateLimitTiers}.
+ * </p>
+ *
+ * @param endpointId  ordinal assigned once per endpoint tier; together with the client key it identifies a limiter.
+ * @param endpointKey stable 64-bit identity of the endpoint, identical across JVMs (used by shared backends).
+ * @param endpoint    short, human-readable name of the endpoint (e.g. {@code DemoController.hello()}).
+ * @param enabled     whether rate limiting applies to the endpoint.
+ * @param capacity    maximum number of requests allowed within the duration.
+ * @param duration    the duration in milliseconds.
+ * @param algorithm   the resolved algorithm, never {@link RateLimitAlgorithm#DEFAULT} when enabled.
+ * @param tolerance   fraction of the capacity by which approximate algorithms may deviate.
+ * @param keyResolver derives the identity of the client a request is counted against.
+ * @param next        the next tier of the endpoint's limit, evaluated together with this one, or null.
+ */
+public record EffectiveRateLimitConfig(int endpointId,
+                                       long endpointKey,
+                                       String endpoint,
+                                       boolean enabled,
+                                       int capacity,
+                                       long duration,
+                                       RateLimitAlgorithm algorithm,
+                                       double tolerance,
+                                       ClientKeyResolver keyResolver,
+                                       EffectiveRateLimitConfig next) {
+
+    /**
+     * Shared configuration for endpoints that are not rate limited.
+     */
+    public static final EffectiveRateLimitConfig DISABLED =
+            new EffectiveRateLimitConfig(-1, 0, null, false, 0, 0, null, 0, null, null);
+
+    /**
+     * Creates a new limiter for this configuration.
+     *
+     * @return a new RateLimiter instance.
+     */
+    public RateLimiter newLimiter() {
+        return algorithm.newLimiter(capacity, duration, tolerance);
+    }
+}
@@ -0,0 +1,115 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe rate limiter that restricts the number of requests within a specified time period.
+ * This implementation uses atomic variables and CAS loops to ensure atomic operations.
+ * <p>
+ * Windows are consecutive periods of {@code duration} counted from the limiter's creation. Being a fixed window,
+ * a client may send up to twice the limit across a window boundary.
+ * </p>
+ * <p>
+ * State layout: a single {@link AtomicLong} holds the count (low {@value #COUNT_BITS} bits) and the number of the
+ * window it belongs to (high bits), so a new window resets the count in the same CAS that counts its first request.
+ * </p>
+ */
+public class FixedWindowRateLimiter implements RateLimiter {
+
+    static final int COUNT_BITS = 32;
+    private static final long COUNT_MASK = -1L >>> (64 - COUNT_BITS);
+    private static final long WINDOW_MASK = -1L >>> COUNT_BITS;
+
+    private final int limit;
+    private final long duration;
+    private final long origin = System.nanoTime();
+    private final AtomicLong state = new AtomicLong(0);
+
+    /**
+     * @param limit    maximum number of requests allowed within a window.
+     * @param duration the window duration in milliseconds.
+     */
+    public FixedWindowRateLimiter(int limit, long duration) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Invalid fixed window limit: " + limit + ".");
+        }
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Invalid fixed window duration: " + duration + " ms.");
+        }
+        this.limit = limit;
+        this.duration = duration;
+    }
+
+    @Override
+    public long tryAcquire() {
+        long now = currentMillis();
+        long window = (now / duration) & WINDOW_MASK;
+        long resetMillis = duration - now % duration;
+        while (true) {
+            long current = state.get();
+            long count = current >>> COUNT_BITS == window ? current & COUNT_MASK : 0;
+            if (count >= limit) {
+                return RateLimitDecision.rejected(resetMillis);
+            }
+            if (state.compareAndSet(current, (window << COUNT_BITS) | (count + 1))) {
+                return RateLimitDecision.allowed(limit - count - 1, resetMillis);
+            }
+            LimiterContention.retry();
+        }
+    }
+
+    @Override
+    public void refund(long acquiredAt) {
+        // A limiter created after the acquisition started out in its first window.
+        long window = (Math.max(0, acquiredAt - origin) / 1_000_000 / duration) & WINDOW_MASK;
+        while (true) {
+            long current = state.get();
+            // Once the window the permit was taken in has been reset, the count belongs to another window.
+            if (current >>> COUNT_BITS != window || (current & COUNT_MASK) == 0
+                    || state.compareAndSet(current, current - 1)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public double utilization() {
+        long current = state.get();
+        if (current >>> COUNT_BITS != currentWindow()) {
+            return 0;
+        }
+        return Math.min(1, (double) (current & COUNT_MASK) / limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The used requests are counted in the current window, so they are released at its end, which may come
+     * earlier or later than the end of the previous limiter's window.
+     * </p>
+     */
+    @Override
+    public void occupy(double utilization) {
+        state.set((currentWindow() << COUNT_BITS) | TokenBucketRateLimiter.usedPermits(utilization, limit));
+    }
+
+    @Override
+    public boolean isIdle() {
+        long current = state.get();
+        return (current & COUNT_MASK) == 0 || current >>> COUNT_BITS != currentWindow();
+    }
+
+    @Override
+    public long estimatedBytes() {
+        // Limiter object plus its AtomicLong, assuming compressed oops.
+        return 40 + 24;
+    }
+
+    private long currentWindow() {
+        return (currentMillis() / duration) & WINDOW_MASK;
+    }
+
+    private long currentMillis() {
+        return (System.nanoTime() - origin) / 1_000_000;
+    }
+}
@@ -0,0 +1,34 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the compare-and-set retries of limiter decisions, across all limiters.
+ * <p>
+ * Limiters update their state with a CAS loop, and a retry means another thread updated the same client's state
+ * in between. Only failed attempts are counted, on a {@link LongAdder}, so an uncontended decision costs nothing
+ * extra and retries of different cores do not contend on the counter itself. The count is shared rather than kept
+ * per limiter, which would cost a field per client.
+ * </p>
+ */
+public final class LimiterContention {
+
+    private static final LongAdder RETRIES = new LongAdder();
+
+    private LimiterContention() {
+    }
+
+    /**
+     * Records a failed compare-and-set of a limiter decision.
+     */
+    public static void retry() {
+        RETRIES.increment();
+    }
+
+    /**
+     * @return the number of retries since startup.
+     */
+    public static long retries() {
+        return RETRIES.sum();
+    }
+}
@@ -1,6 +1,9 @@
 package com.io.spring_boot_archetype.ratelimiter;
 
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKeyType;
+
 import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
@@ -13,7 +16,13 @@ import java.lang.annotation.Target;
  * the method-level values override the class-level settings for that endpoint.
  * The presence of this annotation indicates that rate limiting is enabled for that endpoint.
  * </p>
+ * <p>
+ * The annotation is repeatable: several limits on the same element, e.g. per second and per minute, or per client
+ * and per endpoint (see {@link ClientKeyType#ENDPOINT}), are all enforced, and a request is only admitted, and
+ * counted, if every one of them admits it.
+ * </p>
  */
+@Repeatable(RateLimits.class)
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.METHOD, ElementType.TYPE})
 public @interface RateLimit {
@@ -34,4 +43,29 @@ public @interface RateLimit {
      * Available options are "SECOND", "MINUTE", or "HOUR". Default is "SECOND".
      */
     String unit() default "SECOND";
+
+    /**
+     * Algorithm used to enforce the limit.
+     * If {@link RateLimitAlgorithm#DEFAULT} is provided, the class-level or global algorithm is used.
+     */
+    RateLimitAlgorithm algorithm() default RateLimitAlgorithm.DEFAULT;
+
+    /**
+     * Fraction of the limit by which approximate algorithms such as
+     * {@link RateLimitAlgorithm#STRIPED_TOKEN_BUCKET} may deviate, between 0 and 1.
+     * If a negative value is provided, the class-level or global tolerance is used.
+     */
+    double tolerance() default -1;
+
+    /**
+     * How the client a request is counted against is identified.
+     * If {@link ClientKeyType#DEFAULT} is provided, the class-level or global key type is used.
+     */
+    ClientKeyType key() default ClientKeyType.DEFAULT;
+
+    /**
+     * Header identifying the client when {@link #key()} is {@link ClientKeyType#HEADER}.
+     * If empty, the class-level or global header is used.
+     */
+    String keyHeader() default "";
 }
@@ -0,0 +1,68 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+/**
+ * Enum for selecting the rate limiting algorithm in the RateLimit annotation and in the global properties.
+ */
+public enum RateLimitAlgorithm {
+    /**
+     * Use the algorithm configured globally via {@link RateLimitProperties}.
+     * Only meaningful on the annotation.
+     */
+    DEFAULT,
+    /**
+     * Smooth admission with lazy refill; allows bursts up to the limit. See {@link TokenBucketRateLimiter}.
+     */
+    TOKEN_BUCKET,
+    /**
+     * Token bucket that spreads a hot client over per-core cells once contended, trading the configured
+     * tolerance for throughput. See {@link StripedTokenBucketRateLimiter}.
+     */
+    STRIPED_TOKEN_BUCKET,
+    /**
+     * Counter reset at the end of each window; cheapest, but allows twice the limit across a boundary.
+     * See {@link FixedWindowRateLimiter}.
+     */
+    FIXED_WINDOW,
+    /**
+     * Weighted previous and current window counters; a cheap approximation of a sliding window.
+     * See {@link SlidingWindowCounterRateLimiter}.
+     */
+    SLIDING_WINDOW_COUNTER,
+    /**
+     * Exact sliding window over a ring buffer of request timestamps; memory grows with the limit.
+     * See {@link SlidingLogRateLimiter}.
+     */
+    SLIDING_LOG;
+
+    /**
+     * Creates a new limiter implementing this algorithm.
+     *
+     * @param capacity maximum number of requests allowed within the duration.
+     * @param duration the duration in milliseconds.
+     * @return a new RateLimiter instance.
+     * @throws IllegalStateException if called on {@link #DEFAULT}, which must be resolved first.
+     */
+    public RateLimiter newLimiter(int capacity, long duration) {
+        return newLimiter(capacity, duration, StripedTokenBucketRateLimiter.DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Creates a new limiter implementing this algorithm.
+     *
+     * @param capacity  maximum number of requests allowed within the duration.
+     * @param duration  the duration in milliseconds.
+     * @param tolerance fraction of the capacity by which approximate algorithms may deviate; ignored by exact ones.
+     * @return a new RateLimiter instance.
+     * @throws IllegalStateException if called on {@link #DEFAULT}, which must be resolved first.
+     */
+    public RateLimiter newLimiter(int capacity, long duration, double tolerance) {
+        return switch (this) {
+            case TOKEN_BUCKET -> new TokenBucketRateLimiter(capacity, duration);
+            case STRIPED_TOKEN_BUCKET -> new StripedTokenBucketRateLimiter(capacity, duration, tolerance);
+            case FIXED_WINDOW -> new FixedWindowRateLimiter(capacity, duration);
+            case SLIDING_WINDOW_COUNTER -> new SlidingWindowCounterRateLimiter(capacity, duration);
+            case SLIDING_LOG -> new SlidingLogRateLimiter(capacity, duration);
+            case DEFAULT -> throw new IllegalStateException("DEFAULT algorithm must be resolved before creating a limiter.");
+        };
+    }
+}
@@ -1,16 +1,19 @@
 package com.io.spring_boot_archetype.ratelimiter;
 
 import jakarta.servlet.http.HttpServletRequest;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKey;
 import lombok.RequiredArgsConstructor;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
-import java.lang.reflect.Method;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -21,148 +24,64 @@ import java.util.concurrent.ConcurrentHashMap;
  * When both are present, method-level values override class-level settings for that endpoint.
  * If no annotation is present, but global rate limiting is enabled via properties, the global settings are applied.
  * The rate limiting is now applied per IP address.
+ * The effective configuration is resolved once per method and cached by {@link RateLimitConfigRegistry}.
+ * Limiters are looked up by the endpoint ordinal and the client address parsed into a 128-bit key,
+ * so the accept path does not build strings.
+ * </p>
+ * <p>
+ * This is the default mode; with {@code rate-limit.mode: FILTER} limits are enforced by
+ * {@link com.io.spring_boot_archetype.ratelimiter.filter.RateLimitFilter} instead and this aspect is not registered.
  * </p>
  */
 @Aspect
 @Component
+@ConditionalOnProperty(prefix = "rate-limit", name = "mode", havingValue = "ASPECT", matchIfMissing = true)
+@Order(RateLimitAspect.ORDER)
 @RequiredArgsConstructor
 public class RateLimitAspect {
 
-    private final RateLimitProperties rateLimitProperties;
+    /**
+     * Order of the aspect among the advice around controller methods.
+     */
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
 
-    // Map for fast, key-based access to RateLimiter instances.
-    // Key is composed of the method's short signature and the client's IP address.
-    private final ConcurrentHashMap<String, RateLimiter> limiterMap = new ConcurrentHashMap<>();
+    // Reusable per-thread holder for the resolved client key.
+    private static final ThreadLocal<ClientKey> CLIENT_KEY = ThreadLocal.withInitial(ClientKey::new);
 
-    @Around("within(@org.springframework.web.bind.annotation.RestController *)")
-    public Object handleRateLimit(ProceedingJoinPoint joinPoint) throws Throwable {
-        EffectiveRateLimitConfig config = resolveEffectiveConfig(joinPoint);
+    private final RateLimitConfigRegistry configRegistry;
 
-        // If rate limiting is not enabled, proceed with method execution.
-        if (!config.enabled) {
-            return joinPoint.proceed();
-        }
+    // Backend holding per-client limiter state, local to this JVM or shared across replicas.
+    // Key is composed of the endpoint ordinal and the client's IP address.
+    private final RateLimiterBackend rateLimiterBackend;
 
-        // Retrieve the client's IP address from the current request.
-        HttpServletRequest request = ((ServletRequestAttributes) Objects.requireNonNull(RequestContextHolder.getRequestAttributes())).getRequest();
-        String clientIp = request.getRemoteAddr();
+    private final RateLimitMetrics metrics;
 
-        // Use a key composed of the method's short signature and the client IP.
-        String key = joinPoint.getSignature().toShortString() + ":" + clientIp;
-        // Retrieve or create a RateLimiter for the endpoint+IP combination.
-        RateLimiter limiter = limiterMap.computeIfAbsent(key, k -> new RateLimiter(config.capacity, config.duration));
-
-        if (!limiter.allowRequest()) {
-            throw new RateLimitExceededException("Rate limit exceeded for IP " + clientIp + " on endpoint " + joinPoint.getSignature().toShortString());
-        }
-        return joinPoint.proceed();
-    }
-
-    /**
-     * Resolves the effective rate limiting configuration by combining method-level and class-level annotations.
-     * Method-level values override class-level values when present.
-     *
-     * @param joinPoint the join point representing the intercepted method.
-     * @return an EffectiveRateLimitConfig instance containing the resolved settings.
-     */
-    private EffectiveRateLimitConfig resolveEffectiveConfig(ProceedingJoinPoint joinPoint) {
-        EffectiveRateLimitConfig config = new EffectiveRateLimitConfig();
+    // Stackless rejection of each endpoint, created on its first rejection and rethrown afterwards.
+    private final ConcurrentHashMap<String, RateLimitExceededException> rejections = new ConcurrentHashMap<>();
 
+    @Around("within(@org.springframework.web.bind.annotation.RestController *)")
+    public Object handleRateLimit(ProceedingJoinPoint joinPoint) throws Throwable {
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
-        RateLimit methodAnno = method.getAnnotation(RateLimit.class);
-        RateLimit classAnno = joinPoint.getTarget().getClass().getAnnotation(RateLimit.class);
+        EffectiveRateLimitConfig config = configRegistry.getConfig(signature.getMethod(), joinPoint.getTarget().getClass());
 
-        // If a method-level annotation is present, use its values (falling back to class-level if needed).
-        if (methodAnno != null) {
-            config.enabled = true;
-            config.capacity = resolveCapacity(methodAnno, classAnno);
-            config.duration = resolveDuration(methodAnno, classAnno);
-        }
-        // Otherwise, if a class-level annotation is present, use its values.
-        else if (classAnno != null) {
-            config.enabled = true;
-            config.capacity = (classAnno.limit() > 0) ? classAnno.limit() : rateLimitProperties.getCapacity();
-            config.duration = (classAnno.duration() > 0)
-                    ? convertToMillis(classAnno.duration(), classAnno.unit())
-                    : rateLimitProperties.getTime() * rateLimitProperties.getUnit().toMillis(1);
-        }
-        // Otherwise, check if global rate limiting is enabled.
-        else if (rateLimitProperties.isEnabled()) {
-            config.enabled = true;
-            config.capacity = rateLimitProperties.getCapacity();
-            config.duration = rateLimitProperties.getTime() * rateLimitProperties.getUnit().toMillis(1);
-        } else {
-            config.enabled = false;
-        }
-        return config;
-    }
-
-    /**
-     * Converts a duration value and its time unit (provided as a string) to milliseconds.
-     *
-     * @param duration the duration value.
-     * @param unit     the time unit as a string (e.g., "SECOND", "MINUTE", "HOUR").
-     * @return the duration in milliseconds.
-     * @throws IllegalArgumentException if the time unit does not match any of the allowed values.
-     */
-    private long convertToMillis(long duration, String unit) {
-        if (unit == null) {
-            throw new IllegalArgumentException("Time unit cannot be null.");
-        }
-        if (unit.equalsIgnoreCase("SECOND")) {
-            return duration * 1000;
-        } else if (unit.equalsIgnoreCase("MINUTE")) {
-            return duration * 60 * 1000;
-        } else if (unit.equalsIgnoreCase("HOUR")) {
-            return duration * 3600 * 1000;
-        } else {
-            throw new IllegalArgumentException("Invalid time unit: " + unit + ". Expected SECOND, MINUTE, or HOUR.");
-        }
-    }
-
-    /**
-     * Simple POJO to hold the effective rate limiting configuration.
-     */
-    private static class EffectiveRateLimitConfig {
-        boolean enabled;
-        int capacity;
-        long duration;
-    }
-
-    /**
-     * Resolves the capacity for rate limiting based on method-level and class-level annotations.
-     * If both are present, method-level values override class-level settings.
-     *
-     * @param methodAnno the method-level RateLimit annotation.
-     * @param classAnno  the class-level RateLimit annotation.
-     * @return the resolved capacity.
-     */
-    private int resolveCapacity(RateLimit methodAnno, RateLimit classAnno) {
-        if (methodAnno.limit() > 0) {
-            return methodAnno.limit();
-        } else if (classAnno != null && classAnno.limit() > 0) {
-            return classAnno.limit();
-        } else {
-            return rateLimitProperties.getCapacity();
+        // If rate limiting is not enabled, proceed with method execution.
+        if (!config.enabled()) {
+            return joinPoint.proceed();
         }
-    }
 
-    /**
-     * Resolves the duration for rate limiting based on method-level and class-level annotations.
-     * If both are present, method-level values override class-level settings.
-     *
-     * @param methodAnno the method-level RateLimit annotation.
-     * @param classAnno  the class-level RateLimit annotation.
-     * @return the resolved duration in milliseconds.
-     */
-    private long resolveDuration(RateLimit methodAnno, RateLimit classAnno) {
-        if (methodAnno.duration() > 0) {
-            return convertToMillis(methodAnno.duration(), methodAnno.unit());
-        } else if (classAnno != null && classAnno.duration() > 0) {
-            return convertToMillis(classAnno.duration(), classAnno.unit());
-        } else {
-            return rateLimitProperties.getTime() * rateLimitProperties.getUnit().toMillis(1);
+        // Identify the client of the current request, by default by its IP address.
+        ServletRequestAttributes attributes = (ServletRequestAttributes) Objects.requireNonNull(RequestContextHolder.getRequestAttributes());
+        HttpServletRequest request = attributes.getRequest();
+
+        // Check the limiter state of the endpoint+client combination in every tier, and advertise it,
+        // so that clients can back off before being rejected.
+        long started = System.nanoTime();
+        long decision = RateLimitTiers.tryAcquire(rateLimiterBackend, configRegistry.getOverrides(), config,
+                request, attributes.getResponse(), CLIENT_KEY.get());
+        metrics.record(config, started, decision);
+        if (!RateLimitDecision.isAllowed(decision)) {
+            throw rejections.computeIfAbsent(config.endpoint(), RateLimitExceededException::forEndpoint);
         }
+        return joinPoint.proceed();
     }
 }
@@ -0,0 +1,334 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKeyResolver;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKeyResolvers;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKeyType;
+import com.io.spring_boot_archetype.ratelimiter.override.RateLimitOverrides;
+import com.io.spring_boot_archetype.ratelimiter.store.LimiterStoreType;
+import com.io.spring_boot_archetype.ratelimiter.store.OffHeapLimiterStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of the effective rate limiting configuration per handler method.
+ * <p>
+ * The configuration is resolved from the annotations the first time a method is invoked and cached as an
+ * immutable {@link EffectiveRateLimitConfig}, so that subsequent requests cost two map lookups instead of
+ * annotation reflection and time unit parsing. Entries are keyed by controller class, then method: a handler
+ * method inherited by several controllers takes the class-level annotations of each. Each rate limited endpoint
+ * is also assigned a dense ordinal, which identifies its limiters without building string keys.
+ * </p>
+ * <p>
+ * The configuration resolved from the annotations can be overridden at runtime by swapping in a new
+ * {@link RateLimitOverrides} snapshot. Each cached entry remembers the snapshot it was computed for, so the first
+ * request of an endpoint after a swap recomputes its configuration and later requests pay one reference comparison.
+ * Endpoint ordinals and stable keys are kept, so limiter state survives the change (see
+ * {@link com.io.spring_boot_archetype.ratelimiter.store.LimiterTable}).
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitConfigRegistry {
+
+    private final RateLimitProperties rateLimitProperties;
+    private final ClientKeyResolvers clientKeyResolvers;
+
+    private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Method, Resolved>> configs = new ConcurrentHashMap<>();
+    private final AtomicInteger nextEndpointId = new AtomicInteger();
+    private volatile RateLimitOverrides overrides = RateLimitOverrides.NONE;
+
+    /**
+     * Returns the effective configuration for the given handler method, resolving and caching it on first use.
+     *
+     * @param method      the invoked handler method.
+     * @param targetClass the class of the controller bean declaring the endpoint.
+     * @return the cached EffectiveRateLimitConfig.
+     */
+    public EffectiveRateLimitConfig getConfig(Method method, Class<?> targetClass) {
+        ConcurrentHashMap<Method, Resolved> classConfigs = configs.get(targetClass);
+        if (classConfigs == null) {
+            classConfigs = configs.computeIfAbsent(targetClass, c -> new ConcurrentHashMap<>());
+        }
+        Resolved resolved = classConfigs.get(method);
+        if (resolved == null) {
+            resolved = classConfigs.computeIfAbsent(method,
+                    m -> Resolved.of(resolveEffectiveConfig(m, targetClass), overrides));
+        }
+        RateLimitOverrides current = overrides;
+        if (resolved.overrides != current) {
+            // A racing put of an older snapshot's entry is corrected by the next request.
+            resolved = Resolved.of(resolved.base, current);
+            classConfigs.put(method, resolved);
+        }
+        return resolved.effective;
+    }
+
+    /**
+     * @return the overrides currently in effect.
+     */
+    public RateLimitOverrides getOverrides() {
+        return overrides;
+    }
+
+    /**
+     * Swaps in a new snapshot of overrides, after checking that it yields valid limits for every endpoint resolved
+     * so far. Endpoints resolved later are checked on their first request.
+     *
+     * @param overrides the new snapshot.
+     * @throws IllegalArgumentException if a rule yields an invalid limit; the previous snapshot then stays in effect.
+     */
+    public void setOverrides(RateLimitOverrides overrides) {
+        for (ConcurrentHashMap<Method, Resolved> classConfigs : configs.values()) {
+            for (Resolved resolved : classConfigs.values()) {
+                overrides.validate(resolved.base);
+            }
+        }
+        this.overrides = overrides;
+    }
+
+    /**
+     * @return the effective configuration of every rate limited endpoint resolved so far, i.e. of their first tier.
+     */
+    public List<EffectiveRateLimitConfig> getConfigs() {
+        RateLimitOverrides current = overrides;
+        List<EffectiveRateLimitConfig> result = new ArrayList<>();
+        for (ConcurrentHashMap<Method, Resolved> classConfigs : configs.values()) {
+            for (Resolved resolved : classConfigs.values()) {
+                if (resolved.base.enabled()) {
+                    result.add(current.apply(resolved.base));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolves the effective rate limiting configuration by combining method-level and class-level annotations.
+     * Method-level values override class-level values when present.
+     * <p>
+     * Each of several {@code @RateLimit} annotations on the same element becomes one tier of the endpoint's limit,
+     * linked through {@link EffectiveRateLimitConfig#next()} in declaration order. Values left unset by a method-level
+     * tier fall back to the first class-level annotation.
+     * </p>
+     *
+     * @param method      the handler method.
+     * @param targetClass the class of the controller bean declaring the endpoint.
+     * @return an EffectiveRateLimitConfig instance containing the resolved settings of the first tier.
+     */
+    private EffectiveRateLimitConfig resolveEffectiveConfig(Method method, Class<?> targetClass) {
+        RateLimit[] methodAnnos = method.getAnnotationsByType(RateLimit.class);
+        RateLimit[] classAnnos = targetClass.getAnnotationsByType(RateLimit.class);
+        String endpoint = targetClass.getSimpleName() + "." + method.getName()
+                + (method.getParameterCount() == 0 ? "()" : "(..)");
+        String signature = targetClass.getName() + "#" + method;
+
+        // If method-level annotations are present, use their values (falling back to class-level if needed).
+        if (methodAnnos.length > 0) {
+            return resolveTiers(methodAnnos, classAnnos.length > 0 ? classAnnos[0] : null, endpoint, signature);
+        }
+        // Otherwise, if class-level annotations are present, use their values.
+        else if (classAnnos.length > 0) {
+            return resolveTiers(classAnnos, null, endpoint, signature);
+        }
+        // Otherwise, check if global rate limiting is enabled.
+        else if (rateLimitProperties.isEnabled()) {
+            return new EffectiveRateLimitConfig(nextEndpointId.getAndIncrement(), stableKey(signature), endpoint, true,
+                    rateLimitProperties.getCapacity(),
+                    globalDuration(),
+                    resolveAlgorithm(null, null, endpoint),
+                    resolveTolerance(null, null),
+                    resolveKeyResolver(null, null),
+                    null);
+        } else {
+            return EffectiveRateLimitConfig.DISABLED;
+        }
+    }
+
+    /**
+     * Resolves one tier per annotation and links them in declaration order.
+     *
+     * @param annos     the annotations of the element, one per tier.
+     * @param classAnno the class-level annotation unset values fall back to, or null.
+     * @param endpoint  the endpoint's display name.
+     * @param signature the endpoint's full signature, from which stable keys are derived.
+     * @return the first tier.
+     */
+    private EffectiveRateLimitConfig resolveTiers(RateLimit[] annos, RateLimit classAnno,
+                                                  String endpoint, String signature) {
+        // Every tier has its own limiters, so each gets its own ordinal and stable key.
+        int firstId = nextEndpointId.getAndAdd(annos.length);
+        EffectiveRateLimitConfig next = null;
+        for (int i = annos.length - 1; i >= 0; i--) {
+            RateLimit anno = annos[i];
+            next = new EffectiveRateLimitConfig(firstId + i,
+                    stableKey(i == 0 ? signature : signature + "#" + i), endpoint, true,
+                    resolveCapacity(anno, classAnno),
+                    resolveDuration(anno, classAnno),
+                    resolveAlgorithm(anno, classAnno, endpoint),
+                    resolveTolerance(anno, classAnno),
+                    resolveKeyResolver(anno, classAnno),
+                    next);
+        }
+        return next;
+    }
+
+    /**
+     * Converts a duration value and its time unit (provided as a string) to milliseconds.
+     *
+     * @param duration the duration value.
+     * @param unit     the time unit as a string (e.g., "SECOND", "MINUTE", "HOUR").
+     * @return the duration in milliseconds.
+     * @throws IllegalArgumentException if the time unit does not match any of the allowed values.
+     */
+    private long convertToMillis(long duration, String unit) {
+        if (unit == null) {
+            throw new IllegalArgumentException("Time unit cannot be null.");
+        }
+        if (unit.equalsIgnoreCase("SECOND")) {
+            return duration * 1000;
+        } else if (unit.equalsIgnoreCase("MINUTE")) {
+            return duration * 60 * 1000;
+        } else if (unit.equalsIgnoreCase("HOUR")) {
+            return duration * 3600 * 1000;
+        } else {
+            throw new IllegalArgumentException("Invalid time unit: " + unit + ". Expected SECOND, MINUTE, or HOUR.");
+        }
+    }
+
+    /**
+     * Computes a 64-bit FNV-1a hash of the endpoint's full signature; unlike the ordinal it is the same on every JVM.
+     */
+    private static long stableKey(String signature) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < signature.length(); i++) {
+            hash = (hash ^ signature.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private long globalDuration() {
+        return rateLimitProperties.getTime() * rateLimitProperties.getUnit().toMillis(1);
+    }
+
+    /**
+     * Resolves the capacity for rate limiting based on method-level and class-level annotations.
+     * If both are present, method-level values override class-level settings.
+     *
+     * @param methodAnno the method-level RateLimit annotation.
+     * @param classAnno  the class-level RateLimit annotation.
+     * @return the resolved capacity.
+     */
+    private int resolveCapacity(RateLimit methodAnno, RateLimit classAnno) {
+        if (methodAnno.limit() > 0) {
+            return methodAnno.limit();
+        } else if (classAnno != null && classAnno.limit() > 0) {
+            return classAnno.limit();
+        } else {
+            return rateLimitProperties.getCapacity();
+        }
+    }
+
+    /**
+     * Resolves the duration for rate limiting based on method-level and class-level annotations.
+     * If both are present, method-level values override class-level settings.
+     *
+     * @param methodAnno the method-level RateLimit annotation.
+     * @param classAnno  the class-level RateLimit annotation.
+     * @return the resolved duration in milliseconds.
+     */
+    private long resolveDuration(RateLimit methodAnno, RateLimit classAnno) {
+        if (methodAnno.duration() > 0) {
+            return convertToMillis(methodAnno.duration(), methodAnno.unit());
+        } else if (classAnno != null && classAnno.duration() > 0) {
+            return convertToMillis(classAnno.duration(), classAnno.unit());
+        } else {
+            return globalDuration();
+        }
+    }
+
+    /**
+     * Resolves the algorithm for rate limiting based on method-level and class-level annotations.
+     * If both are present, method-level values override class-level settings.
+     *
+     * @param methodAnno the method-level RateLimit annotation, or null.
+     * @param classAnno  the class-level RateLimit annotation, or null.
+     * @param endpoint   the endpoint's display name, for error messages.
+     * @return the resolved algorithm, never {@link RateLimitAlgorithm#DEFAULT}.
+     * @throws IllegalArgumentException if the off-heap store is selected and cannot evaluate the algorithm.
+     */
+    private RateLimitAlgorithm resolveAlgorithm(RateLimit methodAnno, RateLimit classAnno, String endpoint) {
+        RateLimitAlgorithm algorithm;
+        if (methodAnno != null && methodAnno.algorithm() != RateLimitAlgorithm.DEFAULT) {
+            algorithm = methodAnno.algorithm();
+        } else if (classAnno != null && classAnno.algorithm() != RateLimitAlgorithm.DEFAULT) {
+            algorithm = classAnno.algorithm();
+        } else if (rateLimitProperties.getAlgorithm() != RateLimitAlgorithm.DEFAULT) {
+            algorithm = rateLimitProperties.getAlgorithm();
+        } else {
+            algorithm = RateLimitAlgorithm.TOKEN_BUCKET;
+        }
+        if (rateLimitProperties.getStore().getType() == LimiterStoreType.OFF_HEAP
+                && !OffHeapLimiterStore.supports(algorithm)) {
+            throw new IllegalArgumentException("Rate limit algorithm " + algorithm + " of " + endpoint
+                    + " is not supported by the OFF_HEAP limiter store.");
+        }
+        return algorithm;
+    }
+
+    /**
+     * Resolves the tolerance of approximate algorithms based on method-level and class-level annotations.
+     * If both are present, method-level values override class-level settings.
+     *
+     * @param methodAnno the method-level RateLimit annotation, or null.
+     * @param classAnno  the class-level RateLimit annotation, or null.
+     * @return the resolved tolerance.
+     */
+    private double resolveTolerance(RateLimit methodAnno, RateLimit classAnno) {
+        if (methodAnno != null && methodAnno.tolerance() >= 0) {
+            return methodAnno.tolerance();
+        } else if (classAnno != null && classAnno.tolerance() >= 0) {
+            return classAnno.tolerance();
+        } else {
+            return rateLimitProperties.getTolerance();
+        }
+    }
+
+    /**
+     * Resolves how clients are identified based on method-level and class-level annotations.
+     * If both are present, method-level values override class-level settings.
+     *
+     * @param methodAnno the method-level RateLimit annotation, or null.
+     * @param classAnno  the class-level RateLimit annotation, or null.
+     * @return the shared resolver of the client key.
+     */
+    private ClientKeyResolver resolveKeyResolver(RateLimit methodAnno, RateLimit classAnno) {
+        RateLimit source = methodAnno != null && methodAnno.key() != ClientKeyType.DEFAULT ? methodAnno
+                : classAnno != null && classAnno.key() != ClientKeyType.DEFAULT ? classAnno
+                : null;
+        if (source == null) {
+            return clientKeyResolvers.get(ClientKeyType.DEFAULT, null);
+        }
+        String header = source.keyHeader();
+        if (header.isEmpty() && source == methodAnno && classAnno != null) {
+            header = classAnno.keyHeader();
+        }
+        return clientKeyResolvers.get(source.key(), header);
+    }
+
+    /**
+     * A cached configuration: as resolved from the annotations, and with the overrides of a snapshot applied.
+     */
+    private record Resolved(EffectiveRateLimitConfig base, EffectiveRateLimitConfig effective,
+                            RateLimitOverrides overrides) {
+
+        static Resolved of(EffectiveRateLimitConfig base, RateLimitOverrides overrides) {
+            return new Resolved(base, overrides.apply(base), overrides);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+/**
+ * Encoding of a rate limiting decision into a single {@code long}, so that limiters can report their state
+ * without allocating a result object.
+ * <p>
+ * Layout: the sign bit is set when the request is allowed, the low {@value #REMAINING_BITS} bits hold the number
+ * of requests remaining and the bits in between hold a delay in milliseconds. For an allowed request the delay is
+ * the time until the quota is fully restored; for a rejected one it is the time until a request may be admitted
+ * again. Values that do not fit are saturated.
+ * </p>
+ */
+public final class RateLimitDecision {
+
+    public static final int REMAINING_BITS = 24;
+    public static final long MAX_REMAINING = (1L << REMAINING_BITS) - 1;
+    public static final long MAX_DELAY_MILLIS = (1L << (Long.SIZE - 1 - REMAINING_BITS)) - 1;
+    private static final long ALLOWED = Long.MIN_VALUE;
+
+    private RateLimitDecision() {
+    }
+
+    /**
+     * Encodes an admitted request.
+     *
+     * @param remaining   the number of requests that would still be admitted right now.
+     * @param resetMillis the time until the quota is fully restored.
+     * @return the encoded decision.
+     */
+    public static long allowed(long remaining, long resetMillis) {
+        return ALLOWED | encode(remaining, resetMillis);
+    }
+
+    /**
+     * Encodes a rejected request.
+     *
+     * @param retryAfterMillis the time until a request may be admitted again.
+     * @return the encoded decision.
+     */
+    public static long rejected(long retryAfterMillis) {
+        return encode(0, retryAfterMillis);
+    }
+
+    /**
+     * @return whether the decision admits the request.
+     */
+    public static boolean isAllowed(long decision) {
+        return decision < 0;
+    }
+
+    /**
+     * @return the number of requests that would still be admitted right now.
+     */
+    public static int remaining(long decision) {
+        return (int) (decision & MAX_REMAINING);
+    }
+
+    /**
+     * @return the time until the quota is fully restored (allowed) or until a request may be admitted (rejected).
+     */
+    public static long delayMillis(long decision) {
+        return (decision >>> REMAINING_BITS) & MAX_DELAY_MILLIS;
+    }
+
+    private static long encode(long remaining, long delayMillis) {
+        long delay = Math.min(Math.max(delayMillis, 0), MAX_DELAY_MILLIS);
+        return (delay << REMAINING_BITS) | Math.min(Math.max(remaining, 0), MAX_REMAINING);
+    }
+}
@@ -1,10 +1,75 @@
 package com.io.spring_boot_archetype.ratelimiter;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Exception thrown when the rate limit is exceeded.
+ * <p>
+ * The exception does not capture a stack trace, and it carries its response body pre-serialized as JSON, so that
+ * a rejection costs neither a stack walk nor object mapping. The status is 429, except for subclasses shedding load
+ * with a 503. Instances created with
+ * {@link #forEndpoint(String)} contain no request-specific data and are meant to be cached and rethrown.
+ * </p>
  */
 public class RateLimitExceededException extends RuntimeException {
+
+    private final int status;
+    private final transient byte[] body;
+
     public RateLimitExceededException(String message) {
-        super(message);
+        this(message, 429, "Too Many Requests");
+    }
+
+    /**
+     * Creates a rejection answered with another status, for load shedding.
+     *
+     * @param message the message.
+     * @param status  the HTTP status of the response.
+     * @param error   the reason phrase of the status.
+     */
+    protected RateLimitExceededException(String message, int status, String error) {
+        super(message, null, false, false);
+        this.status = status;
+        this.body = ("{\"status\":" + status + ",\"error\":\"" + error + "\",\"message\":\"" + escapeJson(message)
+                + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates the reusable rejection of an endpoint.
+     *
+     * @param endpoint the endpoint's name.
+     * @return a new RateLimitExceededException instance.
+     */
+    public static RateLimitExceededException forEndpoint(String endpoint) {
+        return new RateLimitExceededException("Rate limit exceeded on endpoint " + endpoint);
+    }
+
+    /**
+     * @return the HTTP status of the response.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the JSON response body; must not be modified.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    private static String escapeJson(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
     }
 }
@@ -0,0 +1,38 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Writes the {@code RateLimit-*} and {@code Retry-After} response headers from a {@link RateLimitDecision}.
+ * <p>
+ * {@code RateLimit-Reset} and {@code Retry-After} are in whole seconds, rounded up so that a client backing off
+ * for the advertised time is not rejected again.
+ * </p>
+ */
+public final class RateLimitHeaders {
+
+    public static final String LIMIT = "RateLimit-Limit";
+    public static final String REMAINING = "RateLimit-Remaining";
+    public static final String RESET = "RateLimit-Reset";
+
+    private RateLimitHeaders() {
+    }
+
+    /**
+     * Sets the headers describing the decision on the response.
+     *
+     * @param response the response, not committed yet.
+     * @param config   the endpoint's effective configuration.
+     * @param decision the encoded decision.
+     */
+    public static void apply(HttpServletResponse response, EffectiveRateLimitConfig config, long decision) {
+        int resetSeconds = (int) ((RateLimitDecision.delayMillis(decision) + 999) / 1000);
+        response.setIntHeader(LIMIT, config.capacity());
+        response.setIntHeader(REMAINING, RateLimitDecision.remaining(decision));
+        response.setIntHeader(RESET, resetSeconds);
+        if (!RateLimitDecision.isAllowed(decision)) {
+            response.setIntHeader(HttpHeaders.RETRY_AFTER, Math.max(1, resetSeconds));
+        }
+    }
+}
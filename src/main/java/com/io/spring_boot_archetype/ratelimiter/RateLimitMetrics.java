@@ -0,0 +1,93 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records rate limit decisions with Micrometer.
+ * <p>
+ * Meters are tagged by endpoint only, never by client, so the number of series is bounded by the number of
+ * rate limited endpoints. Each endpoint's counters are registered on its first decision and kept in an array
+ * indexed by the endpoint ordinal, so recording a decision is an array read and two atomic updates, without any
+ * registry lookup:
+ * </p>
+ * <ul>
+ *     <li>{@code ratelimiter.requests}: decisions, tagged {@code endpoint} and {@code outcome=allowed|rejected}.</li>
+ *     <li>{@code ratelimiter.decision.latency}: time to decide on a request across all its tiers, as a histogram.</li>
+ *     <li>{@code ratelimiter.cas.retries}: compare-and-set retries of limiter decisions, see
+ *     {@link LimiterContention}.</li>
+ * </ul>
+ * <p>
+ * The number of clients tracked is published by the limiter store as {@code ratelimiter.store.entries}.
+ * </p>
+ */
+@Component
+public class RateLimitMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer latency;
+    private volatile EndpointMeters[] endpoints = new EndpointMeters[16];
+
+    public RateLimitMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.latency = Timer.builder("ratelimiter.decision.latency")
+                .description("Time to decide whether a request is within its rate limits")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(500))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(registry);
+        FunctionCounter.builder("ratelimiter.cas.retries", this, metrics -> LimiterContention.retries())
+                .description("Compare-and-set retries of rate limiter decisions due to concurrent updates")
+                .register(registry);
+    }
+
+    /**
+     * Records the decision on a request.
+     *
+     * @param config       the endpoint's effective configuration.
+     * @param startedNanos the {@link System#nanoTime()} before the decision was taken.
+     * @param decision     the decision, encoded as described in {@link RateLimitDecision}.
+     */
+    public void record(EffectiveRateLimitConfig config, long startedNanos, long decision) {
+        latency.record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        EndpointMeters[] table = endpoints;
+        int id = config.endpointId();
+        EndpointMeters meters = id < table.length ? table[id] : null;
+        if (meters == null) {
+            meters = register(config);
+        }
+        (RateLimitDecision.isAllowed(decision) ? meters.allowed : meters.rejected).increment();
+    }
+
+    private synchronized EndpointMeters register(EffectiveRateLimitConfig config) {
+        int id = config.endpointId();
+        EndpointMeters[] table = endpoints;
+        if (id < table.length && table[id] != null) {
+            return table[id];
+        }
+        if (id >= table.length) {
+            table = Arrays.copyOf(table, Math.max(id + 1, table.length * 2));
+        }
+        EndpointMeters meters = new EndpointMeters(requests(config, "allowed"), requests(config, "rejected"));
+        table[id] = meters;
+        endpoints = table;
+        return meters;
+    }
+
+    private Counter requests(EffectiveRateLimitConfig config, String outcome) {
+        return Counter.builder("ratelimiter.requests")
+                .description("Rate limit decisions on requests")
+                .tags("endpoint", config.endpoint(), "outcome", outcome)
+                .register(registry);
+    }
+
+    private record EndpointMeters(Counter allowed, Counter rejected) {
+    }
+}
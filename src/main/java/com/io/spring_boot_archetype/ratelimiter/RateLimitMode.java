@@ -0,0 +1,15 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+/**
+ * Where rate limits are enforced, selected with {@code rate-limit.mode}.
+ */
+public enum RateLimitMode {
+    /**
+     * Around the controller method, after the servlet filters and handler mapping have run.
+     */
+    ASPECT,
+    /**
+     * In a servlet filter ahead of Spring Security and the other filters, so rejected requests are never dispatched.
+     */
+    FILTER
+}
@@ -1,9 +1,18 @@
 package com.io.spring_boot_archetype.ratelimiter;
 
+import com.io.spring_boot_archetype.ratelimiter.concurrency.ConcurrencyLimitAlgorithm;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKeyType;
+import com.io.spring_boot_archetype.ratelimiter.key.ForwardedHeader;
+import com.io.spring_boot_archetype.ratelimiter.shedding.RequestPriority;
+import com.io.spring_boot_archetype.ratelimiter.store.LimiterStoreType;
+import com.io.spring_boot_archetype.ratelimiter.distributed.RateLimiterBackendType;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -11,9 +20,38 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * Default values:
  * - enabled: false (global rate limiting disabled)
+ * - mode: ASPECT (enforce limits around controller methods; FILTER rejects in a servlet filter before dispatch)
  * - capacity: 10 (maximum number of requests allowed)
  * - time: 60 (time value)
  * - unit: SECONDS (time unit)
+ * - algorithm: TOKEN_BUCKET (algorithm used when annotations do not specify one)
+ * - tolerance: 0.05 (fraction of the limit by which STRIPED_TOKEN_BUCKET may deviate)
+ * - key.type: REMOTE_ADDRESS (how clients are identified when annotations do not specify it)
+ * - key.trusted-proxies: none (CIDR ranges whose forwarding header is trusted)
+ * - key.forwarded-header: X_FORWARDED_FOR (header the trusted proxies maintain: FORWARDED or X_FORWARDED_FOR)
+ * - key.api-key-header: X-API-Key (header holding the API key for the API_KEY key type)
+ * - key.header: none (header identifying the client for the HEADER key type)
+ * - store.type: HEAP (backend holding per-client limiter state; OFF_HEAP keeps it in direct memory)
+ * - store.max-entries: 100000 (approximate maximum number of client limiters kept in memory)
+ * - backend.type: LOCAL (limits per instance; REMOTE shares them across replicas through a quota server)
+ * - backend.host / backend.port: localhost / 7071 (quota server address)
+ * - backend.lease-size: 10 (tokens leased from the quota server at once)
+ * - backend.timeout: 100ms (connect and lease timeout before falling back to local limits)
+ * - backend.embedded-server: false (start a quota server in this instance, bound to backend.bind-address)
+ * - concurrency.enabled: false (adaptive concurrency limits for endpoints without @ConcurrencyLimit)
+ * - concurrency.algorithm: GRADIENT (how concurrency limits adapt when annotations do not specify it)
+ * - concurrency.initial-limit / min-limit / max-limit: 20 / 1 / 200 (bounds of concurrency limits)
+ * - concurrency.timeout: 1s (AIMD: latency above which a request signals overload)
+ * - concurrency.backoff-ratio: 0.9 (AIMD: factor applied to the limit on overload)
+ * - shedding.enabled: false (shed requests by priority when the instance is overloaded)
+ * - shedding.default-priority: NORMAL (priority of endpoints without @ShedPriority)
+ * - shedding.max-in-flight: 200 (requests in progress at which the instance counts as fully loaded)
+ * - shedding.max-cpu-load: 0.9 (system CPU load at which the instance counts as fully loaded)
+ * - shedding.max-queue-time: 100ms (time queued ahead of the application at which it counts as fully loaded)
+ * - shedding.request-start-header: none (header in which a trusted proxy records when it received the request,
+ *   e.g. X-Request-Start; only read from key.trusted-proxies)
+ * - snapshot.enabled: false (save limiter state at shutdown and restore it at startup; heap store only)
+ * - snapshot.path: ratelimiter.snapshot (file the limiter state is saved to)
  * <p>
  * These values can be overridden in application.yml.
  */
@@ -22,7 +60,88 @@ import java.util.concurrent.TimeUnit;
 @ConfigurationProperties(prefix = "rate-limit")
 public class RateLimitProperties {
     private boolean enabled = false;
+    private RateLimitMode mode = RateLimitMode.ASPECT;
     private int capacity = 10;
     private long time = 60;
     private TimeUnit unit = TimeUnit.SECONDS;
+    private RateLimitAlgorithm algorithm = RateLimitAlgorithm.TOKEN_BUCKET;
+    private double tolerance = StripedTokenBucketRateLimiter.DEFAULT_TOLERANCE;
+    private final Key key = new Key();
+    private final Store store = new Store();
+    private final Backend backend = new Backend();
+    private final Concurrency concurrency = new Concurrency();
+    private final Shedding shedding = new Shedding();
+    private final Snapshot snapshot = new Snapshot();
+
+    /**
+     * Settings of how the client a request is counted against is identified.
+     */
+    @Data
+    public static class Key {
+        private ClientKeyType type = ClientKeyType.REMOTE_ADDRESS;
+        private List<String> trustedProxies = new ArrayList<>();
+        private ForwardedHeader forwardedHeader = ForwardedHeader.X_FORWARDED_FOR;
+        private String apiKeyHeader = "X-API-Key";
+        private String header;
+    }
+
+    /**
+     * Settings of the store holding per-client limiter state.
+     * Idle limiters are reclaimed first; once the store is full, the least recently used ones are evicted.
+     */
+    @Data
+    public static class Store {
+        private LimiterStoreType type = LimiterStoreType.HEAP;
+        private int maxEntries = 100_000;
+    }
+
+    /**
+     * Settings of the backend deciding on requests, either per instance or shared across replicas.
+     */
+    @Data
+    public static class Backend {
+        private RateLimiterBackendType type = RateLimiterBackendType.LOCAL;
+        private String host = "localhost";
+        private int port = 7071;
+        private int leaseSize = 10;
+        private Duration timeout = Duration.ofMillis(100);
+        private boolean embeddedServer = false;
+        private String bindAddress = "localhost";
+    }
+
+    /**
+     * Settings of the adaptive concurrency limits applied with {@code @ConcurrencyLimit}.
+     */
+    @Data
+    public static class Concurrency {
+        private boolean enabled = false;
+        private ConcurrencyLimitAlgorithm algorithm = ConcurrencyLimitAlgorithm.GRADIENT;
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private Duration timeout = Duration.ofSeconds(1);
+        private double backoffRatio = 0.9;
+    }
+
+    /**
+     * Settings of priority-aware load shedding; each limit is the level of its signal at which the load reaches 1.
+     */
+    @Data
+    public static class Shedding {
+        private boolean enabled = false;
+        private RequestPriority defaultPriority = RequestPriority.NORMAL;
+        private int maxInFlight = 200;
+        private double maxCpuLoad = 0.9;
+        private Duration maxQueueTime = Duration.ofMillis(100);
+        private String requestStartHeader;
+    }
+
+    /**
+     * Settings of the limiter state snapshot kept across restarts.
+     */
+    @Data
+    public static class Snapshot {
+        private boolean enabled = false;
+        private String path = "ratelimiter.snapshot";
+    }
 }
@@ -0,0 +1,42 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs rate limit rejections as a periodic count instead of one line per request.
+ * <p>
+ * Rejections are counted on a {@link LongAdder}; at most once every {@value #INTERVAL_SECONDS} seconds the first thread
+ * to notice the interval has passed logs the count since the previous line, together with the endpoint of the
+ * rejection it is recording as a sample. A flood of rejected requests thus produces a handful of log lines.
+ * </p>
+ */
+@Slf4j
+@Component
+public class RateLimitRejectionLogger {
+
+    private static final long INTERVAL_SECONDS = 10;
+    private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(INTERVAL_SECONDS);
+
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicLong nextLogAt = new AtomicLong(System.nanoTime());
+
+    /**
+     * Records a rejected request.
+     *
+     * @param ex the rejection.
+     */
+    public void record(RateLimitExceededException ex) {
+        rejected.increment();
+        long now = System.nanoTime();
+        long next = nextLogAt.get();
+        if (now - next >= 0 && nextLogAt.compareAndSet(next, now + INTERVAL_NANOS)) {
+            log.warn("Rejected {} rate limited requests since the last report, e.g. \"{}\"",
+                    rejected.sumThenReset(), ex.getMessage());
+        }
+    }
+}
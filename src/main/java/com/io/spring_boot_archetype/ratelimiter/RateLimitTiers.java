@@ -0,0 +1,95 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKey;
+import com.io.spring_boot_archetype.ratelimiter.override.RateLimitOverrides;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Evaluates all tiers of an endpoint's limit in a single pass.
+ * <p>
+ * Tiers are acquired in declaration order, each under the client key of its own {@link
+ * com.io.spring_boot_archetype.ratelimiter.key.ClientKeyResolver}. As soon as one tier rejects the request,
+ * the permits already taken from the tiers before it are refunded, so a rejected request consumes nothing.
+ * Permits are reserved before the outcome is known, so a concurrent request may briefly see one less permit in an
+ * earlier tier; this can only reject a request early, never admit one over any tier's limit. Declaring the most
+ * restrictive tier first keeps refunds rare.
+ * </p>
+ * <p>
+ * Each tier is evaluated with the client's overrides, if any: a client may have its own limit, or be exempt from
+ * a tier, in which case the tier is skipped.
+ * </p>
+ * <p>
+ * An endpoint with a single tier costs exactly one acquisition, as before.
+ * </p>
+ */
+public final class RateLimitTiers {
+
+    // Decision for a client exempt from every tier.
+    private static final long EXEMPT = RateLimitDecision.allowed(RateLimitDecision.MAX_REMAINING, 0);
+
+    private RateLimitTiers() {
+    }
+
+    /**
+     * Records a request against every tier of the endpoint and admits it only if all of them admit it.
+     * The response headers describe the binding tier: the one that rejected the request, or otherwise the one with
+     * the fewest remaining requests. A client exempt from every tier is admitted without headers.
+     *
+     * @param backend   the backend holding the limiter state.
+     * @param overrides the overrides in effect, providing per-client limits.
+     * @param config    the endpoint's effective configuration, i.e. its first tier.
+     * @param request   the request, from which each tier resolves its client key.
+     * @param response  the response to set the rate limit headers on, or null.
+     * @param key       a reusable key, overwritten for each tier.
+     * @return the decision of the binding tier, encoded as described in {@link RateLimitDecision}.
+     */
+    public static long tryAcquire(RateLimiterBackend backend, RateLimitOverrides overrides,
+                                  EffectiveRateLimitConfig config, HttpServletRequest request,
+                                  HttpServletResponse response, ClientKey key) {
+        EffectiveRateLimitConfig binding = null;
+        long decision = EXEMPT;
+        // Only a later tier can cause a refund, so a single tier does without the clock read.
+        long acquiredAt = config.next() != null ? System.nanoTime() : 0;
+        int index = 0;
+        for (EffectiveRateLimitConfig tier = config; tier != null; tier = tier.next(), index++) {
+            tier.keyResolver().resolve(request, key);
+            EffectiveRateLimitConfig limit = overrides.forClient(tier, index, key.getHigh(), key.getLow());
+            if (!limit.enabled()) {
+                continue;
+            }
+            long tierDecision = backend.tryAcquire(limit, key.getHigh(), key.getLow());
+            if (!RateLimitDecision.isAllowed(tierDecision)) {
+                refund(backend, overrides, config, tier, request, key, acquiredAt);
+                binding = limit;
+                decision = tierDecision;
+                break;
+            }
+            if (binding == null || RateLimitDecision.remaining(tierDecision) < RateLimitDecision.remaining(decision)) {
+                binding = limit;
+                decision = tierDecision;
+            }
+        }
+        if (response != null && binding != null) {
+            RateLimitHeaders.apply(response, binding, decision);
+        }
+        return decision;
+    }
+
+    /**
+     * Refunds the tiers from {@code first} up to, excluding, the rejecting one.
+     */
+    private static void refund(RateLimiterBackend backend, RateLimitOverrides overrides,
+                               EffectiveRateLimitConfig first, EffectiveRateLimitConfig rejecting,
+                               HttpServletRequest request, ClientKey key, long acquiredAt) {
+        int index = 0;
+        for (EffectiveRateLimitConfig tier = first; tier != rejecting; tier = tier.next(), index++) {
+            // Resolving is deterministic for a request, so the key leads back to the limiter that was charged.
+            tier.keyResolver().resolve(request, key);
+            EffectiveRateLimitConfig limit = overrides.forClient(tier, index, key.getHigh(), key.getLow());
+            if (limit.enabled()) {
+                backend.refund(limit, key.getHigh(), key.getLow(), acquiredAt);
+            }
+        }
+    }
+}
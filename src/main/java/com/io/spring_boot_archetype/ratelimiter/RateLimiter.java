@@ -1,44 +1,74 @@
 package com.io.spring_boot_archetype.ratelimiter;
 
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
-
 /**
- * A thread-safe rate limiter that restricts the number of requests within a specified time period.
- * This implementation uses atomic variables and CAS loops to ensure atomic operations.
+ * Strategy for deciding whether a request is admitted under a rate limiting policy.
+ * <p>
+ * Implementations keep their own per-client state, must be thread-safe and should not
+ * allocate on the decision path, since {@link #tryAcquire()} is invoked for every request.
+ * </p>
  */
-public class RateLimiter {
-    private final int limit;
-    private final long duration;
-    private final AtomicInteger requests = new AtomicInteger(0);
-    private final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
-
-    public RateLimiter(int limit, long duration) {
-        this.limit = limit;
-        this.duration = duration;
-    }
+public interface RateLimiter {
+
+    /**
+     * Records a new request and decides whether it is allowed based on the current rate limiting policy.
+     *
+     * @return the decision, encoded as described in {@link RateLimitDecision}.
+     */
+    long tryAcquire();
 
     /**
      * Checks if a new request is allowed based on the current rate limiting policy.
      *
      * @return true if the request is allowed, false otherwise.
      */
-    public boolean allowRequest() {
-        long now = System.currentTimeMillis();
-        long currentWindow = windowStart.get();
-        // If the duration has passed and we can atomically update the window start, reset the request count.
-        if (now - currentWindow > duration && windowStart.compareAndSet(currentWindow, now)) {
-            requests.set(0);
-        }
-        // Atomically check and increment the request counter.
-        while (true) {
-            int current = requests.get();
-            if (current >= limit) {
-                return false;
-            }
-            if (requests.compareAndSet(current, current + 1)) {
-                return true;
-            }
-        }
+    default boolean allowRequest() {
+        return RateLimitDecision.isAllowed(tryAcquire());
     }
+
+    /**
+     * Gives back the permit taken by a request that was admitted but not served after all,
+     * e.g. because another limit of the same endpoint rejected it.
+     * <p>
+     * The permit is returned on a best-effort basis: if the state has moved on since, e.g. into a new window,
+     * the refund is dropped rather than letting the limiter exceed its bound.
+     * </p>
+     *
+     * @param acquiredAt the {@link System#nanoTime()} read before the permit was acquired, telling windowed limiters
+     *                   which window the permit was counted in.
+     */
+    void refund(long acquiredAt);
+
+    /**
+     * Estimates the fraction of the limit currently used up, i.e. how close the next request is to a rejection.
+     *
+     * @return the utilization, between 0 (a fresh limiter) and 1 (no request would be admitted now).
+     */
+    double utilization();
+
+    /**
+     * Marks the given fraction of a fresh limiter's limit as used up.
+     * <p>
+     * Together with {@link #utilization()}, this carries a client's state over to a limiter with different
+     * parameters when an endpoint's limit is changed at runtime, so that raising or lowering a limit neither hands
+     * out a fresh quota nor locks out clients that are within it.
+     * </p>
+     *
+     * @param utilization the fraction of the limit to mark as used, between 0 and 1.
+     */
+    void occupy(double utilization);
+
+    /**
+     * Checks whether the limiter's state is equivalent to that of a freshly created limiter,
+     * in which case it can be discarded without changing any future decision.
+     *
+     * @return true if the limiter has been idle long enough to be reclaimed.
+     */
+    boolean isIdle();
+
+    /**
+     * Estimates the heap retained by this limiter, used for memory footprint metrics.
+     *
+     * @return the estimated size in bytes.
+     */
+    long estimatedBytes();
 }
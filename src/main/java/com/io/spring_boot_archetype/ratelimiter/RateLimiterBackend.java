@@ -0,0 +1,34 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+/**
+ * SPI deciding whether a request of a client on an endpoint is admitted.
+ * <p>
+ * The local backend is the {@link com.io.spring_boot_archetype.ratelimiter.store.LimiterStore} of this JVM,
+ * which limits per replica. Shared backends such as
+ * {@link com.io.spring_boot_archetype.ratelimiter.distributed.RemoteRateLimiterBackend} enforce one limit across
+ * all replicas. Selected via {@code rate-limit.backend.type}.
+ * </p>
+ */
+public interface RateLimiterBackend {
+
+    /**
+     * Records a request of the given client on the given endpoint and decides whether it is admitted.
+     *
+     * @param config the endpoint's effective configuration.
+     * @param high   the upper 64 bits of the client key.
+     * @param low    the lower 64 bits of the client key.
+     * @return the decision, encoded as described in {@link RateLimitDecision}.
+     */
+    long tryAcquire(EffectiveRateLimitConfig config, long high, long low);
+
+    /**
+     * Gives back the permit taken by an admitted request of the given client that was not served after all,
+     * see {@link RateLimiter#refund(long)}.
+     *
+     * @param config     the endpoint's effective configuration.
+     * @param high       the upper 64 bits of the client key.
+     * @param low        the lower 64 bits of the client key.
+     * @param acquiredAt the {@link System#nanoTime()} read before the permit was acquired.
+     */
+    void refund(EffectiveRateLimitConfig config, long high, long low, long acquiredAt);
+}
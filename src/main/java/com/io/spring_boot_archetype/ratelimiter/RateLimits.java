@@ -0,0 +1,15 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Container for repeated {@link RateLimit} annotations, each of which is one tier of the endpoint's limit.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RateLimits {
+    RateLimit[] value();
+}
@@ -0,0 +1,136 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import java.util.Arrays;
+
+/**
+ * A thread-safe sliding log rate limiter.
+ * <p>
+ * The timestamps of the last {@code limit} admitted requests are kept in a bounded ring buffer of primitive longs.
+ * A request is admitted only if the oldest of them has left the window, which makes this the exact sliding window:
+ * no client can exceed the limit within any interval of the given duration.
+ * </p>
+ * <p>
+ * Memory is {@code 8 * limit} bytes per client, so this algorithm is intended for low limits where fairness matters.
+ * The ring buffer is updated under the limiter's monitor; the critical section is a read and a write of one slot.
+ * </p>
+ */
+public class SlidingLogRateLimiter implements RateLimiter {
+
+    private final long windowNanos;
+    private final long[] log;
+    private final long origin = System.nanoTime();
+    private int head;
+
+    /**
+     * @param limit    maximum number of requests allowed within any window of the given duration.
+     * @param duration the window duration in milliseconds.
+     */
+    public SlidingLogRateLimiter(int limit, long duration) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Invalid sliding log limit: " + limit + ".");
+        }
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Invalid sliding log duration: " + duration + " ms.");
+        }
+        this.windowNanos = duration * 1_000_000;
+        this.log = new long[limit];
+        // Slots start out far enough in the past to be outside any window.
+        Arrays.fill(log, -windowNanos);
+    }
+
+    @Override
+    public long tryAcquire() {
+        long now = System.nanoTime() - origin;
+        synchronized (this) {
+            // The slot at head holds the oldest admitted timestamp among the last `limit` requests.
+            long oldest = log[head];
+            if (now - oldest < windowNanos) {
+                return RateLimitDecision.rejected(nanosToMillis(oldest + windowNanos - now));
+            }
+            log[head] = now;
+            head = (head + 1 == log.length) ? 0 : head + 1;
+            return RateLimitDecision.allowed(expiredEntries(now), nanosToMillis(windowNanos));
+        }
+    }
+
+    /**
+     * Removes the newest logged timestamp. Rewinding the head turns its slot into the oldest one, which is
+     * marked as outside any window, so the log stays ordered. Under concurrency the removed timestamp may belong
+     * to a request admitted just after the refunded one, which only shifts the window by that difference.
+     */
+    @Override
+    public void refund(long acquiredAt) {
+        synchronized (this) {
+            int newest = head == 0 ? log.length - 1 : head - 1;
+            if (log[newest] != -windowNanos) {
+                log[newest] = -windowNanos;
+                head = newest;
+            }
+        }
+    }
+
+    /**
+     * Counts the logged timestamps outside the window, i.e. the requests that would still be admitted.
+     * Timestamps are ordered from head onwards, so the boundary is found by binary search.
+     */
+    private int expiredEntries(long now) {
+        int lo = 0;
+        int hi = log.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int slot = head + mid < log.length ? head + mid : head + mid - log.length;
+            if (now - log[slot] >= windowNanos) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    @Override
+    public double utilization() {
+        long now = System.nanoTime() - origin;
+        synchronized (this) {
+            return 1 - (double) expiredEntries(now) / log.length;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The used requests are logged as admitted now, so they expire one window from now.
+     * </p>
+     */
+    @Override
+    public void occupy(double utilization) {
+        long now = System.nanoTime() - origin;
+        int used = TokenBucketRateLimiter.usedPermits(utilization, log.length);
+        synchronized (this) {
+            for (int i = 0; i < used; i++) {
+                log[head] = now;
+                head = (head + 1 == log.length) ? 0 : head + 1;
+            }
+        }
+    }
+
+    private static long nanosToMillis(long nanos) {
+        return (nanos + 999_999) / 1_000_000;
+    }
+
+    @Override
+    public boolean isIdle() {
+        long now = System.nanoTime() - origin;
+        synchronized (this) {
+            // The slot before head holds the most recent admitted timestamp.
+            long newest = log[head == 0 ? log.length - 1 : head - 1];
+            return now - newest >= windowNanos;
+        }
+    }
+
+    @Override
+    public long estimatedBytes() {
+        // Limiter object plus the timestamp array, assuming compressed oops.
+        return 40 + 16 + 8L * log.length;
+    }
+}
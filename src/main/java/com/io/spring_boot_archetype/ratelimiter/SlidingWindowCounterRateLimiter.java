@@ -0,0 +1,160 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe sliding window counter rate limiter.
+ * <p>
+ * Requests are counted in fixed buckets of {@code duration} length. The estimated count for the sliding window
+ * ending now is the current bucket plus the previous bucket weighted by how much of it still overlaps the window.
+ * This approximates a true sliding window with constant memory and removes most of the fixed-window boundary burst.
+ * </p>
+ * <p>
+ * State layout: a single {@link AtomicLong} holds the current count (low {@value #COUNT_BITS} bits),
+ * the previous count (next {@value #COUNT_BITS} bits) and the bucket number (high bits), so a decision is one CAS.
+ * </p>
+ */
+public class SlidingWindowCounterRateLimiter implements RateLimiter {
+
+    static final int COUNT_BITS = 21;
+    static final int MAX_CAPACITY = (1 << COUNT_BITS) - 1;
+    private static final long COUNT_MASK = MAX_CAPACITY;
+    private static final long BUCKET_MASK = -1L >>> (2 * COUNT_BITS);
+
+    private final int limit;
+    private final long duration;
+    private final long origin = System.nanoTime();
+    private final AtomicLong state = new AtomicLong(0);
+
+    /**
+     * @param limit    maximum number of requests allowed within any window of the given duration.
+     * @param duration the window duration in milliseconds.
+     */
+    public SlidingWindowCounterRateLimiter(int limit, long duration) {
+        if (limit <= 0 || limit > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Invalid sliding window limit: " + limit
+                    + ". Expected a value between 1 and " + MAX_CAPACITY + ".");
+        }
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Invalid sliding window duration: " + duration + " ms.");
+        }
+        this.limit = limit;
+        this.duration = duration;
+    }
+
+    @Override
+    public long tryAcquire() {
+        long now = currentMillis();
+        long bucket = (now / duration) & BUCKET_MASK;
+        long elapsedInBucket = now % duration;
+        while (true) {
+            long current = state.get();
+            long storedBucket = current >>> (2 * COUNT_BITS);
+            long count;
+            long previous;
+            if (storedBucket == bucket) {
+                count = current & COUNT_MASK;
+                previous = (current >>> COUNT_BITS) & COUNT_MASK;
+            } else if (((storedBucket + 1) & BUCKET_MASK) == bucket) {
+                count = 0;
+                previous = current & COUNT_MASK;
+            } else {
+                count = 0;
+                previous = 0;
+            }
+            // estimate = previous * (duration - elapsed) / duration + count, compared without division.
+            long weightedPrevious = previous * (duration - elapsedInBucket);
+            if (weightedPrevious + count * duration >= limit * duration) {
+                return RateLimitDecision.rejected(retryAfter(previous, count, elapsedInBucket));
+            }
+            long next = (bucket << (2 * COUNT_BITS)) | (previous << COUNT_BITS) | (count + 1);
+            if (state.compareAndSet(current, next)) {
+                long remaining = (limit * duration - weightedPrevious - (count + 1) * duration) / duration;
+                // The current bucket stops weighing in at the end of the next one.
+                return RateLimitDecision.allowed(remaining, 2 * duration - elapsedInBucket);
+            }
+            LimiterContention.retry();
+        }
+    }
+
+    /**
+     * Computes the milliseconds until the estimate drops below the limit: within this bucket if the previous
+     * bucket's fading weight suffices, otherwise once the current count has partly faded in the next bucket.
+     */
+    private long retryAfter(long previous, long count, long elapsedInBucket) {
+        if (count < limit) {
+            // Smallest elapsed time e with previous * (duration - e) + count * duration < limit * duration.
+            long threshold = duration - (limit - count) * duration / previous;
+            return Math.max(1, threshold + 1 - elapsedInBucket);
+        }
+        long threshold = duration - limit * duration / count;
+        return duration - elapsedInBucket + threshold + 1;
+    }
+
+    @Override
+    public void refund(long acquiredAt) {
+        // A limiter created after the acquisition started out in its first bucket.
+        long bucket = (Math.max(0, acquiredAt - origin) / 1_000_000 / duration) & BUCKET_MASK;
+        while (true) {
+            long current = state.get();
+            // Only a request still counted in its own bucket can be given back; once the bucket has moved on,
+            // the count is another bucket's or has already faded.
+            if (current >>> (2 * COUNT_BITS) != bucket || (current & COUNT_MASK) == 0
+                    || state.compareAndSet(current, current - 1)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public double utilization() {
+        long now = currentMillis();
+        long bucket = (now / duration) & BUCKET_MASK;
+        long current = state.get();
+        long storedBucket = current >>> (2 * COUNT_BITS);
+        double estimate;
+        if (storedBucket == bucket) {
+            long previous = (current >>> COUNT_BITS) & COUNT_MASK;
+            estimate = (double) previous * (duration - now % duration) / duration + (current & COUNT_MASK);
+        } else if (((storedBucket + 1) & BUCKET_MASK) == bucket) {
+            estimate = (double) (current & COUNT_MASK) * (duration - now % duration) / duration;
+        } else {
+            estimate = 0;
+        }
+        return Math.min(1, estimate / limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The used requests are counted in the current bucket, so they fade out over the next one.
+     * </p>
+     */
+    @Override
+    public void occupy(double utilization) {
+        long bucket = (currentMillis() / duration) & BUCKET_MASK;
+        state.set((bucket << (2 * COUNT_BITS)) | TokenBucketRateLimiter.usedPermits(utilization, limit));
+    }
+
+    @Override
+    public boolean isIdle() {
+        long current = state.get();
+        long bucket = (currentMillis() / duration) & BUCKET_MASK;
+        long age = (bucket - (current >>> (2 * COUNT_BITS))) & BUCKET_MASK;
+        if (age == 0) {
+            return (current & ((COUNT_MASK << COUNT_BITS) | COUNT_MASK)) == 0;
+        }
+        // One bucket later the current count still weighs in as the previous one.
+        return age > 1 || (current & COUNT_MASK) == 0;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        // Limiter object plus its AtomicLong, assuming compressed oops.
+        return 40 + 24;
+    }
+
+    private long currentMillis() {
+        return (System.nanoTime() - origin) / 1_000_000;
+    }
+}
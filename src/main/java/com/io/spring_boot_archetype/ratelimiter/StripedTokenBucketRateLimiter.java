@@ -0,0 +1,207 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.io.spring_boot_archetype.ratelimiter.TokenBucketRateLimiter.TOKEN_MASK;
+
+/**
+ * A token bucket that spreads a single hot client over per-core cells, in the manner of
+ * {@link java.util.concurrent.atomic.LongAdder}.
+ * <p>
+ * The central bucket uses the same packed state as {@link TokenBucketRateLimiter}. As long as it is not contended,
+ * every request takes its token from there and the limiter behaves exactly like a token bucket. The first failed
+ * CAS inflates the limiter into cells padded to separate cache lines. Each thread then takes tokens from its own
+ * cell, and an empty cell reconciles with the central bucket by moving a batch of tokens at once. A request is
+ * only rejected once the central bucket and all cells are empty.
+ * </p>
+ * <p>
+ * Tokens parked in cells are invisible to the central bucket's refill, so decisions may deviate from an exact
+ * token bucket by the parked tokens, which the batch size keeps below {@code tolerance * capacity}. A tolerance of
+ * zero moves one token at a time, which is exact but gains nothing over the plain bucket.
+ * </p>
+ */
+public class StripedTokenBucketRateLimiter implements RateLimiter {
+
+    /**
+     * Tolerance used when none is configured: up to 5% of the capacity may be parked in cells.
+     */
+    public static final double DEFAULT_TOLERANCE = 0.05;
+
+    // 16 longs = 128 bytes between cells, which also defeats adjacent-line prefetching.
+    private static final int CELL_STRIDE = 16;
+    private static final int MAX_STRIPES = 64;
+    private static final int STRIPES = Math.min(MAX_STRIPES,
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    private final int capacity;
+    private final long periodTicks;
+    private final int batch;
+    private final long origin = System.nanoTime();
+    private final AtomicLong state;
+    private volatile AtomicLongArray cells;
+
+    /**
+     * @param capacity  maximum number of tokens, i.e. the largest burst allowed.
+     * @param duration  time in milliseconds needed to refill an empty bucket.
+     * @param tolerance fraction of the capacity that may be parked in cells, between 0 and 1.
+     */
+    public StripedTokenBucketRateLimiter(int capacity, long duration, double tolerance) {
+        if (!(tolerance >= 0 && tolerance <= 1)) {
+            throw new IllegalArgumentException("Invalid striping tolerance: " + tolerance
+                    + ". Expected a value between 0 and 1.");
+        }
+        this.capacity = TokenBucketRateLimiter.validateCapacity(capacity);
+        this.periodTicks = TokenBucketRateLimiter.toPeriodTicks(duration);
+        this.batch = (int) Math.max(1, (long) (capacity * tolerance) / STRIPES);
+        this.state = new AtomicLong(TokenBucketRateLimiter.pack(capacity, 0));
+    }
+
+    @Override
+    public long tryAcquire() {
+        long now = currentTick();
+        AtomicLongArray stripes = cells;
+        if (stripes == null) {
+            long current = state.get();
+            long refilled = TokenBucketRateLimiter.refill(current, now, capacity, periodTicks);
+            if ((refilled & TOKEN_MASK) == 0) {
+                return TokenBucketRateLimiter.rejected(refilled, now, capacity, periodTicks);
+            }
+            if (state.compareAndSet(current, refilled - 1)) {
+                return TokenBucketRateLimiter.allowed(refilled - 1, now, capacity, periodTicks);
+            }
+            LimiterContention.retry();
+            stripes = inflate();
+        }
+        int home = cellIndex();
+        long local = takeFromCell(stripes, home);
+        if (local >= 0) {
+            return allowed(local, now);
+        }
+        // Reconcile: move a batch from the central bucket, keeping one token for this request.
+        int taken = takeFromCentral(now);
+        if (taken > 0) {
+            return allowed(stripes.addAndGet(home, taken - 1), now);
+        }
+        // Before rejecting, use tokens parked in the other cells.
+        for (int i = 1; i < STRIPES; i++) {
+            local = takeFromCell(stripes, ((home / CELL_STRIDE + i) & (STRIPES - 1)) * CELL_STRIDE);
+            if (local >= 0) {
+                return allowed(local, now);
+            }
+        }
+        return TokenBucketRateLimiter.rejected(
+                TokenBucketRateLimiter.refill(state.get(), now, capacity, periodTicks), now, capacity, periodTicks);
+    }
+
+    @Override
+    public void refund(long acquiredAt) {
+        // Tokens go back to the central bucket, where every cell can reconcile with them.
+        while (true) {
+            long current = state.get();
+            if ((current & TOKEN_MASK) >= capacity || state.compareAndSet(current, current + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the central bucket is considered; tokens parked in cells are within the tolerance.
+     * </p>
+     */
+    @Override
+    public double utilization() {
+        return 1 - (double) (TokenBucketRateLimiter.refill(state.get(), currentTick(), capacity, periodTicks)
+                & TOKEN_MASK) / capacity;
+    }
+
+    @Override
+    public void occupy(double utilization) {
+        state.set(TokenBucketRateLimiter.pack(
+                capacity - TokenBucketRateLimiter.usedPermits(utilization, capacity), currentTick()));
+    }
+
+    @Override
+    public boolean isIdle() {
+        // Tokens parked in cells may be dropped along with the limiter; they are within the tolerance.
+        return (TokenBucketRateLimiter.refill(state.get(), currentTick(), capacity, periodTicks) & TOKEN_MASK)
+                >= capacity;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        // Limiter object plus its AtomicLong, plus the cells once inflated, assuming compressed oops.
+        return 48 + 24 + (cells == null ? 0 : 32 + 8L * STRIPES * CELL_STRIDE);
+    }
+
+    /**
+     * @return whether contention has spread the limiter over cells.
+     */
+    public boolean isStriped() {
+        return cells != null;
+    }
+
+    private synchronized AtomicLongArray inflate() {
+        AtomicLongArray stripes = cells;
+        if (stripes == null) {
+            stripes = new AtomicLongArray(STRIPES * CELL_STRIDE);
+            cells = stripes;
+        }
+        return stripes;
+    }
+
+    /**
+     * Takes a token from the cell at the given array index.
+     *
+     * @return the tokens left in the cell, or -1 if it was empty.
+     */
+    private static long takeFromCell(AtomicLongArray stripes, int index) {
+        while (true) {
+            long current = stripes.get(index);
+            if (current <= 0) {
+                return -1;
+            }
+            if (stripes.compareAndSet(index, current, current - 1)) {
+                return current - 1;
+            }
+            LimiterContention.retry();
+        }
+    }
+
+    private int takeFromCentral(long now) {
+        while (true) {
+            long current = state.get();
+            long refilled = TokenBucketRateLimiter.refill(current, now, capacity, periodTicks);
+            long taken = Math.min(refilled & TOKEN_MASK, batch);
+            if (taken == 0) {
+                return 0;
+            }
+            if (state.compareAndSet(current, refilled - taken)) {
+                return (int) taken;
+            }
+            LimiterContention.retry();
+        }
+    }
+
+    /**
+     * Encodes an admission from a cell: the remaining requests are the central tokens plus the cell's,
+     * and the reset time is that of the central bucket.
+     */
+    private long allowed(long local, long now) {
+        long central = TokenBucketRateLimiter.refill(state.get(), now, capacity, periodTicks);
+        long tokens = Math.min(capacity, (central & TOKEN_MASK) + local);
+        return TokenBucketRateLimiter.allowed((central & ~TOKEN_MASK) | tokens, now, capacity, periodTicks);
+    }
+
+    private static int cellIndex() {
+        // Fibonacci hashing spreads consecutive thread ids over the cells.
+        int hash = (int) (Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L >>> 32);
+        return (hash & (STRIPES - 1)) * CELL_STRIDE;
+    }
+
+    private long currentTick() {
+        return TokenBucketRateLimiter.toTick(System.nanoTime() - origin);
+    }
+}
@@ -0,0 +1,242 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe token bucket rate limiter with lazy refill.
+ * <p>
+ * The bucket holds up to {@code capacity} tokens and refills at {@code capacity} tokens per {@code duration},
+ * so admission is smooth under sustained load and there is no burst at a window boundary.
+ * The number of tokens and the last refill time are packed into a single {@link AtomicLong},
+ * which means a decision costs one CAS and never allocates. Refill is computed on demand from
+ * the elapsed time rather than by a background task.
+ * </p>
+ * <p>
+ * State layout: the low {@value #TOKEN_BITS} bits hold the token count, the remaining high bits hold the
+ * last refill time in microseconds (derived from {@link System#nanoTime()}) relative to the limiter's creation.
+ * The static helpers operate on this layout and are shared with stores that keep the state outside of this class.
+ * </p>
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+
+    public static final int TOKEN_BITS = 22;
+    public static final int MAX_CAPACITY = (1 << TOKEN_BITS) - 1;
+    public static final long TOKEN_MASK = MAX_CAPACITY;
+    public static final long TICK_MASK = -1L >>> TOKEN_BITS;
+    // Keeps elapsed * capacity within a long and leaves headroom for tick wrap-around (~50 days).
+    static final long MAX_PERIOD_TICKS = 1L << 40;
+
+    private final int capacity;
+    private final long periodTicks;
+    private final long origin = System.nanoTime();
+    private final AtomicLong state;
+
+    /**
+     * @param capacity maximum number of tokens, i.e. the largest burst allowed.
+     * @param duration time in milliseconds needed to refill an empty bucket.
+     */
+    public TokenBucketRateLimiter(int capacity, long duration) {
+        this.capacity = validateCapacity(capacity);
+        this.periodTicks = toPeriodTicks(duration);
+        this.state = new AtomicLong(pack(capacity, 0));
+    }
+
+    @Override
+    public long tryAcquire() {
+        long now = currentTick();
+        while (true) {
+            long current = state.get();
+            long refilled = refill(current, now, capacity, periodTicks);
+            if ((refilled & TOKEN_MASK) == 0) {
+                return rejected(refilled, now, capacity, periodTicks);
+            }
+            // Tokens live in the low bits and are known to be positive, so taking one is a plain decrement.
+            if (state.compareAndSet(current, refilled - 1)) {
+                return allowed(refilled - 1, now, capacity, periodTicks);
+            }
+            LimiterContention.retry();
+        }
+    }
+
+    @Override
+    public void refund(long acquiredAt) {
+        while (true) {
+            long current = state.get();
+            // A full bucket has nothing to give back; refill would cap the extra token anyway.
+            if ((current & TOKEN_MASK) >= capacity || state.compareAndSet(current, current + 1)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public double utilization() {
+        return 1 - (double) (refill(state.get(), currentTick(), capacity, periodTicks) & TOKEN_MASK) / capacity;
+    }
+
+    @Override
+    public void occupy(double utilization) {
+        state.set(pack(capacity - usedPermits(utilization, capacity), currentTick()));
+    }
+
+    /**
+     * Takes up to {@code permits} tokens at once, e.g. to hand out a batch of quota.
+     *
+     * @param permits the maximum number of tokens to take.
+     * @return the number of tokens taken, between 0 and {@code permits}.
+     */
+    public int acquireUpTo(int permits) {
+        long now = currentTick();
+        while (true) {
+            long current = state.get();
+            long refilled = refill(current, now, capacity, periodTicks);
+            long taken = Math.min(refilled & TOKEN_MASK, permits);
+            if (taken == 0) {
+                return 0;
+            }
+            if (state.compareAndSet(current, refilled - taken)) {
+                return (int) taken;
+            }
+        }
+    }
+
+    @Override
+    public boolean isIdle() {
+        return (refill(state.get(), currentTick(), capacity, periodTicks) & TOKEN_MASK) >= capacity;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        // Limiter object plus its AtomicLong, assuming compressed oops.
+        return 40 + 24;
+    }
+
+    private long currentTick() {
+        return toTick(System.nanoTime() - origin);
+    }
+
+    /**
+     * Converts a nanosecond offset to the tick representation stored in the packed state.
+     */
+    public static long toTick(long nanos) {
+        return (nanos / 1000) & TICK_MASK;
+    }
+
+    /**
+     * Converts a refill duration in milliseconds to ticks, rejecting durations the packed state cannot represent.
+     */
+    public static long toPeriodTicks(long duration) {
+        long ticks = TimeUnit.MILLISECONDS.toMicros(duration);
+        if (ticks <= 0 || ticks > MAX_PERIOD_TICKS) {
+            throw new IllegalArgumentException("Invalid token bucket duration: " + duration + " ms.");
+        }
+        return ticks;
+    }
+
+    /**
+     * Validates that the capacity fits into the token bits of the state layout.
+     */
+    public static int validateCapacity(int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Invalid token bucket capacity: " + capacity
+                    + ". Expected a value between 1 and " + MAX_CAPACITY + ".");
+        }
+        return capacity;
+    }
+
+    /**
+     * Converts a utilization to the number of used permits out of {@code capacity}, rounding to the nearest one.
+     */
+    public static int usedPermits(double utilization, int capacity) {
+        return (int) Math.round(Math.max(0, Math.min(1, utilization)) * capacity);
+    }
+
+    /**
+     * Packs a token count and a tick into the state layout.
+     */
+    public static long pack(long tokens, long tick) {
+        return (tick << TOKEN_BITS) | tokens;
+    }
+
+    /**
+     * Encodes the decision admitting a request, given the state after taking its token.
+     */
+    public static long allowed(long state, long now, int capacity, long periodTicks) {
+        long tokens = state & TOKEN_MASK;
+        return RateLimitDecision.allowed(tokens,
+                ticksToMillis(ticksUntil(state, now, capacity, periodTicks, capacity - tokens)));
+    }
+
+    /**
+     * Encodes the decision rejecting a request, given the refilled, empty state.
+     */
+    public static long rejected(long state, long now, int capacity, long periodTicks) {
+        return RateLimitDecision.rejected(ticksToMillis(ticksUntil(state, now, capacity, periodTicks, 1)));
+    }
+
+    /**
+     * Computes the ticks until {@code missing} more tokens will have been earned, given a refilled state.
+     */
+    static long ticksUntil(long state, long now, int capacity, long periodTicks, long missing) {
+        if (missing <= 0) {
+            return 0;
+        }
+        long elapsed = elapsed(state >>> TOKEN_BITS, now);
+        long needed = (missing * periodTicks + capacity - 1) / capacity;
+        return Math.max(0, needed - elapsed);
+    }
+
+    private static long ticksToMillis(long ticks) {
+        return (ticks + 999) / 1000;
+    }
+
+    /**
+     * Computes the state after crediting the tokens earned since the last refill.
+     * <p>
+     * Only whole tokens are credited, and the refill time advances by exactly the time those tokens cost,
+     * so partial progress towards the next token is never lost between calls.
+     * </p>
+     *
+     * @param state       the packed state.
+     * @param now         the current tick.
+     * @param capacity    the bucket capacity.
+     * @param periodTicks the ticks needed to refill an empty bucket.
+     * @return the refilled packed state (unchanged if no whole token was earned).
+     */
+    public static long refill(long state, long now, int capacity, long periodTicks) {
+        long tokens = state & TOKEN_MASK;
+        if (tokens >= capacity) {
+            // A full bucket earns nothing while idle, so the refill clock restarts now.
+            return pack(capacity, now);
+        }
+        long last = state >>> TOKEN_BITS;
+        long elapsed = elapsed(last, now);
+        if (elapsed >= periodTicks) {
+            return pack(capacity, now);
+        }
+        long earned = elapsed * capacity / periodTicks;
+        if (earned == 0) {
+            return state;
+        }
+        tokens += earned;
+        if (tokens >= capacity) {
+            return pack(capacity, now);
+        }
+        long spent = (earned * periodTicks + capacity - 1) / capacity;
+        return pack(tokens, (last + spent) & TICK_MASK);
+    }
+
+    /**
+     * Computes the ticks elapsed from {@code since} to {@code now}, across tick wrap-around.
+     * <p>
+     * A caller reads the clock before its CAS loop, so another thread may meanwhile have stamped a later refill
+     * time. Such a {@code now} lies behind {@code since} and counts as no time elapsed, rather than as a whole
+     * wrap-around that would refill the bucket.
+     * </p>
+     */
+    private static long elapsed(long since, long now) {
+        long elapsed = (now - since) & TICK_MASK;
+        return elapsed > TICK_MASK >>> 1 ? 0 : elapsed;
+    }
+}
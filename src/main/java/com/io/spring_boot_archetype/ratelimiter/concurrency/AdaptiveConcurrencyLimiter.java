@@ -0,0 +1,94 @@
+package com.io.spring_boot_archetype.ratelimiter.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the number of requests an endpoint processes at once, with a bound that adapts to observed latency.
+ * <p>
+ * Admission is a CAS on the in-flight counter against the current limit, so a shed request costs one atomic read.
+ * Every completed request is reported with its latency, from which subclasses derive the next limit. The limit is
+ * published as a plain volatile int, so admission never waits for an adjustment.
+ * </p>
+ */
+public abstract class AdaptiveConcurrencyLimiter {
+
+    protected final int minLimit;
+    protected final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    /**
+     * @param initialLimit the limit until enough latency has been observed.
+     * @param minLimit     the lowest limit, so that an endpoint is never shut off entirely.
+     * @param maxLimit     the highest limit.
+     */
+    protected AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limit bounds: " + minLimit + ".." + maxLimit + ".");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Admits a request if fewer than the current limit are in flight.
+     *
+     * @return true if admitted, in which case {@link #release(long)} must be called once it completes.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted request and adjusts the limit.
+     *
+     * @param latencyNanos the time the request took to process.
+     */
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        onSample(latencyNanos, current);
+    }
+
+    /**
+     * Adjusts the limit from a completed request.
+     *
+     * @param latencyNanos the time the request took to process.
+     * @param inFlight     the number of requests in flight when it completed, including itself.
+     */
+    protected abstract void onSample(long latencyNanos, int inFlight);
+
+    /**
+     * Publishes a new limit, clamped to the configured bounds.
+     *
+     * @param estimate the new, possibly fractional, limit.
+     * @return the clamped estimate.
+     */
+    protected double setLimit(double estimate) {
+        double clamped = Math.max(minLimit, Math.min(maxLimit, estimate));
+        limit = (int) clamped;
+        return clamped;
+    }
+
+    /**
+     * @return the current limit, i.e. the number of requests admitted at once.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the number of requests currently in flight.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,65 @@
+package com.io.spring_boot_archetype.ratelimiter.concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Additive-increase / multiplicative-decrease concurrency limiter, in the manner of TCP congestion control.
+ * <p>
+ * A request slower than the timeout is taken as a sign of overload and multiplies the limit by the backoff ratio.
+ * Only one decrease happens per round trip: requests that started before the last decrease were admitted under the
+ * old limit and say nothing about the new one. Every other request adds {@code 1 / limit}, i.e. the limit grows by
+ * one per limit's worth of fast requests, as long as the endpoint actually uses at least half of it.
+ * </p>
+ */
+public class AimdConcurrencyLimiter extends AdaptiveConcurrencyLimiter {
+
+    private final long timeoutNanos;
+    private final double backoffRatio;
+    // The fractional limit as double bits, so that the additive increase accumulates across requests.
+    private final AtomicLong estimate;
+    private final AtomicLong lastDecreaseAt = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param initialLimit the initial limit.
+     * @param minLimit     the lowest limit.
+     * @param maxLimit     the highest limit.
+     * @param timeoutNanos latency above which a request counts as a sign of overload.
+     * @param backoffRatio factor applied to the limit on overload, between 0 and 1.
+     */
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long timeoutNanos, double backoffRatio) {
+        super(initialLimit, minLimit, maxLimit);
+        if (!(backoffRatio > 0 && backoffRatio < 1)) {
+            throw new IllegalArgumentException("Invalid backoff ratio: " + backoffRatio
+                    + ". Expected a value between 0 and 1.");
+        }
+        this.timeoutNanos = timeoutNanos;
+        this.backoffRatio = backoffRatio;
+        this.estimate = new AtomicLong(Double.doubleToRawLongBits(getLimit()));
+    }
+
+    @Override
+    protected void onSample(long latencyNanos, int inFlight) {
+        if (latencyNanos > timeoutNanos) {
+            long now = System.nanoTime();
+            long last = lastDecreaseAt.get();
+            if (now - latencyNanos - last >= 0 && lastDecreaseAt.compareAndSet(last, now)) {
+                update(-1);
+            }
+        } else if (inFlight * 2 >= getLimit()) {
+            update(1);
+        }
+    }
+
+    private void update(int direction) {
+        while (true) {
+            long current = estimate.get();
+            double value = Double.longBitsToDouble(current);
+            double next = direction < 0 ? value * backoffRatio : value + 1 / value;
+            next = Math.max(minLimit, Math.min(maxLimit, next));
+            if (estimate.compareAndSet(current, Double.doubleToRawLongBits(next))) {
+                setLimit(next);
+                return;
+            }
+        }
+    }
+}
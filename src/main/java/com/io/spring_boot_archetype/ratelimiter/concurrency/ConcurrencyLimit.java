@@ -0,0 +1,37 @@
+package com.io.spring_boot_archetype.ratelimiter.concurrency;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for bounding the number of requests a controller or method processes at once.
+ * <p>
+ * Unlike {@code @RateLimit}, which bounds the request rate per client, this bounds the concurrency of the endpoint
+ * as a whole, and the bound adapts to the endpoint's latency: when a downstream slows down, fewer requests are
+ * admitted, and the excess is shed immediately with a 503 instead of queueing. When placed on a class, each endpoint
+ * of the class gets its own limit; method-level values override class-level settings.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface ConcurrencyLimit {
+    /**
+     * Algorithm adapting the limit.
+     * If {@link ConcurrencyLimitAlgorithm#DEFAULT} is provided, the class-level or global algorithm is used.
+     */
+    ConcurrencyLimitAlgorithm algorithm() default ConcurrencyLimitAlgorithm.DEFAULT;
+
+    /**
+     * Number of concurrent requests admitted before any latency has been observed.
+     * If a non-positive value is provided, the class-level or global default is used.
+     */
+    int initialLimit() default -1;
+
+    /**
+     * Highest number of concurrent requests the limit may grow to.
+     * If a non-positive value is provided, the class-level or global default is used.
+     */
+    int maxLimit() default -1;
+}
@@ -0,0 +1,43 @@
+package com.io.spring_boot_archetype.ratelimiter.concurrency;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimitProperties;
+
+/**
+ * Enum for selecting how the concurrency limit adapts, in the ConcurrencyLimit annotation and in the global properties.
+ */
+public enum ConcurrencyLimitAlgorithm {
+    /**
+     * Use the algorithm configured at class level or globally.
+     * Only meaningful on the annotation.
+     */
+    DEFAULT,
+    /**
+     * Backs off multiplicatively on requests slower than the timeout and grows additively otherwise.
+     * See {@link AimdConcurrencyLimiter}.
+     */
+    AIMD,
+    /**
+     * Shrinks the limit as latency rises above the no-load latency; needs no timeout.
+     * See {@link GradientConcurrencyLimiter}.
+     */
+    GRADIENT;
+
+    /**
+     * Creates a new limiter implementing this algorithm.
+     *
+     * @param initialLimit the initial limit.
+     * @param maxLimit     the highest limit.
+     * @param properties   the global settings, providing the lower bound and the AIMD parameters.
+     * @return a new AdaptiveConcurrencyLimiter instance.
+     * @throws IllegalStateException if called on {@link #DEFAULT}, which must be resolved first.
+     */
+    public AdaptiveConcurrencyLimiter newLimiter(int initialLimit, int maxLimit,
+                                                 RateLimitProperties.Concurrency properties) {
+        return switch (this) {
+            case AIMD -> new AimdConcurrencyLimiter(initialLimit, properties.getMinLimit(), maxLimit,
+                    properties.getTimeout().toNanos(), properties.getBackoffRatio());
+            case GRADIENT -> new GradientConcurrencyLimiter(initialLimit, properties.getMinLimit(), maxLimit);
+            case DEFAULT -> throw new IllegalStateException("DEFAULT algorithm must be resolved before creating a limiter.");
+        };
+    }
+}
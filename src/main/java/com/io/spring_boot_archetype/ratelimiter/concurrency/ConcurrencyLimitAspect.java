@@ -0,0 +1,56 @@
+package com.io.spring_boot_archetype.ratelimiter.concurrency;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimitAspect;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aspect that intercepts controller endpoints and bounds how many requests each processes at once, based on
+ * {@code @ConcurrencyLimit} annotations or the global {@code rate-limit.concurrency} settings.
+ * <p>
+ * It runs inside the {@link RateLimitAspect}, so that requests rejected by a rate limit never occupy a slot.
+ * A request over the limit is shed with the endpoint's cached {@link ConcurrencyLimitExceededException};
+ * an admitted one reports its latency on completion, successful or not, which adjusts the limit.
+ * </p>
+ */
+@Aspect
+@Component
+@Order(ConcurrencyLimitAspect.ORDER)
+@RequiredArgsConstructor
+public class ConcurrencyLimitAspect {
+
+    /**
+     * Order of the aspect: just inside the rate limit aspect.
+     */
+    public static final int ORDER = RateLimitAspect.ORDER + 1;
+
+    private final ConcurrencyLimitRegistry registry;
+
+    @Around("within(@org.springframework.web.bind.annotation.RestController *)")
+    public Object handleConcurrencyLimit(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        ConcurrencyLimitedEndpoint endpoint = registry.getEndpoint(signature.getMethod(),
+                joinPoint.getTarget().getClass());
+
+        // If the endpoint's concurrency is not limited, proceed with method execution.
+        if (!endpoint.isLimited()) {
+            return joinPoint.proceed();
+        }
+
+        AdaptiveConcurrencyLimiter limiter = endpoint.limiter();
+        if (!limiter.tryAcquire()) {
+            throw endpoint.rejection();
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+}
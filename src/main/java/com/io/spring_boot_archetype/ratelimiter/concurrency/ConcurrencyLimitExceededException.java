@@ -0,0 +1,28 @@
+package com.io.spring_boot_archetype.ratelimiter.concurrency;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimitExceededException;
+
+/**
+ * Exception thrown when a request is shed because its endpoint is at its concurrency limit.
+ * <p>
+ * Answered with a 503 rather than a 429, since the client did nothing wrong: the endpoint is overloaded.
+ * Being a {@link RateLimitExceededException}, it is stackless, carries its pre-serialized body and goes through the
+ * same exception handler and rejection logging.
+ * </p>
+ */
+public class ConcurrencyLimitExceededException extends RateLimitExceededException {
+
+    public ConcurrencyLimitExceededException(String message) {
+        super(message, 503, "Service Unavailable");
+    }
+
+    /**
+     * Creates the reusable rejection of an endpoint.
+     *
+     * @param endpoint the endpoint's name.
+     * @return a new ConcurrencyLimitExceededException instance.
+     */
+    public static ConcurrencyLimitExceededException forEndpoint(String endpoint) {
+        return new ConcurrencyLimitExceededException("Concurrency limit exceeded on endpoint " + endpoint);
+    }
+}
@@ -0,0 +1,85 @@
+package com.io.spring_boot_archetype.ratelimiter.concurrency;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimitProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the concurrency limiter per handler method.
+ * <p>
+ * The limiter is created from the method-level and class-level {@code @ConcurrencyLimit} annotations and the global
+ * {@link RateLimitProperties.Concurrency} settings the first time a method is invoked, and cached, so that
+ * subsequent requests cost two map lookups. Limiters are keyed by controller class, then method: a handler method
+ * inherited by several controllers gets one limiter per controller.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class ConcurrencyLimitRegistry {
+
+    private final RateLimitProperties rateLimitProperties;
+
+    private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Method, ConcurrencyLimitedEndpoint>> endpoints =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Returns the concurrency limiter of the given handler method, creating it on first use.
+     *
+     * @param method      the invoked handler method.
+     * @param targetClass the class of the controller bean declaring the endpoint.
+     * @return the cached endpoint entry, {@link ConcurrencyLimitedEndpoint#UNLIMITED} if not limited.
+     */
+    public ConcurrencyLimitedEndpoint getEndpoint(Method method, Class<?> targetClass) {
+        ConcurrentHashMap<Method, ConcurrencyLimitedEndpoint> classEndpoints = endpoints.get(targetClass);
+        if (classEndpoints == null) {
+            classEndpoints = endpoints.computeIfAbsent(targetClass, c -> new ConcurrentHashMap<>());
+        }
+        ConcurrencyLimitedEndpoint endpoint = classEndpoints.get(method);
+        if (endpoint == null) {
+            endpoint = classEndpoints.computeIfAbsent(method, m -> resolveEndpoint(m, targetClass));
+        }
+        return endpoint;
+    }
+
+    /**
+     * Creates the limiter of a handler method. Method-level values override class-level values when present.
+     */
+    private ConcurrencyLimitedEndpoint resolveEndpoint(Method method, Class<?> targetClass) {
+        ConcurrencyLimit methodAnno = method.getAnnotation(ConcurrencyLimit.class);
+        ConcurrencyLimit classAnno = targetClass.getAnnotation(ConcurrencyLimit.class);
+        RateLimitProperties.Concurrency properties = rateLimitProperties.getConcurrency();
+        if (methodAnno == null && classAnno == null && !properties.isEnabled()) {
+            return ConcurrencyLimitedEndpoint.UNLIMITED;
+        }
+        String endpoint = targetClass.getSimpleName() + "." + method.getName()
+                + (method.getParameterCount() == 0 ? "()" : "(..)");
+
+        ConcurrencyLimitAlgorithm algorithm = properties.getAlgorithm();
+        int initialLimit = properties.getInitialLimit();
+        int maxLimit = properties.getMaxLimit();
+        // Apply the class-level values first, so that method-level values override them.
+        for (ConcurrencyLimit anno : new ConcurrencyLimit[]{classAnno, methodAnno}) {
+            if (anno == null) {
+                continue;
+            }
+            if (anno.algorithm() != ConcurrencyLimitAlgorithm.DEFAULT) {
+                algorithm = anno.algorithm();
+            }
+            if (anno.initialLimit() > 0) {
+                initialLimit = anno.initialLimit();
+            }
+            if (anno.maxLimit() > 0) {
+                maxLimit = anno.maxLimit();
+            }
+        }
+        if (algorithm == ConcurrencyLimitAlgorithm.DEFAULT) {
+            algorithm = ConcurrencyLimitAlgorithm.GRADIENT;
+        }
+        return new ConcurrencyLimitedEndpoint(endpoint,
+                algorithm.newLimiter(initialLimit, maxLimit, properties),
+                ConcurrencyLimitExceededException.forEndpoint(endpoint));
+    }
+}
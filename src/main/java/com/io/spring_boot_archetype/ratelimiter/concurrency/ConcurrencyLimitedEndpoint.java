@@ -0,0 +1,25 @@
+package com.io.spring_boot_archetype.ratelimiter.concurrency;
+
+/**
+ * The concurrency limiter of a single endpoint, with its reusable rejection.
+ *
+ * @param endpoint  short, human-readable name of the endpoint (e.g. {@code DemoController.hello()}).
+ * @param limiter   the endpoint's limiter, or null if its concurrency is not limited.
+ * @param rejection the exception thrown when a request is shed.
+ */
+public record ConcurrencyLimitedEndpoint(String endpoint,
+                                         AdaptiveConcurrencyLimiter limiter,
+                                         ConcurrencyLimitExceededException rejection) {
+
+    /**
+     * Shared entry for endpoints whose concurrency is not limited.
+     */
+    public static final ConcurrencyLimitedEndpoint UNLIMITED = new ConcurrencyLimitedEndpoint(null, null, null);
+
+    /**
+     * @return whether the endpoint's concurrency is limited.
+     */
+    public boolean isLimited() {
+        return limiter != null;
+    }
+}
@@ -0,0 +1,85 @@
+package com.io.spring_boot_archetype.ratelimiter.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limiter steering by the latency gradient, in the manner of TCP Vegas.
+ * <p>
+ * Latencies are summed on {@link LongAdder}s and evaluated once per window by the first request to notice that it
+ * has passed. The window's average latency is compared to the no-load latency, the lowest window average seen
+ * recently: {@code gradient = tolerance * noLoad / average}, clamped to [0.5, 1]. While latency stays within the
+ * tolerance the limit grows by a queue allowance of {@code sqrt(limit)}; once requests start queueing the gradient
+ * drops below one and shrinks the limit proportionally. Changes are smoothed across windows.
+ * </p>
+ * <p>
+ * The no-load latency is re-measured every {@value #NO_LOAD_RESET_WINDOWS} windows, so that a lasting change of the
+ * endpoint's baseline, e.g. after a deployment, is eventually accepted.
+ * </p>
+ */
+public class GradientConcurrencyLimiter extends AdaptiveConcurrencyLimiter {
+
+    private static final long DEFAULT_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final int NO_LOAD_RESET_WINDOWS = 600;
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final long windowNanos;
+    private final LongAdder latencySum = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final AtomicLong nextUpdateAt;
+    // Only read and written while closing a window, under this limiter's monitor.
+    private double estimate;
+    private long noLoadLatency = Long.MAX_VALUE;
+    private int windows;
+
+    /**
+     * @param initialLimit the initial limit.
+     * @param minLimit     the lowest limit.
+     * @param maxLimit     the highest limit.
+     */
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, DEFAULT_WINDOW_NANOS);
+    }
+
+    GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long windowNanos) {
+        super(initialLimit, minLimit, maxLimit);
+        this.windowNanos = windowNanos;
+        this.nextUpdateAt = new AtomicLong(System.nanoTime() + windowNanos);
+        this.estimate = getLimit();
+    }
+
+    @Override
+    protected void onSample(long latencyNanos, int inFlight) {
+        latencySum.add(latencyNanos);
+        samples.increment();
+        long now = System.nanoTime();
+        long next = nextUpdateAt.get();
+        if (now - next >= 0 && samples.sum() >= MIN_WINDOW_SAMPLES
+                && nextUpdateAt.compareAndSet(next, now + windowNanos)) {
+            closeWindow(inFlight);
+        }
+    }
+
+    private synchronized void closeWindow(int inFlight) {
+        long count = samples.sumThenReset();
+        long sum = latencySum.sumThenReset();
+        if (count == 0) {
+            return;
+        }
+        long latency = Math.max(1, sum / count);
+        if (++windows >= NO_LOAD_RESET_WINDOWS || latency < noLoadLatency) {
+            noLoadLatency = latency;
+            windows = 0;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * noLoadLatency / latency));
+        if (gradient >= 1.0 && inFlight * 2 < estimate) {
+            // The endpoint does not use the current limit, so latency says nothing about a higher one.
+            return;
+        }
+        double target = estimate * gradient + Math.sqrt(estimate);
+        estimate = setLimit(estimate * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+}
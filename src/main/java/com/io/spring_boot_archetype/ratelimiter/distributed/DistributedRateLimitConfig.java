@@ -0,0 +1,77 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimitProperties;
+import com.io.spring_boot_archetype.ratelimiter.store.LimiterStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Configuration of the distributed rate limiter backend and of the embeddable quota server.
+ */
+@Configuration
+public class DistributedRateLimitConfig {
+
+    /**
+     * Creates the client connecting to the quota server at {@code rate-limit.backend.host/port}.
+     *
+     * @param rateLimitProperties the global rate limiting properties.
+     * @return the QuotaClient bean.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "rate-limit.backend", name = "type", havingValue = "REMOTE")
+    public QuotaClient quotaClient(RateLimitProperties rateLimitProperties) {
+        RateLimitProperties.Backend backend = rateLimitProperties.getBackend();
+        return new QuotaClient(backend.getHost(), backend.getPort(), (int) backend.getTimeout().toMillis());
+    }
+
+    /**
+     * Creates the metrics recorded for quota leases.
+     *
+     * @param meterRegistry the registry the lease meters are registered with.
+     * @return the LeaseMetrics bean.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "rate-limit.backend", name = "type", havingValue = "REMOTE")
+    public LeaseMetrics leaseMetrics(MeterRegistry meterRegistry) {
+        return new LeaseMetrics(meterRegistry);
+    }
+
+    /**
+     * Creates the remote backend; it takes precedence over the local limiter store.
+     *
+     * @param rateLimitProperties the global rate limiting properties.
+     * @param quotaClient         the client connecting to the quota server.
+     * @param leaseMetrics        the metrics recorded for quota leases.
+     * @param limiterStore        the local store used while the quota server is unavailable.
+     * @return the RemoteRateLimiterBackend bean.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "rate-limit.backend", name = "type", havingValue = "REMOTE")
+    public RemoteRateLimiterBackend remoteRateLimiterBackend(RateLimitProperties rateLimitProperties,
+                                                             QuotaClient quotaClient,
+                                                             LeaseMetrics leaseMetrics,
+                                                             LimiterStore limiterStore) {
+        RateLimitProperties.Backend backend = rateLimitProperties.getBackend();
+        return new RemoteRateLimiterBackend(quotaClient, leaseMetrics, limiterStore,
+                rateLimitProperties.getStore().getMaxEntries(), backend.getLeaseSize(), backend.getTimeout().toMillis());
+    }
+
+    /**
+     * Starts an embedded quota server on {@code rate-limit.backend.port}, for running the distributed
+     * backend locally without external infrastructure.
+     *
+     * @param rateLimitProperties the global rate limiting properties.
+     * @return the QuotaServer bean.
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "rate-limit.backend", name = "embedded-server", havingValue = "true")
+    public QuotaServer quotaServer(RateLimitProperties rateLimitProperties) {
+        RateLimitProperties.Backend backend = rateLimitProperties.getBackend();
+        return new QuotaServer(new QuotaLedger(rateLimitProperties.getStore().getMaxEntries()),
+                backend.getBindAddress(), backend.getPort());
+    }
+}
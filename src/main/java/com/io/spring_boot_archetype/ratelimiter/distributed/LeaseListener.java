@@ -0,0 +1,44 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+/**
+ * Callback for observing quota leases, e.g. to record metrics.
+ */
+public interface LeaseListener {
+
+    /**
+     * Listener that ignores every event.
+     */
+    LeaseListener NOOP = new LeaseListener() {
+    };
+
+    /**
+     * Called when a lease request has been answered.
+     *
+     * @param grant        the coordinator's answer.
+     * @param latencyNanos time between sending the request and receiving the grant.
+     * @param prefetch     whether the lease was a prefetch at the low-water mark rather than a blocking refill.
+     */
+    default void onLease(QuotaGrant grant, long latencyNanos, boolean prefetch) {
+    }
+
+    /**
+     * Called when a lease request failed or timed out.
+     */
+    default void onLeaseFailure() {
+    }
+
+    /**
+     * Called when leased tokens expired before being spent, i.e. quota that was withheld from the client.
+     *
+     * @param tokens the number of expired tokens.
+     */
+    default void onExpired(long tokens) {
+    }
+
+    /**
+     * Called when a request was admitted without globally leased quota, e.g. by the local fallback
+     * while the coordinator was unavailable.
+     */
+    default void onOverAdmission() {
+    }
+}
@@ -0,0 +1,86 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LeaseListener} recording quota leasing metrics with Micrometer.
+ * <p>
+ * All meters are registered once up front, so recording an event is a field access plus an atomic update:
+ * </p>
+ * <ul>
+ *     <li>{@code ratelimiter.lease.size}: tokens granted per lease.</li>
+ *     <li>{@code ratelimiter.lease.latency}: time to obtain a lease, tagged {@code mode=refill|prefetch}.</li>
+ *     <li>{@code ratelimiter.lease.denied} / {@code ratelimiter.lease.failures}: empty grants and failed requests.</li>
+ *     <li>{@code ratelimiter.lease.expired}: leased tokens that expired unspent (under-admission).</li>
+ *     <li>{@code ratelimiter.lease.over.admission}: requests admitted without leased quota (over-admission).</li>
+ * </ul>
+ */
+public class LeaseMetrics implements LeaseListener {
+
+    private final DistributionSummary leaseSize;
+    private final Timer refillLatency;
+    private final Timer prefetchLatency;
+    private final Counter denied;
+    private final Counter failures;
+    private final Counter expired;
+    private final Counter overAdmission;
+
+    public LeaseMetrics(MeterRegistry registry) {
+        this.leaseSize = DistributionSummary.builder("ratelimiter.lease.size")
+                .description("Tokens granted per quota lease")
+                .baseUnit("tokens")
+                .register(registry);
+        this.refillLatency = latencyTimer(registry, "refill");
+        this.prefetchLatency = latencyTimer(registry, "prefetch");
+        this.denied = Counter.builder("ratelimiter.lease.denied")
+                .description("Quota leases answered with no tokens")
+                .register(registry);
+        this.failures = Counter.builder("ratelimiter.lease.failures")
+                .description("Quota leases that failed or timed out")
+                .register(registry);
+        this.expired = Counter.builder("ratelimiter.lease.expired")
+                .description("Leased tokens that expired before being spent")
+                .baseUnit("tokens")
+                .register(registry);
+        this.overAdmission = Counter.builder("ratelimiter.lease.over.admission")
+                .description("Requests admitted without globally leased quota")
+                .register(registry);
+    }
+
+    @Override
+    public void onLease(QuotaGrant grant, long latencyNanos, boolean prefetch) {
+        leaseSize.record(grant.granted());
+        (prefetch ? prefetchLatency : refillLatency).record(latencyNanos, TimeUnit.NANOSECONDS);
+        if (grant.granted() <= 0) {
+            denied.increment();
+        }
+    }
+
+    @Override
+    public void onLeaseFailure() {
+        failures.increment();
+    }
+
+    @Override
+    public void onExpired(long tokens) {
+        expired.increment(tokens);
+    }
+
+    @Override
+    public void onOverAdmission() {
+        overAdmission.increment();
+    }
+
+    private static Timer latencyTimer(MeterRegistry registry, String mode) {
+        return Timer.builder("ratelimiter.lease.latency")
+                .description("Time to obtain a quota lease")
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
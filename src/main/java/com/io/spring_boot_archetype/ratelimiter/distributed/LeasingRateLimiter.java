@@ -0,0 +1,234 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitDecision;
+import com.io.spring_boot_archetype.ratelimiter.RateLimiter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limiter serving requests from a block of tokens leased from a {@link QuotaCoordinator}.
+ * <p>
+ * While the local block lasts, a decision is a single atomic decrement. When the block drops to its low-water mark
+ * (a quarter of the lease size), the next block is leased in the background, so under steady load requests
+ * never wait for the coordinator. Only when the block is spent before the prefetch arrives do requests wait,
+ * all of them on the same outstanding lease.
+ * </p>
+ * <p>
+ * Leased tokens are only valid for one refill duration, so a node cannot hoard quota and spend it long after
+ * it was granted, and after an empty grant the limiter rejects locally until the coordinator's retry hint has passed.
+ * </p>
+ * <p>
+ * Decisions report the tokens left in the local block and the time until it expires, which is a lower bound
+ * of the client's global quota.
+ * </p>
+ */
+public class LeasingRateLimiter implements RateLimiter {
+
+    private final QuotaCoordinator coordinator;
+    private final LeaseListener listener;
+    private final long endpointKey;
+    private final long high;
+    private final long low;
+    private final int capacity;
+    private final long duration;
+    private final int leaseSize;
+    private final int lowWaterMark;
+    private final long timeoutMillis;
+    private final long leaseValidityNanos;
+    private final AtomicLong tokens = new AtomicLong();
+    private volatile long leaseExpiresAt = System.nanoTime();
+    private volatile long deniedUntil = System.nanoTime();
+    // The latest lease, completed once its grant has been applied; replaced under this limiter's monitor.
+    private volatile CompletableFuture<Void> lease = CompletableFuture.completedFuture(null);
+
+    /**
+     * @param coordinator   the coordinator holding the global budget.
+     * @param listener      notified of leases, e.g. to record metrics.
+     * @param config        the endpoint's effective configuration, providing the global limit.
+     * @param high          the upper 64 bits of the client key.
+     * @param low           the lower 64 bits of the client key.
+     * @param leaseSize     the number of tokens requested per lease.
+     * @param timeoutMillis how long to wait for a lease before failing.
+     */
+    public LeasingRateLimiter(QuotaCoordinator coordinator, LeaseListener listener, EffectiveRateLimitConfig config,
+                              long high, long low, int leaseSize, long timeoutMillis) {
+        if (leaseSize <= 0) {
+            throw new IllegalArgumentException("Invalid lease size: " + leaseSize + ".");
+        }
+        this.coordinator = coordinator;
+        this.listener = listener;
+        this.endpointKey = config.endpointKey();
+        this.high = high;
+        this.low = low;
+        this.capacity = config.capacity();
+        this.duration = config.duration();
+        this.leaseSize = leaseSize;
+        this.lowWaterMark = leaseSize / 4;
+        this.timeoutMillis = timeoutMillis;
+        this.leaseValidityNanos = TimeUnit.MILLISECONDS.toNanos(config.duration());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws QuotaUnavailableException if a lease is needed and the coordinator does not answer in time.
+     */
+    @Override
+    public long tryAcquire() {
+        long now = System.nanoTime();
+        long decision = takeLocal(now);
+        if (RateLimitDecision.isAllowed(decision)) {
+            return decision;
+        }
+        if (now - deniedUntil < 0) {
+            return RateLimitDecision.rejected(millisUntil(deniedUntil, now));
+        }
+        return leaseAndTake();
+    }
+
+    @Override
+    public void refund(long acquiredAt) {
+        // Tokens of an expired lease are discarded on the next grant, so there is nothing to give back to.
+        if (System.nanoTime() - leaseExpiresAt < 0) {
+            tokens.incrementAndGet();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The state of a client lives in the quota server's ledger, so locally there is nothing to measure.
+     * </p>
+     */
+    @Override
+    public double utilization() {
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Does nothing: the quota server's ledger keeps the client's state and migrates it when the limit changes.
+     * </p>
+     */
+    @Override
+    public void occupy(double utilization) {
+    }
+
+    @Override
+    public boolean isIdle() {
+        long now = System.nanoTime();
+        return (tokens.get() <= 0 || now - leaseExpiresAt >= 0) && now - deniedUntil >= 0 && lease.isDone();
+    }
+
+    @Override
+    public long estimatedBytes() {
+        // Limiter object plus its AtomicLong, assuming compressed oops.
+        return 104 + 24;
+    }
+
+    private long takeLocal(long now) {
+        long expiresAt = leaseExpiresAt;
+        if (now - expiresAt >= 0) {
+            return RateLimitDecision.rejected(0);
+        }
+        long remaining = tokens.decrementAndGet();
+        if (remaining < 0) {
+            // Overdrawn: give the token back. Grants only ever add, so the transient deficit is harmless.
+            tokens.incrementAndGet();
+            return RateLimitDecision.rejected(0);
+        }
+        if (remaining == lowWaterMark) {
+            // Exactly one thread observes each crossing of the low-water mark.
+            startLease(true);
+        }
+        return RateLimitDecision.allowed(remaining, millisUntil(expiresAt, now));
+    }
+
+    private long leaseAndTake() {
+        CompletableFuture<Void> pending = startLease(false);
+        try {
+            pending.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QuotaUnavailableException("Interrupted while waiting for a quota lease", e);
+        } catch (ExecutionException e) {
+            // A failed lease already carries the exception to throw.
+            throw e.getCause() instanceof QuotaUnavailableException unavailable
+                    ? unavailable : new QuotaUnavailableException("Quota lease failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new QuotaUnavailableException("Quota lease timed out", e);
+        }
+        // Under contention other waiters may take the whole grant first; the request is then rejected.
+        long now = System.nanoTime();
+        long decision = takeLocal(now);
+        if (!RateLimitDecision.isAllowed(decision) && now - deniedUntil < 0) {
+            return RateLimitDecision.rejected(millisUntil(deniedUntil, now));
+        }
+        return decision;
+    }
+
+    private static long millisUntil(long deadline, long now) {
+        return (deadline - now + 999_999) / 1_000_000;
+    }
+
+    /**
+     * Returns the outstanding lease, or sends a new request if there is none.
+     */
+    private synchronized CompletableFuture<Void> startLease(boolean prefetch) {
+        CompletableFuture<Void> current = lease;
+        if (!current.isDone()) {
+            return current;
+        }
+        long start = System.nanoTime();
+        // The timeout guarantees that a silent coordinator cannot leave the lease outstanding forever.
+        CompletableFuture<Void> next = coordinator.lease(endpointKey, high, low, capacity, duration, leaseSize)
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((grant, failure) -> {
+                    if (failure != null) {
+                        listener.onLeaseFailure();
+                        throw new QuotaUnavailableException("Quota lease failed", failure);
+                    }
+                    apply(grant, start, prefetch);
+                    return null;
+                });
+        lease = next;
+        return next;
+    }
+
+    private void apply(QuotaGrant grant, long start, boolean prefetch) {
+        long now = System.nanoTime();
+        listener.onLease(grant, now - start, prefetch);
+        if (grant.granted() <= 0) {
+            deniedUntil = now + grant.retryAfterNanos();
+            return;
+        }
+        if (now - leaseExpiresAt >= 0) {
+            long stale = discardTokens();
+            if (stale > 0) {
+                listener.onExpired(stale);
+            }
+        }
+        // Extend validity before adding, so that takers never see fresh tokens behind an expired lease.
+        leaseExpiresAt = now + leaseValidityNanos;
+        tokens.addAndGet(grant.granted());
+    }
+
+    private long discardTokens() {
+        while (true) {
+            long current = tokens.get();
+            if (current <= 0) {
+                // A negative count is a transient deficit that its takers are about to give back.
+                return 0;
+            }
+            if (tokens.compareAndSet(current, 0)) {
+                return current;
+            }
+        }
+    }
+}
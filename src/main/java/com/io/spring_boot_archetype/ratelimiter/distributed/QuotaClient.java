@@ -0,0 +1,204 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link QuotaCoordinator} talking to a {@link QuotaServer} over a single pipelined connection.
+ * <p>
+ * Lease frames from all threads are written to the same connection in order, and a worker thread completes
+ * the pending futures as grants arrive. The same worker owns the connection: it connects, reads until the
+ * connection is lost and reconnects, waiting {@link #RECONNECT_BACKOFF_NANOS} between failed attempts. Request
+ * threads therefore never block on a connect; while there is no connection, leases fail immediately with a
+ * shared, already failed future.
+ * </p>
+ */
+@Slf4j
+public class QuotaClient implements QuotaCoordinator, AutoCloseable {
+
+    private static final long RECONNECT_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String host;
+    private final int port;
+    private final int connectTimeoutMillis;
+    private final CompletableFuture<QuotaGrant> unavailable;
+    private final Thread worker;
+    private volatile Connection connection;
+    private volatile boolean closed;
+    // Touched by the worker only, once started: failed attempts are logged once per outage.
+    private boolean outageReported;
+
+    /**
+     * Connects once on the calling thread, so that the first leases find the connection, and then leaves
+     * the connection to a worker thread.
+     *
+     * @param host                 the quota server host.
+     * @param port                 the quota server port.
+     * @param connectTimeoutMillis timeout for establishing a connection.
+     */
+    public QuotaClient(String host, int port, int connectTimeoutMillis) {
+        this.host = host;
+        this.port = port;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.unavailable = CompletableFuture.failedFuture(
+                new IOException("Quota server " + host + ":" + port + " is unavailable"));
+        this.connection = connect();
+        this.worker = Thread.ofVirtual().name("quota-client").start(this::maintainConnection);
+    }
+
+    @Override
+    public CompletableFuture<QuotaGrant> lease(long endpointKey, long high, long low,
+                                               int capacity, long duration, int requested) {
+        Connection current = connection;
+        if (current == null || !current.open) {
+            return unavailable;
+        }
+        CompletableFuture<QuotaGrant> result = new CompletableFuture<>();
+        try {
+            current.send(result, endpointKey, high, low, capacity, duration, requested);
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+        Connection current = connection;
+        if (current != null) {
+            current.fail(new IOException("Quota client closed"));
+        }
+    }
+
+    private void maintainConnection() {
+        Connection current = connection;
+        while (!closed) {
+            if (current == null) {
+                current = connect();
+                if (current == null) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(RECONNECT_BACKOFF_NANOS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    continue;
+                }
+                connection = current;
+                if (closed) {
+                    // Closed while connecting: close() may have missed this connection.
+                    current.fail(new IOException("Quota client closed"));
+                    return;
+                }
+            }
+            current.readLoop();
+            // Reconnect right away after losing a connection; only failed attempts back off.
+            current = null;
+            connection = null;
+        }
+    }
+
+    /**
+     * @return a new connection, or null if the server cannot be reached.
+     */
+    private Connection connect() {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), connectTimeoutMillis);
+            Connection connected = new Connection(socket);
+            outageReported = false;
+            log.info("Connected to quota server {}:{}", host, port);
+            return connected;
+        } catch (IOException e) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Never connected.
+            }
+            if (!outageReported) {
+                outageReported = true;
+                log.warn("Cannot connect to quota server {}:{}: {}", host, port, e.getMessage());
+            } else {
+                log.debug("Cannot connect to quota server {}:{}: {}", host, port, e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    private final class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private final Queue<CompletableFuture<QuotaGrant>> pending = new ConcurrentLinkedQueue<>();
+        private volatile boolean open = true;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            QuotaProtocol.writeHandshake(out);
+        }
+
+        synchronized void send(CompletableFuture<QuotaGrant> result, long endpointKey, long high, long low,
+                               int capacity, long duration, int requested) throws IOException {
+            if (!open) {
+                throw new IOException("Quota server connection is closed");
+            }
+            // Enqueue before writing so that the reader always finds the future of the grant it reads.
+            pending.add(result);
+            try {
+                QuotaProtocol.writeLease(out, endpointKey, high, low, capacity, duration, requested);
+                out.flush();
+            } catch (IOException e) {
+                fail(e);
+                throw e;
+            }
+        }
+
+        /**
+         * Completes pending leases as grants arrive, until the connection fails.
+         */
+        void readLoop() {
+            try {
+                while (open) {
+                    QuotaGrant grant = QuotaProtocol.readGrant(in);
+                    CompletableFuture<QuotaGrant> result = pending.poll();
+                    if (result != null) {
+                        result.complete(grant);
+                    }
+                }
+            } catch (IOException e) {
+                if (open) {
+                    log.warn("Lost connection to quota server {}:{}: {}", host, port, e.getMessage());
+                }
+                fail(e);
+            }
+        }
+
+        void fail(IOException cause) {
+            open = false;
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Already failing.
+            }
+            CompletableFuture<QuotaGrant> result;
+            while ((result = pending.poll()) != null) {
+                result.completeExceptionally(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Holder of the global token budget, from which nodes lease blocks of tokens.
+ * <p>
+ * Each endpoint and client has one token bucket at the coordinator. A node asks for a block of tokens,
+ * serves requests from it locally and only comes back once the block is spent, so most requests never
+ * leave the process. {@link QuotaLedger} is the in-process implementation, {@link QuotaClient} talks to a
+ * {@link QuotaServer} over the network.
+ * </p>
+ */
+public interface QuotaCoordinator {
+
+    /**
+     * Leases up to {@code requested} tokens of a client's bucket on an endpoint.
+     *
+     * @param endpointKey the stable key of the endpoint.
+     * @param high        the upper 64 bits of the client key.
+     * @param low         the lower 64 bits of the client key.
+     * @param capacity    the bucket capacity, used when the bucket is created.
+     * @param duration    the bucket refill duration in milliseconds, used when the bucket is created.
+     * @param requested   the number of tokens wanted.
+     * @return the grant, completed exceptionally if the coordinator cannot be reached.
+     */
+    CompletableFuture<QuotaGrant> lease(long endpointKey, long high, long low, int capacity, long duration, int requested);
+}
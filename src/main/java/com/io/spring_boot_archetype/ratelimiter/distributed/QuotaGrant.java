@@ -0,0 +1,10 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+/**
+ * Answer of a {@link QuotaCoordinator} to a lease request.
+ *
+ * @param granted         number of tokens handed out, possibly fewer than requested.
+ * @param retryAfterNanos when nothing was granted, how long the caller should wait before asking again.
+ */
+public record QuotaGrant(int granted, long retryAfterNanos) {
+}
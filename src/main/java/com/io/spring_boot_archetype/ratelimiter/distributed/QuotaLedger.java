@@ -0,0 +1,91 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitAlgorithm;
+import com.io.spring_boot_archetype.ratelimiter.TokenBucketRateLimiter;
+import com.io.spring_boot_archetype.ratelimiter.store.LimiterTable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process {@link QuotaCoordinator} holding the authoritative token buckets.
+ * <p>
+ * Used by {@link QuotaServer} to answer remote nodes, and directly as a stand-in coordinator in tests.
+ * Buckets are kept in a {@link LimiterTable}, so the ledger is bounded by {@code maxEntries} however many clients
+ * it sees: a full segment drops its idle buckets and then its least recently used ones in a batch, which keeps
+ * eviction amortized. Buckets are keyed by the endpoint's stable key folded to 32 bits rather than by an ordinal,
+ * so the ledger keeps no per-endpoint state besides a bounded cache of configurations; two endpoints whose keys
+ * fold alike would share their clients' buckets, which is accepted as negligible.
+ * </p>
+ * <p>
+ * Every lease carries the limit it is evaluated against, which differs between clients with overrides and changes
+ * when an override is added or removed. A bucket leased under a new capacity or duration is migrated by the table
+ * with the share of its quota already used, as on a single node.
+ * </p>
+ */
+public class QuotaLedger implements QuotaCoordinator {
+
+    private static final LimiterTable.LimiterFactory BUCKET_FACTORY =
+            (config, high, low) -> new TokenBucketRateLimiter(config.capacity(), config.duration());
+
+    // Stale limits are only dropped in bulk: a bucket whose config is recreated with the same limits is kept as is.
+    private static final int MAX_CONFIGS = 4096;
+
+    private final LimiterTable buckets;
+    private final ConcurrentHashMap<Limits, EffectiveRateLimitConfig> configs = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxEntries approximate maximum number of buckets held.
+     */
+    public QuotaLedger(int maxEntries) {
+        this.buckets = new LimiterTable(maxEntries);
+    }
+
+    @Override
+    public CompletableFuture<QuotaGrant> lease(long endpointKey, long high, long low,
+                                               int capacity, long duration, int requested) {
+        return CompletableFuture.completedFuture(grant(endpointKey, high, low, capacity, duration, requested));
+    }
+
+    /**
+     * Synchronous form of {@link #lease}, used by the server's connection handlers.
+     */
+    public QuotaGrant grant(long endpointKey, long high, long low, int capacity, long duration, int requested) {
+        EffectiveRateLimitConfig config = configFor(endpointKey, capacity, duration);
+        TokenBucketRateLimiter bucket = (TokenBucketRateLimiter) buckets.getOrCreate(config, high, low, BUCKET_FACTORY);
+        int granted = bucket.acquireUpTo(requested);
+        // An empty bucket earns its next token after duration / capacity.
+        long retryAfterNanos = granted > 0 ? 0 : TimeUnit.MILLISECONDS.toNanos(config.duration()) / config.capacity();
+        return new QuotaGrant(granted, retryAfterNanos);
+    }
+
+    /**
+     * @return the number of buckets currently held.
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Returns the configuration of an endpoint under the given limits. The same instance is returned as long as
+     * the limits are unchanged, so buckets are only migrated when they actually change.
+     */
+    private EffectiveRateLimitConfig configFor(long endpointKey, int capacity, long duration) {
+        Limits limits = new Limits(endpointKey, capacity, duration);
+        EffectiveRateLimitConfig config = configs.get(limits);
+        if (config != null) {
+            return config;
+        }
+        if (configs.size() >= MAX_CONFIGS) {
+            configs.clear();
+        }
+        return configs.computeIfAbsent(limits, key -> new EffectiveRateLimitConfig(
+                Long.hashCode(endpointKey), endpointKey, Long.toHexString(endpointKey), true,
+                capacity, duration, RateLimitAlgorithm.TOKEN_BUCKET, 0, null, null));
+    }
+
+    private record Limits(long endpointKey, int capacity, long duration) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Binary protocol spoken between {@link QuotaClient} and {@link QuotaServer}.
+ * <p>
+ * A connection starts with the client sending {@link #MAGIC} and {@link #VERSION}. After that the client sends
+ * fixed-size lease frames and the server answers each with a fixed-size grant frame, in order, so requests can be
+ * pipelined on one connection:
+ * </p>
+ * <pre>
+ * lease: op (1) | endpointKey (8) | high (8) | low (8) | capacity (4) | duration ms (8) | requested (4)
+ * grant: granted (4) | retryAfterNanos (8)
+ * </pre>
+ */
+final class QuotaProtocol {
+
+    static final int MAGIC = 0x524C5154; // "RLQT"
+    static final byte VERSION = 1;
+    static final byte OP_LEASE = 1;
+
+    private QuotaProtocol() {
+    }
+
+    static void writeHandshake(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    static void readHandshake(DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        byte version = in.readByte();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("Unsupported quota protocol: magic " + Integer.toHexString(magic) + ", version " + version);
+        }
+    }
+
+    static void writeLease(DataOutputStream out, long endpointKey, long high, long low,
+                           int capacity, long duration, int requested) throws IOException {
+        out.writeByte(OP_LEASE);
+        out.writeLong(endpointKey);
+        out.writeLong(high);
+        out.writeLong(low);
+        out.writeInt(capacity);
+        out.writeLong(duration);
+        out.writeInt(requested);
+    }
+
+    /**
+     * Reads a lease frame.
+     *
+     * @throws java.io.EOFException if the stream ends before or within the frame.
+     * @throws IOException          if the frame is not a lease.
+     */
+    static Lease readLease(DataInputStream in) throws IOException {
+        byte op = in.readByte();
+        if (op != OP_LEASE) {
+            throw new IOException("Unknown quota operation: " + op);
+        }
+        return new Lease(in.readLong(), in.readLong(), in.readLong(), in.readInt(), in.readLong(), in.readInt());
+    }
+
+    static void writeGrant(DataOutputStream out, QuotaGrant grant) throws IOException {
+        out.writeInt(grant.granted());
+        out.writeLong(grant.retryAfterNanos());
+    }
+
+    static QuotaGrant readGrant(DataInputStream in) throws IOException {
+        int granted = in.readInt();
+        long retryAfterNanos = in.readLong();
+        return new QuotaGrant(granted, retryAfterNanos);
+    }
+
+    /**
+     * A decoded lease frame.
+     */
+    record Lease(long endpointKey, long high, long low, int capacity, long duration, int requested) {
+    }
+}
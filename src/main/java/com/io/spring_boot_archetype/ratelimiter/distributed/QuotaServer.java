@@ -0,0 +1,107 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embeddable quota server sharing a {@link QuotaLedger} with remote nodes over {@link QuotaProtocol}.
+ * <p>
+ * It stands in for a shared store so that the distributed backend can be run and tested locally: start it in one
+ * JVM with {@code rate-limit.backend.embedded-server=true} and point every replica's
+ * {@code rate-limit.backend.host/port} at it. Each connection is served by a virtual thread, and responses are
+ * flushed only once no further pipelined request is buffered, so a batch of leases costs one write.
+ * </p>
+ */
+@Slf4j
+public class QuotaServer implements AutoCloseable {
+
+    private final QuotaLedger ledger;
+    private final String host;
+    private final int port;
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+
+    /**
+     * @param ledger the ledger holding the global token buckets.
+     * @param host   the address to bind to.
+     * @param port   the port to listen on, or 0 for an ephemeral port.
+     */
+    public QuotaServer(QuotaLedger ledger, String host, int port) {
+        this.ledger = ledger;
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Binds the server socket and starts accepting connections.
+     *
+     * @throws IOException if the socket cannot be bound.
+     */
+    public synchronized void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(host, port));
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        executor.submit(this::acceptLoop);
+        log.info("Quota server listening on {}:{}", host, getPort());
+    }
+
+    /**
+     * @return the port the server is bound to.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+            executor.shutdownNow();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                executor.submit(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Quota server failed to accept a connection: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            QuotaProtocol.readHandshake(in);
+            while (true) {
+                QuotaProtocol.Lease lease = QuotaProtocol.readLease(in);
+                QuotaProtocol.writeGrant(out, ledger.grant(lease.endpointKey(), lease.high(), lease.low(),
+                        lease.capacity(), lease.duration(), lease.requested()));
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (EOFException e) {
+            // Client closed the connection, possibly within a frame, which is then dropped unanswered.
+        } catch (IOException | RuntimeException e) {
+            log.warn("Quota server closed connection from {}: {}", socket.getRemoteSocketAddress(), e.getMessage());
+        }
+    }
+}
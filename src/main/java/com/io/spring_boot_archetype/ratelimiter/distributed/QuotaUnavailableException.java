@@ -0,0 +1,15 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+/**
+ * Exception thrown when a lease cannot be obtained from the {@link QuotaCoordinator} in time.
+ * <p>
+ * It is expected whenever the coordinator is down and is handled by falling back to local limits, so it does not
+ * fill in a stack trace, and the waiters of a failed lease all rethrow the same instance; its cause tells what
+ * went wrong.
+ * </p>
+ */
+public class QuotaUnavailableException extends RuntimeException {
+    public QuotaUnavailableException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
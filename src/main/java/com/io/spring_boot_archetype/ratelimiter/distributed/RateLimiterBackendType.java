@@ -0,0 +1,15 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+/**
+ * Enum for selecting the rate limiter backend via {@code rate-limit.backend.type}.
+ */
+public enum RateLimiterBackendType {
+    /**
+     * Limits are enforced per JVM by the local limiter store.
+     */
+    LOCAL,
+    /**
+     * Limits are enforced across replicas by a quota server; see {@link RemoteRateLimiterBackend}.
+     */
+    REMOTE
+}
@@ -0,0 +1,155 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitDecision;
+import com.io.spring_boot_archetype.ratelimiter.RateLimiter;
+import com.io.spring_boot_archetype.ratelimiter.RateLimiterBackend;
+import com.io.spring_boot_archetype.ratelimiter.store.LimiterStore;
+import com.io.spring_boot_archetype.ratelimiter.store.LimiterTable;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link RateLimiterBackend} enforcing one limit across all replicas through a {@link QuotaCoordinator}.
+ * <p>
+ * Each endpoint and client gets a {@link LeasingRateLimiter} in a bounded local {@link LimiterTable}, so requests
+ * are served from leased tokens and only every {@code leaseSize}-th request reaches the coordinator, in the background.
+ * A client can therefore be over-admitted by at most one unspent lease (plus its low-water mark) per replica.
+ * If the coordinator cannot be reached, decisions fall back to the local limiter store, i.e. to per-replica limits;
+ * requests admitted that way are reported to the {@link LeaseListener} as over-admissions.
+ * </p>
+ * <p>
+ * Once a lease has failed, the backend is degraded: requests go straight to the fallback store without touching
+ * the coordinator, except for one request per {@link #PROBE_INTERVAL_NANOS}, which probes it through its leasing
+ * limiter. Only a lease that succeeds ends the degraded mode; tokens still held from before the outage do not.
+ * Refunds go to the store that most likely made the decision, judged by when the request started.
+ * </p>
+ */
+@Slf4j
+public class RemoteRateLimiterBackend implements RateLimiterBackend {
+
+    private static final long PROBE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final QuotaCoordinator coordinator;
+    private final LeaseListener listener;
+    private final LimiterStore fallback;
+    private final LimiterTable leases;
+    private final int leaseSize;
+    private final long timeoutMillis;
+    private final LimiterTable.LimiterFactory leasingLimiterFactory = this::newLeasingLimiter;
+    private final LeaseListener leaseListener = new RecoveryListener();
+    private final AtomicBoolean degraded = new AtomicBoolean();
+    private final AtomicLong nextProbeAt = new AtomicLong();
+    private volatile long degradedAt = System.nanoTime();
+    private volatile long recoveredAt = degradedAt;
+
+    /**
+     * @param coordinator   the coordinator holding the global budget.
+     * @param listener      notified of leases and over-admissions, e.g. to record metrics.
+     * @param fallback      the local store used while the coordinator is unavailable.
+     * @param maxEntries    approximate maximum number of leasing limiters held.
+     * @param leaseSize     the number of tokens requested per lease.
+     * @param timeoutMillis how long to wait for a lease before falling back.
+     */
+    public RemoteRateLimiterBackend(QuotaCoordinator coordinator, LeaseListener listener, LimiterStore fallback,
+                                    int maxEntries, int leaseSize, long timeoutMillis) {
+        this.coordinator = coordinator;
+        this.listener = listener;
+        this.fallback = fallback;
+        this.leases = new LimiterTable(maxEntries);
+        this.leaseSize = leaseSize;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public long tryAcquire(EffectiveRateLimitConfig config, long high, long low) {
+        if (degraded.get() && !claimProbe()) {
+            return fallback(config, high, low);
+        }
+        RateLimiter limiter = leases.getOrCreate(config, high, low, leasingLimiterFactory);
+        try {
+            return limiter.tryAcquire();
+        } catch (QuotaUnavailableException e) {
+            if (degraded.compareAndSet(false, true)) {
+                degradedAt = System.nanoTime();
+                nextProbeAt.set(degradedAt + PROBE_INTERVAL_NANOS);
+                log.warn("Quota coordinator unavailable, falling back to per-instance rate limits: {}",
+                        e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+            return fallback(config, high, low);
+        }
+    }
+
+    @Override
+    public void refund(EffectiveRateLimitConfig config, long high, long low, long acquiredAt) {
+        if (decidedByFallback(acquiredAt)) {
+            fallback.refund(config, high, low, acquiredAt);
+        } else {
+            leases.getOrCreate(config, high, low, leasingLimiterFactory).refund(acquiredAt);
+        }
+    }
+
+    /**
+     * @return whether the calling request is the one allowed to probe the coordinator in this interval.
+     */
+    private boolean claimProbe() {
+        long probeAt = nextProbeAt.get();
+        long now = System.nanoTime();
+        return now - probeAt >= 0 && nextProbeAt.compareAndSet(probeAt, now + PROBE_INTERVAL_NANOS);
+    }
+
+    /**
+     * Tells whether a request started at {@code acquiredAt} was decided by the fallback store, i.e. during the
+     * latest degraded period. A probe that succeeds is attributed to the fallback, which only misroutes its refund.
+     */
+    private boolean decidedByFallback(long acquiredAt) {
+        return acquiredAt - degradedAt >= 0 && (degraded.get() || acquiredAt - recoveredAt < 0);
+    }
+
+    private long fallback(EffectiveRateLimitConfig config, long high, long low) {
+        long decision = fallback.tryAcquire(config, high, low);
+        if (RateLimitDecision.isAllowed(decision)) {
+            listener.onOverAdmission();
+        }
+        return decision;
+    }
+
+    private RateLimiter newLeasingLimiter(EffectiveRateLimitConfig config, long high, long low) {
+        // Never lease more than a quarter of the limit, so that a few replicas cannot drain a small budget.
+        int size = Math.max(1, Math.min(leaseSize, config.capacity() / 4));
+        return new LeasingRateLimiter(coordinator, leaseListener, config, high, low, size, timeoutMillis);
+    }
+
+    /**
+     * Forwards lease events to the listener, and ends the degraded mode when the coordinator answers a lease.
+     */
+    private final class RecoveryListener implements LeaseListener {
+
+        @Override
+        public void onLease(QuotaGrant grant, long latencyNanos, boolean prefetch) {
+            if (degraded.get() && degraded.compareAndSet(true, false)) {
+                recoveredAt = System.nanoTime();
+                log.info("Quota coordinator reachable again, enforcing global rate limits");
+            }
+            listener.onLease(grant, latencyNanos, prefetch);
+        }
+
+        @Override
+        public void onLeaseFailure() {
+            listener.onLeaseFailure();
+        }
+
+        @Override
+        public void onExpired(long tokens) {
+            listener.onExpired(tokens);
+        }
+
+        @Override
+        public void onOverAdmission() {
+            listener.onOverAdmission();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.io.spring_boot_archetype.ratelimiter.filter;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimitConfigRegistry;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitMetrics;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitRejectionLogger;
+import com.io.spring_boot_archetype.ratelimiter.RateLimiterBackend;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the filter mode, enabled with {@code rate-limit.mode: FILTER}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "rate-limit", name = "mode", havingValue = "FILTER")
+public class RateLimitFilterConfig {
+
+    /**
+     * Registers the rate limit filter at {@link RateLimitFilter#ORDER}.
+     *
+     * @param routeTable         the table resolving requests to their endpoint's rate limit.
+     * @param configRegistry     the registry holding the overrides in effect.
+     * @param rateLimiterBackend the backend deciding on requests.
+     * @param rejectionLogger    the logger counting rejected requests.
+     * @param metrics            the meters recording decisions.
+     * @return the filter registration.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitRouteTable routeTable,
+                                                                   RateLimitConfigRegistry configRegistry,
+                                                                   RateLimiterBackend rateLimiterBackend,
+                                                                   RateLimitRejectionLogger rejectionLogger,
+                                                                   RateLimitMetrics metrics) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(routeTable, configRegistry, rateLimiterBackend, rejectionLogger, metrics));
+        registration.setOrder(RateLimitFilter.ORDER);
+        return registration;
+    }
+}
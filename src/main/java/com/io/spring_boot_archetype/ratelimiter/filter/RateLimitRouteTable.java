@@ -0,0 +1,294 @@
+package com.io.spring_boot_archetype.ratelimiter.filter;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitConfigRegistry;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitExceededException;
+import com.io.spring_boot_archetype.ratelimiter.shedding.RequestPriority;
+import com.io.spring_boot_archetype.ratelimiter.shedding.ShedPriority;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.RequestPath;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Table resolving a request's method and path to the effective rate limit of the handler it will be dispatched to.
+ * <p>
+ * The table is built once, after all singletons are instantiated, from the mappings of the
+ * {@link RequestMappingHandlerMapping} and the configurations of the {@link RateLimitConfigRegistry}, so that
+ * {@link RateLimitFilter} and {@code RateLimitAspect} apply the same limits to the same endpoints; routes look their
+ * configuration up in the registry on each request, so that runtime overrides apply to both. Literal paths
+ * are resolved with a single hash lookup; only paths with variables or wildcards are matched against patterns,
+ * which are tried from the most to the least specific. Requests are looked up by their path as the
+ * {@code DispatcherServlet} resolves it, so that a differently encoded path cannot bypass its route.
+ * </p>
+ * <p>
+ * Routes also carry the endpoint's {@link ShedPriority}, so that the load shedding filter can tell the priority of a
+ * request before it is dispatched.
+ * </p>
+ */
+@Slf4j
+public class RateLimitRouteTable implements SmartInitializingSingleton {
+
+    private static final int ANY_METHOD = 0;
+
+    private final RateLimitConfigRegistry configRegistry;
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMapping;
+    private volatile Map<String, Route[]> literalRoutes = Map.of();
+    private volatile Route[] patternRoutes = new Route[0];
+
+    /**
+     * @param configRegistry the registry resolving the configuration of each handler method.
+     * @param handlerMapping the handler mapping whose mappings are indexed.
+     */
+    public RateLimitRouteTable(RateLimitConfigRegistry configRegistry,
+                               ObjectProvider<RequestMappingHandlerMapping> handlerMapping) {
+        this.configRegistry = configRegistry;
+        this.handlerMapping = handlerMapping;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        RequestMappingHandlerMapping mapping = handlerMapping.getIfAvailable();
+        if (mapping != null) {
+            build(mapping.getHandlerMethods());
+        }
+    }
+
+    /**
+     * Finds the route a request will be dispatched to.
+     * <p>
+     * The path is resolved as the {@code DispatcherServlet} resolves it: within the application, percent-decoded
+     * and without matrix parameters, so {@code /api/gr%65et} and {@code /api/greet;x=1} find the route of
+     * {@code /api/greet}. Paths containing neither {@code %} nor {@code ;} are looked up as they are, without
+     * being parsed.
+     * </p>
+     *
+     * @param request the request.
+     * @return the matching route, or {@code null} if no rest controller handles the request.
+     */
+    public Route find(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        if (uri.indexOf('%') < 0 && uri.indexOf(';') < 0) {
+            return find(request.getMethod(), contextPath.isEmpty() ? uri : uri.substring(contextPath.length()));
+        }
+        PathContainer path = RequestPath.parse(uri, contextPath).pathWithinApplication();
+        return find(methodBit(request.getMethod()), lookupPath(path), path);
+    }
+
+    /**
+     * Finds the route matching a decoded path.
+     *
+     * @param method the HTTP method of the request.
+     * @param path   the decoded request path within the application, without matrix parameters.
+     * @return the matching route, or {@code null} if no rest controller handles the request.
+     */
+    public Route find(String method, String path) {
+        return find(methodBit(method), path, null);
+    }
+
+    /**
+     * @param literalPath the decoded path looked up among literal routes, or null if it cannot match one.
+     * @param path        the parsed path matched against patterns, or null to parse {@code literalPath}.
+     */
+    private Route find(int methodBit, String literalPath, PathContainer path) {
+        if (literalPath != null) {
+            Route[] candidates = literalRoutes.get(literalPath);
+            if (candidates != null) {
+                Route route = matchMethod(candidates, methodBit);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+        Route[] patterns = patternRoutes;
+        if (patterns.length == 0) {
+            return null;
+        }
+        PathContainer container = path != null ? path : PathContainer.parsePath(literalPath);
+        for (Route route : patterns) {
+            if (route.accepts(methodBit) && route.pattern.matches(container)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of indexed routes.
+     */
+    public int size() {
+        int size = patternRoutes.length;
+        for (Route[] routes : literalRoutes.values()) {
+            size += routes.length;
+        }
+        return size;
+    }
+
+    private void build(Map<RequestMappingInfo, HandlerMethod> handlerMethods) {
+        Map<String, List<Route>> literals = new HashMap<>();
+        Map<String, RateLimitExceededException> rejections = new HashMap<>();
+        List<Route> patterns = new ArrayList<>();
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        handlerMethods.forEach((info, handler) -> {
+            // Same scope as the aspect's pointcut.
+            if (!AnnotatedElementUtils.hasAnnotation(handler.getBeanType(), RestController.class)) {
+                return;
+            }
+            EffectiveRateLimitConfig config = configRegistry.getConfig(handler.getMethod(), handler.getBeanType());
+            int methods = methodMask(info.getMethodsCondition().getMethods());
+            RateLimitExceededException rejection = config.enabled()
+                    ? rejections.computeIfAbsent(config.endpoint(), RateLimitExceededException::forEndpoint)
+                    : null;
+            RequestPriority priority = resolvePriority(handler);
+            for (String value : info.getPatternValues()) {
+                PathPattern pattern = parser.parse(value);
+                Route route = new Route(pattern, methods, handler.getMethod(), handler.getBeanType(), rejection,
+                        priority);
+                if (pattern.hasPatternSyntax()) {
+                    patterns.add(route);
+                } else {
+                    literals.computeIfAbsent(value, k -> new ArrayList<>()).add(route);
+                }
+            }
+        });
+        patterns.sort((a, b) -> PathPattern.SPECIFICITY_COMPARATOR.compare(a.pattern, b.pattern));
+        Map<String, Route[]> literalTable = new HashMap<>();
+        literals.forEach((path, routes) -> literalTable.put(path, sortedByMethods(routes)));
+        this.literalRoutes = literalTable;
+        this.patternRoutes = patterns.toArray(new Route[0]);
+        log.info("Indexed {} routes ({} literal paths, {} patterns)",
+                size(), literalTable.size(), patterns.size());
+    }
+
+    /**
+     * Joins the decoded segments of a parsed path, without their matrix parameters.
+     *
+     * @return the path to look up among literal routes, or null if a segment contains an encoded slash,
+     * which no literal route matches.
+     */
+    private static String lookupPath(PathContainer path) {
+        StringBuilder lookup = new StringBuilder(path.value().length());
+        for (PathContainer.Element element : path.elements()) {
+            if (element instanceof PathContainer.PathSegment segment) {
+                String value = segment.valueToMatch();
+                if (value.indexOf('/') >= 0) {
+                    return null;
+                }
+                lookup.append(value);
+            } else {
+                lookup.append(element.value());
+            }
+        }
+        return lookup.toString();
+    }
+
+    /**
+     * Resolves the shedding priority of a handler; a method-level annotation overrides a class-level one.
+     *
+     * @return the annotated priority, or {@code null} if the handler is not annotated.
+     */
+    private static RequestPriority resolvePriority(HandlerMethod handler) {
+        ShedPriority anno = AnnotatedElementUtils.findMergedAnnotation(handler.getMethod(), ShedPriority.class);
+        if (anno == null) {
+            anno = AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), ShedPriority.class);
+        }
+        return anno != null ? anno.value() : null;
+    }
+
+    private static Route matchMethod(Route[] routes, int methodBit) {
+        for (Route route : routes) {
+            if (route.accepts(methodBit)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Orders routes restricted to specific methods before catch-all routes, as the handler mapping prefers them.
+     */
+    private static Route[] sortedByMethods(List<Route> routes) {
+        routes.sort((a, b) -> Boolean.compare(a.methods == ANY_METHOD, b.methods == ANY_METHOD));
+        return routes.toArray(new Route[0]);
+    }
+
+    private static int methodMask(Set<RequestMethod> methods) {
+        int mask = ANY_METHOD;
+        for (RequestMethod method : methods) {
+            mask |= 1 << method.ordinal();
+            // HEAD is implicitly served by GET mappings.
+            if (method == RequestMethod.GET) {
+                mask |= 1 << RequestMethod.HEAD.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    private static int methodBit(String method) {
+        RequestMethod resolved = RequestMethod.resolve(method);
+        return resolved == null ? ANY_METHOD : 1 << resolved.ordinal();
+    }
+
+    /**
+     * A handler mapping with its handler method, the endpoint's rejection, whose body is written
+     * when the limit is exceeded, and its shedding priority.
+     */
+    public final class Route {
+        private final PathPattern pattern;
+        private final int methods;
+        private final Method handler;
+        private final Class<?> beanType;
+        private final RateLimitExceededException rejection;
+        private final RequestPriority priority;
+
+        Route(PathPattern pattern, int methods, Method handler, Class<?> beanType,
+              RateLimitExceededException rejection, RequestPriority priority) {
+            this.pattern = pattern;
+            this.methods = methods;
+            this.handler = handler;
+            this.beanType = beanType;
+            this.rejection = rejection;
+            this.priority = priority;
+        }
+
+        /**
+         * @return the effective rate limit of the handler, including the overrides currently in effect.
+         */
+        public EffectiveRateLimitConfig getConfig() {
+            return configRegistry.getConfig(handler, beanType);
+        }
+
+        public RateLimitExceededException getRejection() {
+            return rejection;
+        }
+
+        /**
+         * @return the annotated shedding priority, or {@code null} if the endpoint is not annotated.
+         */
+        public RequestPriority getPriority() {
+            return priority;
+        }
+
+        boolean accepts(int methodBit) {
+            return methods == ANY_METHOD || (methods & methodBit) != 0;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.io.spring_boot_archetype.ratelimiter.filter;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimitConfigRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * Configuration of the route table, needed by the filters deciding on requests before they are dispatched:
+ * the rate limit filter ({@code rate-limit.mode: FILTER}) and the load shedding filter
+ * ({@code rate-limit.shedding.enabled: true}).
+ */
+@Configuration
+@ConditionalOnExpression("'${rate-limit.mode:ASPECT}'.equalsIgnoreCase('FILTER') or ${rate-limit.shedding.enabled:false}")
+public class RateLimitRouteTableConfig {
+
+    /**
+     * Creates the table resolving requests to their endpoint's rate limit and shedding priority.
+     *
+     * @param configRegistry the registry resolving the configuration of each handler method.
+     * @param handlerMapping the application's request mapping handler mapping.
+     * @return the RateLimitRouteTable bean.
+     */
+    @Bean
+    public RateLimitRouteTable rateLimitRouteTable(
+            RateLimitConfigRegistry configRegistry,
+            @Qualifier("requestMappingHandlerMapping") ObjectProvider<RequestMappingHandlerMapping> handlerMapping) {
+        return new RateLimitRouteTable(configRegistry, handlerMapping);
+    }
+}
@@ -0,0 +1,231 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+/**
+ * Allocation-free parser that turns textual client addresses into a {@link ClientKey}.
+ * <p>
+ * IPv4 literals are mapped to {@code ::ffff:a.b.c.d}; IPv6 literals (including {@code ::} compression,
+ * embedded IPv4 and zone ids, which are ignored) are stored as-is. Anything else, such as a host name,
+ * is hashed into a reserved range (prefix {@code ff00::/8}, multicast) that client addresses never use.
+ * </p>
+ */
+public final class ClientAddress {
+
+    static final long IPV4_MAPPED_PREFIX = 0x0000_FFFF_0000_0000L;
+    static final long HASHED_PREFIX = 0xFF00_0000_0000_0000L;
+
+    private ClientAddress() {
+    }
+
+    /**
+     * Parses the given address into the key.
+     *
+     * @param address the address as returned by {@code ServletRequest#getRemoteAddr()}.
+     * @param key     the key to populate.
+     * @return the populated key.
+     */
+    public static ClientKey parse(CharSequence address, ClientKey key) {
+        return parse(address, 0, address == null ? 0 : address.length(), key);
+    }
+
+    /**
+     * Parses the address found between {@code from} (inclusive) and {@code to} (exclusive) into the key.
+     */
+    public static ClientKey parse(CharSequence address, int from, int to, ClientKey key) {
+        if (address == null || from >= to) {
+            return key.set(HASHED_PREFIX, 0);
+        }
+        if (parseLiteral(address, from, to, key)) {
+            return key;
+        }
+        return hash(address, from, to, key);
+    }
+
+    /**
+     * Parses an IPv4 or IPv6 literal found between {@code from} (inclusive) and {@code to} (exclusive) into the key.
+     *
+     * @return true if the text is an address literal; otherwise the key may have been partially written.
+     */
+    public static boolean parseLiteral(CharSequence address, int from, int to, ClientKey key) {
+        if (from >= to) {
+            return false;
+        }
+        long ipv4 = parseIpv4(address, from, to);
+        if (ipv4 >= 0) {
+            key.set(0, IPV4_MAPPED_PREFIX | ipv4);
+            return true;
+        }
+        return parseIpv6(address, from, to, key);
+    }
+
+    /**
+     * Hashes arbitrary text into the reserved key range.
+     */
+    public static ClientKey hash(CharSequence value, int from, int to, ClientKey key) {
+        // Two independent 64-bit FNV-1a style hashes computed in one pass.
+        long h1 = 0xcbf29ce484222325L;
+        long h2 = 0x84222325cbf29ce4L;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            h1 = (h1 ^ c) * 0x100000001b3L;
+            h2 = (h2 ^ c) * 0x9E3779B97F4A7C15L;
+        }
+        return key.set(HASHED_PREFIX | (h1 >>> 8), h2 ^ (h2 >>> 31));
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 literal.
+     *
+     * @return the address as an unsigned 32-bit value, or -1 if the text is not an IPv4 literal.
+     */
+    static long parseIpv4(CharSequence s, int from, int to) {
+        long result = 0;
+        int octet = -1;
+        int dots = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && dots < 3) {
+                result = (result << 8) | octet;
+                octet = -1;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+        if (octet < 0 || dots != 3) {
+            return -1;
+        }
+        return (result << 8) | octet;
+    }
+
+    /**
+     * Parses an IPv6 literal into the key.
+     * <p>
+     * Groups before {@code ::} and groups after it are accumulated into two separate 128-bit values,
+     * then the leading part is shifted into place, so no intermediate array is needed.
+     * </p>
+     *
+     * @return true if the text was a valid IPv6 literal.
+     */
+    static boolean parseIpv6(CharSequence s, int from, int to, ClientKey key) {
+        int end = to;
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == '%') {
+                end = i;
+                break;
+            }
+        }
+        if (end - from < 2) {
+            return false;
+        }
+        long headHigh = 0, headLow = 0, tailHigh = 0, tailLow = 0;
+        int headGroups = 0, tailGroups = 0;
+        boolean compressed = false;
+        int i = from;
+        if (s.charAt(i) == ':') {
+            if (s.charAt(i + 1) != ':') {
+                return false;
+            }
+            compressed = true;
+            i += 2;
+        }
+        while (i < end) {
+            int groupStart = i;
+            int value = 0;
+            while (i < end && i - groupStart <= 4) {
+                int digit = hexDigit(s.charAt(i));
+                if (digit < 0) {
+                    break;
+                }
+                value = (value << 4) | digit;
+                i++;
+            }
+            int groups;
+            long bits;
+            if (i < end && s.charAt(i) == '.') {
+                // Embedded IPv4 address: must be the last part and counts as two groups.
+                long ipv4 = parseIpv4(s, groupStart, end);
+                if (ipv4 < 0) {
+                    return false;
+                }
+                groups = 2;
+                bits = ipv4;
+                i = end;
+            } else {
+                int length = i - groupStart;
+                if (length == 0 || length > 4) {
+                    return false;
+                }
+                groups = 1;
+                bits = value;
+            }
+            if (headGroups + tailGroups + groups > 8) {
+                return false;
+            }
+            int shift = 16 * groups;
+            if (compressed) {
+                tailHigh = (tailHigh << shift) | (tailLow >>> (64 - shift));
+                tailLow = (tailLow << shift) | bits;
+                tailGroups += groups;
+            } else {
+                headHigh = (headHigh << shift) | (headLow >>> (64 - shift));
+                headLow = (headLow << shift) | bits;
+                headGroups += groups;
+            }
+            if (i == end) {
+                break;
+            }
+            if (s.charAt(i) != ':') {
+                return false;
+            }
+            i++;
+            if (i < end && s.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            } else if (i == end) {
+                return false;
+            }
+        }
+        int total = headGroups + tailGroups;
+        if (compressed ? total > 7 : total != 8) {
+            return false;
+        }
+        // Move the groups before "::" to the top of the 128-bit value.
+        int shift = 16 * (8 - headGroups);
+        long high;
+        long low;
+        if (shift == 0) {
+            high = headHigh;
+            low = headLow;
+        } else if (shift >= 128) {
+            high = 0;
+            low = 0;
+        } else if (shift >= 64) {
+            high = headLow << (shift - 64);
+            low = 0;
+        } else {
+            high = (headHigh << shift) | (headLow >>> (64 - shift));
+            low = headLow << shift;
+        }
+        key.set(high | tailHigh, low | tailLow);
+        return true;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
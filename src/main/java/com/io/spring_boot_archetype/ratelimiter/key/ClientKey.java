@@ -0,0 +1,36 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+/**
+ * Mutable 128-bit identity of a rate limited client.
+ * <p>
+ * IP addresses are stored as IPv6 addresses, with IPv4 addresses in their IPv4-mapped form ({@code ::ffff:a.b.c.d}),
+ * so both families share one key space. Instances are meant to be reused per thread so that resolving the
+ * identity of a request does not allocate.
+ * </p>
+ */
+public final class ClientKey {
+
+    private long high;
+    private long low;
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    /**
+     * Sets both halves of the key.
+     *
+     * @param high the upper 64 bits.
+     * @param low  the lower 64 bits.
+     * @return this key.
+     */
+    public ClientKey set(long high, long low) {
+        this.high = high;
+        this.low = low;
+        return this;
+    }
+}
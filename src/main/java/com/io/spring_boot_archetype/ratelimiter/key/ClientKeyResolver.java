@@ -0,0 +1,23 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Strategy deriving the identity a request is rate limited by.
+ * <p>
+ * Implementations write the identity into a caller-supplied, reused {@link ClientKey} and must not allocate
+ * on the common path. Selected per endpoint with {@code @RateLimit(key = ...)}.
+ * </p>
+ */
+@FunctionalInterface
+public interface ClientKeyResolver {
+
+    /**
+     * Resolves the identity of the client sending the request.
+     *
+     * @param request the request.
+     * @param key     the key to populate.
+     * @return the populated key.
+     */
+    ClientKey resolve(HttpServletRequest request, ClientKey key);
+}
@@ -0,0 +1,55 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimitProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides the {@link ClientKeyResolver} for each {@link ClientKeyType}, configured from {@code rate-limit.key.*}.
+ * <p>
+ * Resolvers are shared between endpoints; header resolvers are created once per header name.
+ * </p>
+ */
+@Component
+public class ClientKeyResolvers {
+
+    private final RateLimitProperties.Key properties;
+    private final ForwardedClientKeyResolver forwarded;
+    private final ConcurrentHashMap<String, HeaderClientKeyResolver> headers = new ConcurrentHashMap<>();
+
+    public ClientKeyResolvers(RateLimitProperties rateLimitProperties) {
+        this.properties = rateLimitProperties.getKey();
+        this.forwarded = new ForwardedClientKeyResolver(new TrustedProxies(properties.getTrustedProxies()),
+                properties.getForwardedHeader());
+    }
+
+    /**
+     * Returns the resolver for the given key type.
+     *
+     * @param type   the key type; {@link ClientKeyType#DEFAULT} selects the globally configured one.
+     * @param header the header to key on for {@link ClientKeyType#HEADER}; if empty, the global one is used.
+     * @return the shared resolver.
+     * @throws IllegalArgumentException if a header key is requested without a header name.
+     */
+    public ClientKeyResolver get(ClientKeyType type, String header) {
+        if (type == ClientKeyType.DEFAULT) {
+            type = properties.getType() == ClientKeyType.DEFAULT ? ClientKeyType.REMOTE_ADDRESS : properties.getType();
+        }
+        return switch (type) {
+            case FORWARDED -> forwarded;
+            case API_KEY -> header(properties.getApiKeyHeader());
+            case HEADER -> header(header == null || header.isEmpty() ? properties.getHeader() : header);
+            case PRINCIPAL -> PrincipalClientKeyResolver.INSTANCE;
+            case ENDPOINT -> EndpointClientKeyResolver.INSTANCE;
+            default -> RemoteAddressClientKeyResolver.INSTANCE;
+        };
+    }
+
+    private HeaderClientKeyResolver header(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("A header name is required to key rate limits by header.");
+        }
+        return headers.computeIfAbsent(name, HeaderClientKeyResolver::new);
+    }
+}
@@ -0,0 +1,38 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+/**
+ * Enum for selecting how clients are identified, in the RateLimit annotation and in the global properties.
+ */
+public enum ClientKeyType {
+    /**
+     * Use the key type configured at class level or globally.
+     * Only meaningful on the annotation.
+     */
+    DEFAULT,
+    /**
+     * The address of the peer connected to this server. Behind a load balancer, this is the load balancer.
+     */
+    REMOTE_ADDRESS,
+    /**
+     * The client address reported by trusted proxies in the configured {@code Forwarded} or {@code X-Forwarded-For}
+     * header.
+     * See {@link ForwardedClientKeyResolver}.
+     */
+    FORWARDED,
+    /**
+     * The API key sent in the configured API key header, falling back to the remote address.
+     */
+    API_KEY,
+    /**
+     * The value of a custom header, e.g. a tenant id, falling back to the remote address.
+     */
+    HEADER,
+    /**
+     * The name of the authenticated principal, falling back to the remote address for anonymous requests.
+     */
+    PRINCIPAL,
+    /**
+     * No client identity: all requests to the endpoint share one limit, e.g. to protect a downstream service.
+     */
+    ENDPOINT
+}
@@ -0,0 +1,22 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * {@link ClientKeyResolver} giving every request the same key, so that all clients share the endpoint's limit.
+ * <p>
+ * The key is the unspecified address {@code ::}, which no connected client can have.
+ * </p>
+ */
+public class EndpointClientKeyResolver implements ClientKeyResolver {
+
+    /**
+     * Shared instance; the resolver is stateless.
+     */
+    public static final EndpointClientKeyResolver INSTANCE = new EndpointClientKeyResolver();
+
+    @Override
+    public ClientKey resolve(HttpServletRequest request, ClientKey key) {
+        return key.set(0, 0);
+    }
+}
@@ -0,0 +1,151 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * {@link ClientKeyResolver} keying on the client address reported by trusted proxies.
+ * <p>
+ * Forwarding headers are only honored when the connected peer is a trusted proxy; otherwise any client could pick
+ * its own identity. Only the configured {@link ForwardedHeader} is read: a proxy maintaining one header passes the
+ * other through untouched, so falling back from one to the other would let clients pick their identity too.
+ * Hops are walked from the right, i.e. from the proxy closest to this server, skipping trusted proxies, and the
+ * first untrusted hop is the client. If that hop is obfuscated or unknown, the proxy that reported it is used.
+ * </p>
+ * <p>
+ * Header values are scanned in place, by index, and each hop is parsed with {@link ClientAddress} straight from the
+ * header string, so a request is resolved without splitting, regular expressions or intermediate strings.
+ * </p>
+ */
+public class ForwardedClientKeyResolver implements ClientKeyResolver {
+
+    private final TrustedProxies trustedProxies;
+    private final String headerName;
+    private final boolean forwarded;
+
+    /**
+     * @param trustedProxies the proxies whose forwarding headers are trusted.
+     * @param header         the header the trusted proxies maintain.
+     */
+    public ForwardedClientKeyResolver(TrustedProxies trustedProxies, ForwardedHeader header) {
+        this.trustedProxies = trustedProxies;
+        this.headerName = header.getHeaderName();
+        this.forwarded = header == ForwardedHeader.FORWARDED;
+    }
+
+    @Override
+    public ClientKey resolve(HttpServletRequest request, ClientKey key) {
+        ClientAddress.parse(request.getRemoteAddr(), key);
+        if (trustedProxies.isEmpty() || !trustedProxies.contains(key)) {
+            return key;
+        }
+        walkHeaders(request, headerName, forwarded, key);
+        return key;
+    }
+
+    /**
+     * Walks all values of a header, last one first.
+     */
+    private void walkHeaders(HttpServletRequest request, String name, boolean forwarded, ClientKey key) {
+        Enumeration<String> values = request.getHeaders(name);
+        if (values == null || !values.hasMoreElements()) {
+            return;
+        }
+        String first = values.nextElement();
+        if (!values.hasMoreElements()) {
+            walk(first, forwarded, key);
+            return;
+        }
+        // Repeated header lines are rare; only then are the values collected to be walked in reverse.
+        List<String> all = new ArrayList<>();
+        all.add(first);
+        while (values.hasMoreElements()) {
+            all.add(values.nextElement());
+        }
+        for (int i = all.size() - 1; i >= 0; i--) {
+            if (walk(all.get(i), forwarded, key)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Walks the comma-separated hops of a header value from right to left.
+     *
+     * @return true once the client has been found; false if all hops were trusted proxies.
+     */
+    private boolean walk(String value, boolean forwarded, ClientKey key) {
+        int end = value.length();
+        while (end > 0) {
+            int comma = value.lastIndexOf(',', end - 1);
+            long previousHigh = key.getHigh();
+            long previousLow = key.getLow();
+            boolean parsed = forwarded
+                    ? parseForwardedElement(value, comma + 1, end, key)
+                    : parseNode(value, comma + 1, end, key);
+            if (!parsed) {
+                key.set(previousHigh, previousLow);
+                return true;
+            }
+            if (!trustedProxies.contains(key)) {
+                return true;
+            }
+            end = comma;
+        }
+        return false;
+    }
+
+    /**
+     * Parses the {@code for} parameter of a {@code Forwarded} element such as
+     * {@code for="[2001:db8::1]:4711";proto=https}.
+     */
+    private static boolean parseForwardedElement(String value, int from, int to, ClientKey key) {
+        int start = from;
+        while (start < to) {
+            int semicolon = value.indexOf(';', start);
+            int pairEnd = semicolon < 0 || semicolon > to ? to : semicolon;
+            int name = skipWhitespace(value, start, pairEnd);
+            if (pairEnd - name > 4 && value.regionMatches(true, name, "for=", 0, 4)) {
+                return parseNode(value, name + 4, pairEnd, key);
+            }
+            start = pairEnd + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Parses a node such as {@code 192.0.2.1}, {@code 192.0.2.1:8080}, {@code 2001:db8::1} or
+     * {@code "[2001:db8::1]:4711"}, ignoring surrounding whitespace and quotes.
+     */
+    private static boolean parseNode(String value, int from, int to, ClientKey key) {
+        from = skipWhitespace(value, from, to);
+        while (to > from && Character.isWhitespace(value.charAt(to - 1))) {
+            to--;
+        }
+        if (to - from >= 2 && value.charAt(from) == '"' && value.charAt(to - 1) == '"') {
+            from++;
+            to--;
+        }
+        if (from < to && value.charAt(from) == '[') {
+            int close = value.indexOf(']', from);
+            return close > from && close < to && ClientAddress.parseLiteral(value, from + 1, close, key);
+        }
+        if (ClientAddress.parseLiteral(value, from, to, key)) {
+            return true;
+        }
+        // An IPv4 address with a port.
+        int colon = value.indexOf(':', from);
+        return colon > from && colon < to && value.lastIndexOf(':', to - 1) == colon
+                && ClientAddress.parseLiteral(value, from, colon, key);
+    }
+
+    private static int skipWhitespace(String value, int from, int to) {
+        while (from < to && Character.isWhitespace(value.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+}
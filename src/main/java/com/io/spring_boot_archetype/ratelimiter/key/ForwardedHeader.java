@@ -0,0 +1,32 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+/**
+ * Enum for selecting the forwarding header that trusted proxies maintain, read by {@link ForwardedClientKeyResolver}.
+ * <p>
+ * Only the configured header is read. A proxy that appends to one header passes the other one through as the
+ * client sent it, so reading both would let any client choose its own identity.
+ * </p>
+ */
+public enum ForwardedHeader {
+    /**
+     * The standard {@code Forwarded} header (RFC 7239), e.g. {@code for=192.0.2.43;proto=https}.
+     */
+    FORWARDED("Forwarded"),
+    /**
+     * The {@code X-Forwarded-For} header, a list of addresses, as maintained by nginx and most load balancers.
+     */
+    X_FORWARDED_FOR("X-Forwarded-For");
+
+    private final String headerName;
+
+    ForwardedHeader(String headerName) {
+        this.headerName = headerName;
+    }
+
+    /**
+     * @return the name of the HTTP header.
+     */
+    public String getHeaderName() {
+        return headerName;
+    }
+}
@@ -0,0 +1,38 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * {@link ClientKeyResolver} keying on the value of a request header, such as an API key or a tenant id.
+ * <p>
+ * The value is hashed into the reserved key range, so it never collides with an address. Requests without
+ * the header are keyed by their remote address, so that they are still limited per client.
+ * </p>
+ */
+public class HeaderClientKeyResolver implements ClientKeyResolver {
+
+    private final String header;
+
+    /**
+     * @param header the name of the header identifying the client.
+     */
+    public HeaderClientKeyResolver(String header) {
+        if (header == null || header.isBlank()) {
+            throw new IllegalArgumentException("A header name is required to key rate limits by header.");
+        }
+        this.header = header;
+    }
+
+    @Override
+    public ClientKey resolve(HttpServletRequest request, ClientKey key) {
+        String value = request.getHeader(header);
+        if (value == null || value.isEmpty()) {
+            return ClientAddress.parse(request.getRemoteAddr(), key);
+        }
+        return ClientAddress.hash(value, 0, value.length(), key);
+    }
+
+    public String getHeader() {
+        return header;
+    }
+}
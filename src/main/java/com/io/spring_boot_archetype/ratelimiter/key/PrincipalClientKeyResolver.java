@@ -0,0 +1,31 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.security.Principal;
+
+/**
+ * {@link ClientKeyResolver} keying on the name of the authenticated principal.
+ * <p>
+ * Spring Security exposes the authenticated user through {@link HttpServletRequest#getUserPrincipal()} once its
+ * filter chain has run, i.e. in aspect mode. Anonymous requests, and all requests in filter mode, which runs ahead
+ * of Spring Security, are keyed by their remote address.
+ * </p>
+ */
+public class PrincipalClientKeyResolver implements ClientKeyResolver {
+
+    /**
+     * Shared instance; the resolver is stateless.
+     */
+    public static final PrincipalClientKeyResolver INSTANCE = new PrincipalClientKeyResolver();
+
+    @Override
+    public ClientKey resolve(HttpServletRequest request, ClientKey key) {
+        Principal principal = request.getUserPrincipal();
+        String name = principal == null ? null : principal.getName();
+        if (name == null || name.isEmpty()) {
+            return ClientAddress.parse(request.getRemoteAddr(), key);
+        }
+        return ClientAddress.hash(name, 0, name.length(), key);
+    }
+}
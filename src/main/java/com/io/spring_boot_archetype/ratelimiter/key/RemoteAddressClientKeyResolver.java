@@ -0,0 +1,19 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * {@link ClientKeyResolver} keying on the address of the connected peer.
+ */
+public class RemoteAddressClientKeyResolver implements ClientKeyResolver {
+
+    /**
+     * Shared instance; the resolver is stateless.
+     */
+    public static final RemoteAddressClientKeyResolver INSTANCE = new RemoteAddressClientKeyResolver();
+
+    @Override
+    public ClientKey resolve(HttpServletRequest request, ClientKey key) {
+        return ClientAddress.parse(request.getRemoteAddr(), key);
+    }
+}
@@ -0,0 +1,85 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+import java.util.List;
+
+/**
+ * Set of address ranges, in CIDR notation, whose forwarding headers are trusted.
+ * <p>
+ * Ranges are held as 128-bit prefixes in the {@link ClientKey} layout, with IPv4 ranges in their IPv4-mapped form,
+ * so a membership test is a few mask-and-compare operations per range.
+ * </p>
+ */
+public final class TrustedProxies {
+
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] highMasks;
+    private final long[] lowMasks;
+
+    /**
+     * @param ranges addresses or CIDR ranges, e.g. {@code 10.0.0.0/8} or {@code fd00::/8}.
+     * @throws IllegalArgumentException if a range is not a valid address or prefix.
+     */
+    public TrustedProxies(List<String> ranges) {
+        int n = ranges.size();
+        this.highs = new long[n];
+        this.lows = new long[n];
+        this.highMasks = new long[n];
+        this.lowMasks = new long[n];
+        ClientKey key = new ClientKey();
+        for (int i = 0; i < n; i++) {
+            String range = ranges.get(i).trim();
+            int slash = range.indexOf('/');
+            int end = slash < 0 ? range.length() : slash;
+            if (!ClientAddress.parseLiteral(range, 0, end, key)) {
+                throw new IllegalArgumentException("Invalid trusted proxy address: " + range + ".");
+            }
+            boolean ipv4 = range.indexOf(':') < 0;
+            int maxBits = ipv4 ? 32 : 128;
+            int bits = slash < 0 ? maxBits : parsePrefixLength(range, slash + 1, maxBits);
+            // IPv4 ranges live in the last 32 bits of the IPv4-mapped space.
+            int prefix = ipv4 ? bits + 96 : bits;
+            highMasks[i] = mask(Math.min(prefix, 64));
+            lowMasks[i] = mask(Math.max(prefix - 64, 0));
+            highs[i] = key.getHigh() & highMasks[i];
+            lows[i] = key.getLow() & lowMasks[i];
+        }
+    }
+
+    /**
+     * @return whether the address held in the key lies within one of the ranges.
+     */
+    public boolean contains(ClientKey key) {
+        long high = key.getHigh();
+        long low = key.getLow();
+        for (int i = 0; i < highs.length; i++) {
+            if ((high & highMasks[i]) == highs[i] && (low & lowMasks[i]) == lows[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether no range is configured, in which case forwarding headers are never trusted.
+     */
+    public boolean isEmpty() {
+        return highs.length == 0;
+    }
+
+    private static long mask(int bits) {
+        return bits == 0 ? 0 : -1L << (64 - bits);
+    }
+
+    private static int parsePrefixLength(String range, int from, int maxBits) {
+        try {
+            int bits = Integer.parseInt(range.substring(from));
+            if (bits >= 0 && bits <= maxBits) {
+                return bits;
+            }
+        } catch (NumberFormatException ignored) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException("Invalid trusted proxy prefix length: " + range + ".");
+    }
+}
@@ -0,0 +1,74 @@
+package com.io.spring_boot_archetype.ratelimiter.override;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * A rule overriding, at runtime, the limit of an endpoint, of a client, or of a client on an endpoint.
+ * <p>
+ * Values left null keep the ones otherwise in effect: for an endpoint rule those of the annotations, for a client
+ * rule those of the endpoint, including any endpoint rule. When several rules match, only the most specific one
+ * applies: a rule for both the endpoint and the client over a rule for the client alone, over a rule for the endpoint
+ * alone, and a rule for a single tier over a rule for all tiers.
+ * </p>
+ *
+ * @param endpoint the endpoint's name as reported in rejections (e.g. {@code DemoController.hello()}),
+ *                 or null for all endpoints.
+ * @param tier     the index of the endpoint's {@code @RateLimit} in declaration order, or null for all tiers.
+ * @param client   the client's key as text: an IP address, or the value of the header, API key or principal the
+ *                 endpoint is keyed by; null for all clients.
+ * @param enabled  whether the matching limits apply; false lifts an endpoint's limit, or exempts a client from it.
+ * @param limit    the maximum number of requests within the duration.
+ * @param duration the duration of the limit.
+ */
+public record RateLimitOverride(String endpoint,
+                                Integer tier,
+                                String client,
+                                Boolean enabled,
+                                Integer limit,
+                                Duration duration) {
+
+    public RateLimitOverride {
+        if (endpoint == null && client == null) {
+            throw new IllegalArgumentException("A rate limit override needs an endpoint, a client, or both.");
+        }
+        if (tier != null && (tier < 0 || endpoint == null)) {
+            throw new IllegalArgumentException("Invalid tier " + tier + ": expected a non-negative index"
+                    + " of a given endpoint's limits.");
+        }
+        if (tier != null && enabled != null && client == null) {
+            throw new IllegalArgumentException("An endpoint's limit is enabled or disabled as a whole, not per tier.");
+        }
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("Invalid limit: " + limit + ".");
+        }
+        if (duration != null && (duration.isNegative() || duration.isZero())) {
+            throw new IllegalArgumentException("Invalid duration: " + duration + ".");
+        }
+    }
+
+    /**
+     * Checks whether this rule targets the same endpoint, tier and client as another, i.e. replaces it.
+     *
+     * @param other the other rule.
+     * @return true if both rules have the same target.
+     */
+    public boolean sameTarget(RateLimitOverride other) {
+        return Objects.equals(endpoint, other.endpoint) && Objects.equals(tier, other.tier)
+                && Objects.equals(client, other.client);
+    }
+
+    /**
+     * Ranks how specific the rule is for a client on a given tier; higher ranks win.
+     */
+    int specificity() {
+        return (client != null ? 4 : 0) + (endpoint != null ? 2 : 0) + (tier != null ? 1 : 0);
+    }
+
+    /**
+     * Checks whether the rule applies to the given tier of the given endpoint, ignoring the client.
+     */
+    boolean matches(String endpointName, int tierIndex) {
+        return (endpoint == null || endpoint.equals(endpointName)) && (tier == null || tier == tierIndex);
+    }
+}
@@ -0,0 +1,234 @@
+package com.io.spring_boot_archetype.ratelimiter.override;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientAddress;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the rate limit overrides in effect.
+ * <p>
+ * A snapshot is compiled once from its rules and swapped in as a whole by
+ * {@link com.io.spring_boot_archetype.ratelimiter.RateLimitConfigRegistry#setOverrides(RateLimitOverrides)},
+ * so requests read it with a single volatile load and never see a partial update. Endpoint rules are applied to an
+ * endpoint's configuration once per snapshot, and client rules are indexed by the 128-bit key their client text
+ * resolves to, in an open-addressing table probed with the key's two halves. Configurations derived for a client
+ * are cached in an array indexed by the endpoint tier's ordinal, so a request of an overridden client costs a probe
+ * and an array read, and does not allocate once warm.
+ * </p>
+ */
+public final class RateLimitOverrides {
+
+    /**
+     * The snapshot without any rule.
+     */
+    public static final RateLimitOverrides NONE = new RateLimitOverrides(List.of());
+
+    private final List<RateLimitOverride> rules;
+    private final RateLimitOverride[] endpointRules;
+    // Open-addressing table of the client rules: keys hold the high and low halves of each client key.
+    private final long[] clientKeys;
+    private final ClientRules[] clientRules;
+    private final int clientMask;
+
+    /**
+     * @param rules the override rules; at most one per target.
+     */
+    public RateLimitOverrides(List<RateLimitOverride> rules) {
+        this.rules = List.copyOf(rules);
+        List<RateLimitOverride> endpoints = new ArrayList<>();
+        Map<ClientId, List<RateLimitOverride>> clients = new HashMap<>();
+        ClientKey key = new ClientKey();
+        for (RateLimitOverride rule : this.rules) {
+            if (rule.client() == null) {
+                endpoints.add(rule);
+                continue;
+            }
+            String client = rule.client();
+            if (!ClientAddress.parseLiteral(client, 0, client.length(), key)) {
+                ClientAddress.hash(client, 0, client.length(), key);
+            }
+            clients.computeIfAbsent(new ClientId(key.getHigh(), key.getLow()), k -> new ArrayList<>()).add(rule);
+        }
+        this.endpointRules = endpoints.toArray(new RateLimitOverride[0]);
+        int capacity = clients.isEmpty() ? 0 : Integer.highestOneBit(Math.max(4, clients.size() * 2) - 1) << 1;
+        this.clientKeys = new long[capacity * 2];
+        this.clientRules = new ClientRules[capacity];
+        this.clientMask = capacity - 1;
+        clients.forEach((id, list) -> {
+            int i = slot(id.high(), id.low());
+            clientKeys[2 * i] = id.high();
+            clientKeys[2 * i + 1] = id.low();
+            clientRules[i] = new ClientRules(list.toArray(new RateLimitOverride[0]));
+        });
+    }
+
+    /**
+     * @return the rules of this snapshot.
+     */
+    public List<RateLimitOverride> getRules() {
+        return rules;
+    }
+
+    /**
+     * Applies the endpoint rules to all tiers of an endpoint.
+     *
+     * @param base the endpoint's configuration resolved from its annotations, i.e. its first tier.
+     * @return the overridden configuration, or {@code base} itself if no rule applies; endpoints that are not rate
+     * limited are never overridden.
+     */
+    public EffectiveRateLimitConfig apply(EffectiveRateLimitConfig base) {
+        if (endpointRules.length == 0 || !base.enabled()) {
+            return base;
+        }
+        // Rules for all tiers are the only ones allowed to enable or disable the endpoint.
+        RateLimitOverride endpointWide = mostSpecific(endpointRules, base.endpoint(), -1);
+        boolean enabled = endpointWide == null || endpointWide.enabled() == null || endpointWide.enabled();
+        return applyFrom(base, 0, enabled);
+    }
+
+    private EffectiveRateLimitConfig applyFrom(EffectiveRateLimitConfig tier, int index, boolean enabled) {
+        if (tier == null) {
+            return null;
+        }
+        EffectiveRateLimitConfig next = applyFrom(tier.next(), index + 1, enabled);
+        RateLimitOverride rule = mostSpecific(endpointRules, tier.endpoint(), index);
+        if (rule == null && enabled && next == tier.next()) {
+            return tier;
+        }
+        return override(tier, rule, enabled, next);
+    }
+
+    /**
+     * Returns the configuration a tier is evaluated with for a client, given the client's key for that tier.
+     *
+     * @param tier  the tier, as overridden by {@link #apply(EffectiveRateLimitConfig)}.
+     * @param index the tier's index in the endpoint's chain.
+     * @param high  the upper 64 bits of the client key.
+     * @param low   the lower 64 bits of the client key.
+     * @return the configuration for the client, or {@code tier} itself if no client rule applies; a disabled
+     * configuration exempts the client from the tier.
+     */
+    public EffectiveRateLimitConfig forClient(EffectiveRateLimitConfig tier, int index, long high, long low) {
+        if (clientRules.length == 0) {
+            return tier;
+        }
+        ClientRules client = clientRules[slot(high, low)];
+        return client == null ? tier : client.variant(tier, index);
+    }
+
+    /**
+     * Returns the slot holding the client key, or the empty slot where it would be inserted.
+     */
+    private int slot(long high, long low) {
+        long h = high * 0x9E3779B97F4A7C15L + low;
+        h ^= h >>> 32;
+        for (int i = (int) h & clientMask; ; i = (i + 1) & clientMask) {
+            if (clientRules[i] == null || (clientKeys[2 * i] == high && clientKeys[2 * i + 1] == low)) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Creates a limiter for every configuration the rules produce for an endpoint, so that limits the algorithms
+     * cannot represent are rejected before the snapshot is swapped in rather than on the next request.
+     *
+     * @param base the endpoint's configuration resolved from its annotations.
+     * @throws IllegalArgumentException if a rule yields an invalid limit.
+     */
+    public void validate(EffectiveRateLimitConfig base) {
+        int index = 0;
+        for (EffectiveRateLimitConfig tier = apply(base); tier != null && tier.enabled(); tier = tier.next(), index++) {
+            tier.newLimiter();
+            for (ClientRules client : clientRules) {
+                if (client == null) {
+                    continue;
+                }
+                EffectiveRateLimitConfig variant = client.derive(tier, index);
+                if (variant.enabled()) {
+                    variant.newLimiter();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the most specific of the rules matching the given tier, or null if none does.
+     * An index of -1 only matches rules for all tiers.
+     */
+    private static RateLimitOverride mostSpecific(RateLimitOverride[] candidates, String endpoint, int index) {
+        RateLimitOverride best = null;
+        for (RateLimitOverride rule : candidates) {
+            if (rule.matches(endpoint, index) && (best == null || rule.specificity() > best.specificity())) {
+                best = rule;
+            }
+        }
+        return best;
+    }
+
+    private static EffectiveRateLimitConfig override(EffectiveRateLimitConfig tier, RateLimitOverride rule,
+                                                     boolean enabled, EffectiveRateLimitConfig next) {
+        return new EffectiveRateLimitConfig(tier.endpointId(), tier.endpointKey(), tier.endpoint(),
+                enabled,
+                rule != null && rule.limit() != null ? rule.limit() : tier.capacity(),
+                rule != null && rule.duration() != null ? rule.duration().toMillis() : tier.duration(),
+                tier.algorithm(),
+                tier.tolerance(),
+                tier.keyResolver(),
+                next);
+    }
+
+    private record ClientId(long high, long low) {
+    }
+
+    /**
+     * Rules of one client, with the configurations derived from them per endpoint tier.
+     */
+    private static final class ClientRules {
+        private final RateLimitOverride[] rules;
+        // Indexed by endpoint tier ordinal. Variants are immutable, so racy reads and writes are safe; a write lost
+        // to a concurrent resize is recomputed on the next request.
+        private volatile Variant[] variants = new Variant[16];
+
+        ClientRules(RateLimitOverride[] rules) {
+            this.rules = rules;
+        }
+
+        EffectiveRateLimitConfig variant(EffectiveRateLimitConfig tier, int index) {
+            int id = tier.endpointId();
+            if (id < 0) {
+                return derive(tier, index);
+            }
+            Variant[] current = variants;
+            Variant variant = id < current.length ? current[id] : null;
+            // Right after a swap, threads may still pass the tier of the previous snapshot;
+            // the cache follows the latest.
+            if (variant == null || variant.source != tier) {
+                variant = new Variant(tier, derive(tier, index));
+                if (id >= current.length) {
+                    current = Arrays.copyOf(current, Math.max(id + 1, current.length * 2));
+                    variants = current;
+                }
+                current[id] = variant;
+            }
+            return variant.config;
+        }
+
+        EffectiveRateLimitConfig derive(EffectiveRateLimitConfig tier, int index) {
+            RateLimitOverride rule = mostSpecific(rules, tier.endpoint(), index);
+            if (rule == null) {
+                return tier;
+            }
+            return override(tier, rule, rule.enabled() == null || rule.enabled(), tier.next());
+        }
+    }
+
+    private record Variant(EffectiveRateLimitConfig source, EffectiveRateLimitConfig config) {
+    }
+}
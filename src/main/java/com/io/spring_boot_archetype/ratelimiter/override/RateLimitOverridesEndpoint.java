@@ -0,0 +1,122 @@
+package com.io.spring_boot_archetype.ratelimiter.override;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitConfigRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Actuator endpoint ({@code /actuator/ratelimits}) changing rate limits at runtime, e.g. to raise a limit during
+ * an incident without a redeploy.
+ * <p>
+ * {@code GET} lists the effective limits of the endpoints resolved so far and the override rules, {@code POST}
+ * adds a rule or replaces the one with the same endpoint, tier and client, and {@code DELETE} removes the rule with
+ * the given target, or all rules when none is given. Every change builds a new immutable
+ * {@link RateLimitOverrides} snapshot and swaps it in, so requests never observe a partial update.
+ * Overrides are kept in memory only and are lost on restart.
+ * </p>
+ */
+@Slf4j
+@Component
+@Endpoint(id = "ratelimits")
+@RequiredArgsConstructor
+public class RateLimitOverridesEndpoint {
+
+    private final RateLimitConfigRegistry configRegistry;
+
+    /**
+     * @return the effective limits and the override rules.
+     */
+    @ReadOperation
+    public RateLimitsDescriptor rateLimits() {
+        List<LimitDescriptor> limits = new ArrayList<>();
+        for (EffectiveRateLimitConfig config : configRegistry.getConfigs()) {
+            int index = 0;
+            for (EffectiveRateLimitConfig tier = config; tier != null; tier = tier.next(), index++) {
+                limits.add(new LimitDescriptor(tier.endpoint(), index, tier.enabled(), tier.capacity(),
+                        Duration.ofMillis(tier.duration()), tier.algorithm().name()));
+            }
+        }
+        return new RateLimitsDescriptor(limits, configRegistry.getOverrides().getRules());
+    }
+
+    /**
+     * Adds an override rule, replacing the one with the same target; see {@link RateLimitOverride}.
+     *
+     * @return the override rules now in effect.
+     */
+    @WriteOperation
+    public synchronized List<RateLimitOverride> override(@Nullable String endpoint, @Nullable Integer tier,
+                                                         @Nullable String client, @Nullable Boolean enabled,
+                                                         @Nullable Integer limit, @Nullable Duration duration) {
+        RateLimitOverride rule = validated(() -> new RateLimitOverride(endpoint, tier, client, enabled, limit,
+                duration));
+        List<RateLimitOverride> rules = new ArrayList<>(configRegistry.getOverrides().getRules());
+        rules.removeIf(rule::sameTarget);
+        rules.add(rule);
+        swap(rules);
+        log.info("Rate limit override set: {}", rule);
+        return rules;
+    }
+
+    /**
+     * Removes the override rule with the given target, or all rules if no target is given.
+     *
+     * @return the override rules now in effect.
+     */
+    @DeleteOperation
+    public synchronized List<RateLimitOverride> clear(@Nullable String endpoint, @Nullable Integer tier,
+                                                      @Nullable String client) {
+        List<RateLimitOverride> rules = new ArrayList<>(configRegistry.getOverrides().getRules());
+        if (endpoint == null && tier == null && client == null) {
+            rules.clear();
+        } else {
+            RateLimitOverride target = validated(() -> new RateLimitOverride(endpoint, tier, client,
+                    null, null, null));
+            rules.removeIf(target::sameTarget);
+        }
+        swap(rules);
+        log.info("Rate limit overrides cleared for endpoint {}, tier {}, client {}", endpoint, tier, client);
+        return rules;
+    }
+
+    private void swap(List<RateLimitOverride> rules) {
+        validated(() -> {
+            configRegistry.setOverrides(new RateLimitOverrides(rules));
+            return null;
+        });
+    }
+
+    private static <T> T validated(Supplier<T> action) {
+        try {
+            return action.get();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    /**
+     * The effective limits and the override rules.
+     */
+    public record RateLimitsDescriptor(List<LimitDescriptor> limits, List<RateLimitOverride> overrides) {
+    }
+
+    /**
+     * The effective limit of one tier of an endpoint.
+     */
+    public record LimitDescriptor(String endpoint, int tier, boolean enabled, int limit, Duration duration,
+                                  String algorithm) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.io.spring_boot_archetype.ratelimiter.shedding;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimitExceededException;
+
+/**
+ * Rejection of a request shed by the {@link LoadSheddingFilter}.
+ * <p>
+ * Shedding is not tied to an endpoint, so a single instance is shared; its pre-serialized 503 body is written by
+ * the filter, and it is passed to the rejection logger as the sample of the shed requests.
+ * </p>
+ */
+public class LoadShedException extends RateLimitExceededException {
+
+    /**
+     * The shared rejection.
+     */
+    public static final LoadShedException INSTANCE = new LoadShedException();
+
+    private LoadShedException() {
+        super("Service overloaded, request shed", 503, "Service Unavailable");
+    }
+}
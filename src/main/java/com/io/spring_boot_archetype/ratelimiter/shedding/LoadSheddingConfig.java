@@ -0,0 +1,57 @@
+package com.io.spring_boot_archetype.ratelimiter.shedding;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimitProperties;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitRejectionLogger;
+import com.io.spring_boot_archetype.ratelimiter.filter.RateLimitRouteTable;
+import com.io.spring_boot_archetype.ratelimiter.key.TrustedProxies;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of priority-aware load shedding, enabled with {@code rate-limit.shedding.enabled: true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "rate-limit.shedding", name = "enabled", havingValue = "true")
+public class LoadSheddingConfig {
+
+    /**
+     * Creates the load signal shared by all requests.
+     *
+     * @param rateLimitProperties the global rate limiting properties.
+     * @return the LoadSignal bean.
+     */
+    @Bean
+    public LoadSignal loadSignal(RateLimitProperties rateLimitProperties) {
+        RateLimitProperties.Shedding shedding = rateLimitProperties.getShedding();
+        return new LoadSignal(shedding.getMaxInFlight(), shedding.getMaxCpuLoad(),
+                shedding.getMaxQueueTime().toNanos(), LoadSignal.systemCpuLoad());
+    }
+
+    /**
+     * Registers the load shedding filter at {@link LoadSheddingFilter#ORDER}, right behind the audit filter.
+     *
+     * @param routeTable          the table resolving requests to their endpoint's priority.
+     * @param loadSignal          the load signal.
+     * @param rejectionLogger     the logger counting rejected requests.
+     * @param rateLimitProperties the global rate limiting properties.
+     * @return the filter registration.
+     */
+    @Bean
+    public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(RateLimitRouteTable routeTable,
+                                                                         LoadSignal loadSignal,
+                                                                         RateLimitRejectionLogger rejectionLogger,
+                                                                         RateLimitProperties rateLimitProperties) {
+        RateLimitProperties.Shedding shedding = rateLimitProperties.getShedding();
+        String header = shedding.getRequestStartHeader();
+        TrustedProxies trustedProxies = new TrustedProxies(rateLimitProperties.getKey().getTrustedProxies());
+        // Without trusted proxies the header could only come from clients, so it is not read at all.
+        boolean readHeader = header != null && !header.isEmpty() && !trustedProxies.isEmpty();
+        FilterRegistrationBean<LoadSheddingFilter> registration = new FilterRegistrationBean<>(
+                new LoadSheddingFilter(routeTable, loadSignal, rejectionLogger, shedding.getDefaultPriority(),
+                        readHeader ? header : null, trustedProxies));
+        registration.setOrder(LoadSheddingFilter.ORDER);
+        return registration;
+    }
+}
@@ -0,0 +1,158 @@
+package com.io.spring_boot_archetype.ratelimiter.shedding;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimitRejectionLogger;
+import com.io.spring_boot_archetype.ratelimiter.filter.RateLimitFilter;
+import com.io.spring_boot_archetype.ratelimiter.filter.RateLimitRouteTable;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientAddress;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKey;
+import com.io.spring_boot_archetype.ratelimiter.key.TrustedProxies;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Servlet filter shedding requests by priority when the instance is overloaded, before they reach the rate limit
+ * filter, Spring Security or the {@code DispatcherServlet}. It runs behind the audit filter, so shed requests are
+ * audited.
+ * <p>
+ * While the {@link LoadSignal} is below the level at which {@link RequestPriority#LOW} traffic starts being shed,
+ * a request costs an in-flight increment and a few volatile reads. Above it, the request's priority is looked up in
+ * the {@link RateLimitRouteTable} and the request is shed with the probability of its priority, so low priority
+ * traffic thins out first and critical traffic always passes. Shedding is probabilistic rather than a hard cut-off,
+ * which keeps the load hovering around the thresholds instead of oscillating across them.
+ * </p>
+ * <p>
+ * A shed request is answered with a 503, a {@code Retry-After} header and the pre-serialized body of
+ * {@link LoadShedException}, and does not count as in flight.
+ * </p>
+ * <p>
+ * The time a request spent queued ahead of the application is only taken from the request start header of a
+ * trusted proxy: any client could otherwise report an arbitrarily old start and shed everyone's traffic.
+ * </p>
+ */
+@RequiredArgsConstructor
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    /**
+     * Order of the filter: ahead of the rate limit filter, so that shed requests do not consume rate limit tokens.
+     */
+    public static final int ORDER = RateLimitFilter.ORDER - 5;
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+    // Reusable per-thread holder for the parsed remote address.
+    private static final ThreadLocal<ClientKey> REMOTE_ADDRESS = ThreadLocal.withInitial(ClientKey::new);
+
+    private final RateLimitRouteTable routeTable;
+    private final LoadSignal loadSignal;
+    private final RateLimitRejectionLogger rejectionLogger;
+    private final RequestPriority defaultPriority;
+    private final String requestStartHeader;
+    private final TrustedProxies trustedProxies;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (requestStartHeader != null) {
+            long startMicros = parseRequestStart(request.getHeader(requestStartHeader));
+            if (startMicros > 0 && isFromTrustedProxy(request)) {
+                loadSignal.recordQueueTime((System.currentTimeMillis() * 1000 - startMicros) * 1000);
+            }
+        }
+
+        double load = loadSignal.load();
+        if (RequestPriority.LOW.shedProbability(load) > 0
+                && ThreadLocalRandom.current().nextDouble() < priorityOf(request).shedProbability(load)) {
+            LoadShedException rejection = LoadShedException.INSTANCE;
+            rejectionLogger.record(rejection);
+            byte[] body = rejection.getBody();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+            return;
+        }
+
+        loadSignal.enter();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            loadSignal.exit();
+        }
+    }
+
+    private boolean isFromTrustedProxy(HttpServletRequest request) {
+        return trustedProxies.contains(ClientAddress.parse(request.getRemoteAddr(), REMOTE_ADDRESS.get()));
+    }
+
+    private RequestPriority priorityOf(HttpServletRequest request) {
+        RateLimitRouteTable.Route route = routeTable.find(request);
+        return route != null && route.getPriority() != null ? route.getPriority() : defaultPriority;
+    }
+
+    /**
+     * Parses the time at which a proxy received the request, as recorded in headers such as {@code X-Request-Start}.
+     * <p>
+     * Both the bare form and the {@code t=} form are accepted. A value with a fraction is in seconds (nginx's
+     * {@code $msec}); otherwise the unit is inferred from the magnitude, so seconds, milliseconds, microseconds and
+     * nanoseconds since the epoch are all understood.
+     * </p>
+     *
+     * @param value the header value, or null.
+     * @return the time in microseconds since the epoch, or -1 if the value is absent or malformed.
+     */
+    static long parseRequestStart(String value) {
+        if (value == null) {
+            return -1;
+        }
+        int i = value.startsWith("t=") ? 2 : 0;
+        long whole = 0;
+        int digits = 0;
+        for (; i < value.length() && value.charAt(i) != '.'; i++, digits++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9' || whole > (Long.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            whole = whole * 10 + (c - '0');
+        }
+        if (digits == 0) {
+            return -1;
+        }
+        if (i < value.length()) {
+            // Seconds with a fraction; only microseconds are kept.
+            if (whole >= Long.MAX_VALUE / 1_000_000) {
+                return -1;
+            }
+            long micros = 0;
+            int scale = 100_000;
+            for (i++; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                micros += (c - '0') * scale;
+                scale /= 10;
+            }
+            return whole * 1_000_000 + micros;
+        }
+        if (whole < 100_000_000_000L) {
+            return whole * 1_000_000;
+        } else if (whole < 100_000_000_000_000L) {
+            return whole * 1000;
+        } else if (whole < 100_000_000_000_000_000L) {
+            return whole;
+        } else {
+            return whole / 1000;
+        }
+    }
+}
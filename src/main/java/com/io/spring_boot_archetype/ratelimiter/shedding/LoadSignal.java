@@ -0,0 +1,133 @@
+package com.io.spring_boot_archetype.ratelimiter.shedding;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Cheap, global estimate of how loaded the instance is, combining three signals.
+ * <ul>
+ *     <li>The number of requests in progress, maintained by the {@link LoadSheddingFilter}.</li>
+ *     <li>The system CPU load, sampled at most every {@value #CPU_SAMPLE_INTERVAL_MILLIS} ms by the first request
+ *     to notice the previous sample is stale, since reading it costs a system call.</li>
+ *     <li>The time requests spent queued ahead of the application, as an exponentially weighted moving average of
+ *     the samples reported by a proxy. It is ignored when no sample arrived for a second, so that it cannot stay
+ *     stuck at a high value once the proxy stops reporting.</li>
+ * </ul>
+ * Each signal is divided by its configured maximum and the load is the highest of the three, so 1 means that at
+ * least one resource is at capacity. Updates are racy reads and writes of volatile fields: a lost sample only makes
+ * the estimate marginally less smooth, and keeps requests from contending on it.
+ */
+public class LoadSignal implements MeterBinder {
+
+    private static final long CPU_SAMPLE_INTERVAL_MILLIS = 250;
+    private static final long CPU_SAMPLE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(CPU_SAMPLE_INTERVAL_MILLIS);
+    private static final long QUEUE_SAMPLE_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double QUEUE_SMOOTHING = 0.1;
+    // A single sample, e.g. from a skewed proxy clock, moves the average by at most this many maximum queue times.
+    private static final long MAX_QUEUE_SAMPLE_FACTOR = 10;
+
+    private final int maxInFlight;
+    private final double maxCpuLoad;
+    private final long maxQueueNanos;
+    private final DoubleSupplier cpuLoad;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong nextCpuSampleAt = new AtomicLong(System.nanoTime());
+    private volatile double cpu;
+    private volatile double queueNanos;
+    private volatile long lastQueueSampleAt = System.nanoTime() - QUEUE_SAMPLE_TTL_NANOS;
+
+    /**
+     * @param maxInFlight   requests in progress at which the load reaches 1.
+     * @param maxCpuLoad    CPU load, between 0 and 1, at which the load reaches 1.
+     * @param maxQueueNanos queue time in nanoseconds at which the load reaches 1.
+     * @param cpuLoad       supplier of the current CPU load between 0 and 1, negative if unavailable.
+     */
+    public LoadSignal(int maxInFlight, double maxCpuLoad, long maxQueueNanos, DoubleSupplier cpuLoad) {
+        if (maxInFlight <= 0 || maxCpuLoad <= 0 || maxQueueNanos <= 0) {
+            throw new IllegalArgumentException("Invalid load shedding limits: max in flight " + maxInFlight
+                    + ", max CPU load " + maxCpuLoad + ", max queue time " + maxQueueNanos + " ns.");
+        }
+        this.maxInFlight = maxInFlight;
+        this.maxCpuLoad = maxCpuLoad;
+        this.maxQueueNanos = maxQueueNanos;
+        this.cpuLoad = cpuLoad;
+    }
+
+    /**
+     * @return a supplier of the system CPU load, or of -1 if the JVM does not expose it.
+     */
+    public static DoubleSupplier systemCpuLoad() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs) {
+            return sunOs::getCpuLoad;
+        }
+        return () -> -1;
+    }
+
+    /**
+     * Records that a request has started being processed.
+     */
+    public void enter() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Records that a request has been processed.
+     */
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Records the time a request spent queued before reaching the application.
+     *
+     * @param nanos the queue time in nanoseconds; negative values, due to clock skew, count as zero, and values
+     *              above {@value #MAX_QUEUE_SAMPLE_FACTOR} times the maximum queue time count as that.
+     */
+    public void recordQueueTime(long nanos) {
+        double current = queueNanos;
+        long sample = Math.min(Math.max(0, nanos), MAX_QUEUE_SAMPLE_FACTOR * maxQueueNanos);
+        queueNanos = current + (sample - current) * QUEUE_SMOOTHING;
+        lastQueueSampleAt = System.nanoTime();
+    }
+
+    /**
+     * Computes the current load.
+     *
+     * @return the load, 1 meaning that at least one signal is at its maximum; it may exceed 1.
+     */
+    public double load() {
+        long now = System.nanoTime();
+        long next = nextCpuSampleAt.get();
+        if (now - next >= 0 && nextCpuSampleAt.compareAndSet(next, now + CPU_SAMPLE_INTERVAL_NANOS)) {
+            cpu = Math.max(0, cpuLoad.getAsDouble());
+        }
+        double queue = now - lastQueueSampleAt < QUEUE_SAMPLE_TTL_NANOS ? queueNanos / maxQueueNanos : 0;
+        return Math.max(Math.max((double) inFlight.get() / maxInFlight, cpu / maxCpuLoad), queue);
+    }
+
+    /**
+     * @return the number of requests in progress.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ratelimiter.shedding.load", this, LoadSignal::load)
+                .description("Estimated load of the instance, 1 meaning at capacity")
+                .register(registry);
+        Gauge.builder("ratelimiter.shedding.in.flight", inFlight, AtomicInteger::get)
+                .description("Number of requests in progress")
+                .register(registry);
+    }
+}
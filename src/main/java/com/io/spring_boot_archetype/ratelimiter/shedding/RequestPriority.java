@@ -0,0 +1,46 @@
+package com.io.spring_boot_archetype.ratelimiter.shedding;
+
+/**
+ * Priority of an endpoint's traffic under overload, from the last to be shed to the first.
+ * <p>
+ * Each priority starts being shed at its own load level, see {@link LoadSignal#load()}, with a probability rising
+ * linearly to one over the next {@value #RAMP} of load. Low priority traffic is thus mostly gone before normal
+ * traffic is touched, and critical traffic is never shed.
+ * </p>
+ */
+public enum RequestPriority {
+    /**
+     * Never shed, e.g. health checks or payment callbacks.
+     */
+    CRITICAL(Double.POSITIVE_INFINITY),
+    /**
+     * Shed from 90% load, e.g. authenticated user actions.
+     */
+    HIGH(0.9),
+    /**
+     * Shed from 80% load; the default.
+     */
+    NORMAL(0.8),
+    /**
+     * Shed from 70% load, e.g. anonymous or prefetch endpoints.
+     */
+    LOW(0.7);
+
+    static final double RAMP = 0.2;
+
+    private final double shedFrom;
+
+    RequestPriority(double shedFrom) {
+        this.shedFrom = shedFrom;
+    }
+
+    /**
+     * Computes the probability of shedding a request of this priority.
+     *
+     * @param load the current load, 1 meaning at capacity.
+     * @return the probability, between 0 and 1.
+     */
+    public double shedProbability(double load) {
+        return Math.max(0, Math.min(1, (load - shedFrom) / RAMP));
+    }
+}
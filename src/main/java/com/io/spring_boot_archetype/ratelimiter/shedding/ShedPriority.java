@@ -0,0 +1,22 @@
+package com.io.spring_boot_archetype.ratelimiter.shedding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation assigning the priority at which a controller's or method's requests are shed under overload.
+ * <p>
+ * When placed on a class, it applies to all endpoints in that class; a method-level annotation overrides it.
+ * Endpoints without the annotation have the priority configured in {@code rate-limit.shedding.default-priority}.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface ShedPriority {
+    /**
+     * The priority of the endpoint's requests.
+     */
+    RequestPriority value();
+}
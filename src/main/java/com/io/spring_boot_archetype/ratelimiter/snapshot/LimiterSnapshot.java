@@ -0,0 +1,119 @@
+package com.io.spring_boot_archetype.ratelimiter.snapshot;
+
+import com.io.spring_boot_archetype.ratelimiter.store.LimiterStore;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary file format of a limiter state snapshot, written and read through memory-mapped buffers.
+ * <p>
+ * Layout, little-endian: a {@value #HEADER_BYTES}-byte header of the magic number {@code RLSN}, the format version,
+ * the wall-clock time the snapshot was taken at (epoch milliseconds) and the number of entries, followed by
+ * fixed-size {@value #ENTRY_BYTES}-byte entries of the endpoint's stable key, the two halves of the client key,
+ * the limiter's utilization (float) and the endpoint's duration in milliseconds (int).
+ * </p>
+ * <p>
+ * Limiters are saved by {@link com.io.spring_boot_archetype.ratelimiter.RateLimiter#utilization() utilization}
+ * rather than by their internal state, so that the format does not depend on the algorithm nor on its clock, and
+ * a restart with a changed limit restores the same share of the quota. Endpoints are identified by their stable key,
+ * as their ordinals are only valid within one JVM.
+ * </p>
+ */
+public final class LimiterSnapshot {
+
+    static final int MAGIC = 0x4E534C52; // "RLSN" in little-endian order
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 24;
+    static final int ENTRY_BYTES = 32;
+
+    private LimiterSnapshot() {
+    }
+
+    /**
+     * Writes the state of the store's limiters that are in use to a file, replacing it atomically.
+     *
+     * @param store the store.
+     * @param path  the snapshot file.
+     * @return the number of entries written, or -1 if the store cannot be snapshot.
+     * @throws IOException if the file cannot be written.
+     */
+    public static long write(LimiterStore store, Path path) throws IOException {
+        long[] count = new long[1];
+        if (!store.forEach((config, high, low, limiter) -> count[0]++)) {
+            return -1;
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        long written;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_BYTES + count[0] * ENTRY_BYTES);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis()).putLong(0);
+            store.forEach((config, high, low, limiter) -> {
+                double utilization = limiter.utilization();
+                // Idle limiters restore to a fresh one anyway; a limiter created since counting does not fit.
+                if (utilization > 0 && buffer.remaining() >= ENTRY_BYTES) {
+                    buffer.putLong(config.endpointKey()).putLong(high).putLong(low)
+                            .putFloat((float) utilization)
+                            .putInt((int) Math.min(Integer.MAX_VALUE, config.duration()));
+                }
+            });
+            written = (buffer.position() - HEADER_BYTES) / ENTRY_BYTES;
+            buffer.putLong(16, written);
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return written;
+    }
+
+    /**
+     * Reads a snapshot, dropping the entries whose state has fully recovered since it was taken.
+     *
+     * @param path the snapshot file.
+     * @return the entries still relevant.
+     * @throws IOException if the file cannot be read or is not a snapshot of a supported version.
+     */
+    public static RestoredLimiters read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Truncated limiter snapshot " + path + ".");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            int magic = buffer.getInt();
+            int version = buffer.getInt();
+            if (magic != MAGIC || version != VERSION) {
+                throw new IOException("Unsupported limiter snapshot " + path + ": magic " + Integer.toHexString(magic)
+                        + ", version " + version + ".");
+            }
+            long savedAt = buffer.getLong();
+            long count = buffer.getLong();
+            if (count < 0 || count > (size - HEADER_BYTES) / ENTRY_BYTES) {
+                throw new IOException("Truncated limiter snapshot " + path + ": " + count + " entries expected.");
+            }
+            // Time passed since the snapshot, during which every limiter has been recovering.
+            long downtime = Math.max(0, System.currentTimeMillis() - savedAt);
+            RestoredLimiters restored = new RestoredLimiters((int) count);
+            for (long i = 0; i < count; i++) {
+                long endpointKey = buffer.getLong();
+                long high = buffer.getLong();
+                long low = buffer.getLong();
+                float utilization = buffer.getFloat();
+                int duration = buffer.getInt();
+                if (duration > 0) {
+                    restored.add(endpointKey, high, low, utilization - (double) downtime / duration, duration);
+                }
+            }
+            return restored;
+        }
+    }
+}
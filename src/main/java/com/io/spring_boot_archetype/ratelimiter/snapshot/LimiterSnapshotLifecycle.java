@@ -0,0 +1,98 @@
+package com.io.spring_boot_archetype.ratelimiter.snapshot;
+
+import com.io.spring_boot_archetype.LifecyclePhases;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitProperties;
+import com.io.spring_boot_archetype.ratelimiter.store.LimiterStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Restores limiter state from the snapshot file at startup and writes it back at shutdown,
+ * enabled with {@code rate-limit.snapshot.enabled: true}.
+ * <p>
+ * The snapshot is written in a lifecycle phase after the graceful shutdown of the web server has drained
+ * in-flight requests, so that their decisions are included, and within the same
+ * {@code timeout-per-shutdown-phase}. A missing or unreadable file only means that limits start afresh.
+ * Only the heap store keeps the client keys needed to identify its limiters across restarts.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "rate-limit.snapshot", name = "enabled", havingValue = "true")
+public class LimiterSnapshotLifecycle implements SmartLifecycle {
+
+    private final LimiterStore store;
+    private final Path path;
+    private volatile boolean running;
+
+    /**
+     * @param store               the store whose limiters are saved and restored.
+     * @param rateLimitProperties the global rate limiting properties.
+     */
+    public LimiterSnapshotLifecycle(LimiterStore store, RateLimitProperties rateLimitProperties) {
+        this.store = store;
+        this.path = Path.of(rateLimitProperties.getSnapshot().getPath());
+        if (!store.forEach((config, high, low, limiter) -> { })) {
+            log.warn("{} does not support snapshots; limiter state will not survive restarts",
+                    store.getClass().getSimpleName());
+            return;
+        }
+        // Lifecycle beans start after the web server, so the state is loaded as soon as the store exists.
+        try {
+            long started = System.nanoTime();
+            RestoredLimiters restored = LimiterSnapshot.read(path);
+            if (restored.size() > 0) {
+                store.setRestorer(restored);
+            }
+            log.info("Loaded {} limiters from {} in {} ms", restored.size(), path,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (NoSuchFileException e) {
+            log.debug("No limiter snapshot at {}", path);
+        } catch (IOException e) {
+            log.warn("Cannot load limiter snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        store.setRestorer(null);
+        try {
+            long started = System.nanoTime();
+            long written = LimiterSnapshot.write(store, path);
+            if (written >= 0) {
+                log.info("Saved {} limiters to {} in {} ms", written, path,
+                        (System.nanoTime() - started) / 1_000_000);
+            }
+        } catch (IOException e) {
+            log.warn("Cannot save limiter snapshot {}: {}", path, e.getMessage());
+            try {
+                Files.deleteIfExists(path.resolveSibling(path.getFileName() + ".tmp"));
+            } catch (IOException ignored) {
+                // Overwritten by the next snapshot anyway.
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return LifecyclePhases.AFTER_REQUESTS_DRAINED;
+    }
+}
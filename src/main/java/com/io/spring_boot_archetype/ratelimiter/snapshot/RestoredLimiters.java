@@ -0,0 +1,105 @@
+package com.io.spring_boot_archetype.ratelimiter.snapshot;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimiter;
+import com.io.spring_boot_archetype.ratelimiter.store.LimiterTable;
+
+/**
+ * Limiter state read from a snapshot, applied to each limiter as it is first created after the restart.
+ * <p>
+ * Endpoints are only resolved on their first request, so the state cannot be restored upfront; it is kept in an
+ * open-addressing table of primitives instead (four longs per entry) and looked up when a client's limiter is
+ * created. A limiter is assumed to recover linearly over its endpoint's duration, as a token bucket does, so the
+ * restored utilization is reduced by the time elapsed since the snapshot, and an entry that has fully recovered
+ * is skipped. Each entry is applied at most once, and the table reports itself exhausted once every entry
+ * has recovered, so that it can be dropped.
+ * </p>
+ */
+public class RestoredLimiters implements LimiterTable.Restorer {
+
+    private static final int KEY_STRIDE = 3;
+
+    private final long[] keys;
+    // Utilization (float bits, upper half) and duration in milliseconds (lower half); 0 once applied.
+    private final long[] values;
+    private final int mask;
+    private final long origin = System.nanoTime();
+    private long recoveredAfterMillis;
+    private int size;
+
+    /**
+     * @param expected the number of entries expected, used to size the table.
+     */
+    RestoredLimiters(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected + expected / 2) - 1) << 1;
+        this.keys = new long[capacity * KEY_STRIDE];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds an entry unless it has already recovered.
+     *
+     * @param utilization the utilization as of now.
+     * @param duration    the endpoint's duration in milliseconds, over which the limiter recovers completely.
+     */
+    void add(long endpointKey, long high, long low, double utilization, int duration) {
+        if (utilization <= 0 || size > mask / 4 * 3) {
+            return;
+        }
+        int i = indexOf(endpointKey, high, low);
+        int k = i * KEY_STRIDE;
+        if (values[i] == 0) {
+            size++;
+        }
+        keys[k] = endpointKey;
+        keys[k + 1] = high;
+        keys[k + 2] = low;
+        values[i] = ((long) Float.floatToIntBits((float) Math.min(1, utilization)) << 32) | duration;
+        recoveredAfterMillis = Math.max(recoveredAfterMillis, (long) Math.ceil(utilization * duration));
+    }
+
+    /**
+     * @return the number of entries restored.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean restore(EffectiveRateLimitConfig config, long high, long low, RateLimiter limiter) {
+        long elapsed = (System.nanoTime() - origin) / 1_000_000;
+        if (elapsed >= recoveredAfterMillis) {
+            return false;
+        }
+        int i = indexOf(config.endpointKey(), high, low);
+        long value = values[i];
+        if (value != 0) {
+            // Called under the lock of the limiter table's segment; entries of different segments may race,
+            // in which case an entry is applied twice at worst.
+            values[i] = 0;
+            double utilization = Float.intBitsToFloat((int) (value >>> 32)) - (double) elapsed / (int) value;
+            if (utilization > 0) {
+                limiter.occupy(utilization);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the slot holding the key, or the empty slot where it would be inserted.
+     */
+    private int indexOf(long endpointKey, long high, long low) {
+        long h = endpointKey * 0x9E3779B97F4A7C15L + high * 0xC2B2AE3D27D4EB4FL + low;
+        h ^= h >>> 32;
+        for (int i = (int) h & mask; ; i = (i + 1) & mask) {
+            int k = i * KEY_STRIDE;
+            if (keys[k] == endpointKey && keys[k + 1] == high && keys[k + 2] == low && values[i] != 0) {
+                return i;
+            }
+            if (values[i] == 0 && keys[k] == 0 && keys[k + 1] == 0 && keys[k + 2] == 0) {
+                return i;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.io.spring_boot_archetype.ratelimiter.store;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Heap-based {@link LimiterStore} holding one {@code RateLimiter} object per endpoint and client
+ * in a bounded {@link LimiterTable}.
+ * <p>
+ * Exposes the number of entries, evictions by reason and the estimated memory footprint as metrics.
+ * </p>
+ */
+public class InMemoryLimiterStore implements LimiterStore, MeterBinder {
+
+    private final LimiterTable table;
+
+    /**
+     * @param maxEntries approximate maximum number of limiters held.
+     */
+    public InMemoryLimiterStore(int maxEntries) {
+        this.table = new LimiterTable(maxEntries);
+    }
+
+    @Override
+    public long tryAcquire(EffectiveRateLimitConfig config, long high, long low) {
+        return table.getOrCreate(config, high, low).tryAcquire();
+    }
+
+    @Override
+    public void refund(EffectiveRateLimitConfig config, long high, long low, long acquiredAt) {
+        table.getOrCreate(config, high, low).refund(acquiredAt);
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    @Override
+    public boolean forEach(LimiterTable.Visitor visitor) {
+        table.forEach(visitor);
+        return true;
+    }
+
+    @Override
+    public void setRestorer(LimiterTable.Restorer restorer) {
+        table.setRestorer(restorer);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ratelimiter.store.entries", table, LimiterTable::size)
+                .description("Number of rate limiters currently held in memory")
+                .tag("store", "heap")
+                .register(registry);
+        FunctionCounter.builder("ratelimiter.store.evictions", table, LimiterTable::getExpiredEvictions)
+                .description("Number of rate limiters evicted from the store")
+                .tags("store", "heap", "reason", "expired")
+                .register(registry);
+        FunctionCounter.builder("ratelimiter.store.evictions", table, LimiterTable::getCapacityEvictions)
+                .description("Number of rate limiters evicted from the store")
+                .tags("store", "heap", "reason", "capacity")
+                .register(registry);
+        Gauge.builder("ratelimiter.store.memory", table, LimiterTable::estimatedBytes)
+                .description("Estimated memory retained by the rate limiter store")
+                .tag("store", "heap")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+}
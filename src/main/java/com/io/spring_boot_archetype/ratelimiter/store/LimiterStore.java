@@ -0,0 +1,38 @@
+package com.io.spring_boot_archetype.ratelimiter.store;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimiterBackend;
+
+/**
+ * Storage of per-client limiter state in this JVM, keyed by endpoint and 128-bit client key.
+ * <p>
+ * A store is the local {@link RateLimiterBackend}: its decisions apply per replica.
+ * Implementations must be thread-safe and bounded: state that is no longer needed, either because it has gone
+ * idle or because the store is full, is reclaimed by the store itself.
+ * </p>
+ */
+public interface LimiterStore extends RateLimiterBackend {
+
+    /**
+     * @return the number of clients currently tracked.
+     */
+    int size();
+
+    /**
+     * Visits every limiter held, e.g. to snapshot their state before a restart.
+     *
+     * @param visitor the visitor.
+     * @return false if the store does not keep the client keys of its limiters, in which case nothing is visited.
+     */
+    default boolean forEach(LimiterTable.Visitor visitor) {
+        return false;
+    }
+
+    /**
+     * Sets the source of state restored into limiters as they are created; ignored by stores that cannot be
+     * visited.
+     *
+     * @param restorer the restorer, or null to stop restoring.
+     */
+    default void setRestorer(LimiterTable.Restorer restorer) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.io.spring_boot_archetype.ratelimiter.store;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimitAlgorithm;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the {@link LimiterStore} used by the rate limiter.
+ * The backend is selected with {@code rate-limit.store.type} and defaults to the heap store.
+ */
+@Configuration
+public class LimiterStoreConfig {
+
+    /**
+     * Creates the heap limiter store, bounded by {@code rate-limit.store.max-entries}.
+     *
+     * @param rateLimitProperties the global rate limiting properties.
+     * @return the LimiterStore bean.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "rate-limit.store", name = "type", havingValue = "HEAP", matchIfMissing = true)
+    public InMemoryLimiterStore limiterStore(RateLimitProperties rateLimitProperties) {
+        return new InMemoryLimiterStore(rateLimitProperties.getStore().getMaxEntries());
+    }
+
+    /**
+     * Creates the off-heap limiter store, sized for {@code rate-limit.store.max-entries} clients.
+     *
+     * @param rateLimitProperties the global rate limiting properties.
+     * @return the LimiterStore bean.
+     * @throws IllegalArgumentException if {@code rate-limit.algorithm} is not a token bucket.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "rate-limit.store", name = "type", havingValue = "OFF_HEAP")
+    public OffHeapLimiterStore offHeapLimiterStore(RateLimitProperties rateLimitProperties) {
+        RateLimitAlgorithm algorithm = rateLimitProperties.getAlgorithm();
+        if (algorithm != RateLimitAlgorithm.DEFAULT && !OffHeapLimiterStore.supports(algorithm)) {
+            throw new IllegalArgumentException("Rate limit algorithm " + algorithm
+                    + " is not supported by the OFF_HEAP limiter store.");
+        }
+        return new OffHeapLimiterStore(rateLimitProperties.getStore().getMaxEntries());
+    }
+}
@@ -0,0 +1,15 @@
+package com.io.spring_boot_archetype.ratelimiter.store;
+
+/**
+ * Enum for selecting the {@link LimiterStore} backend via {@code rate-limit.store.type}.
+ */
+public enum LimiterStoreType {
+    /**
+     * One limiter object per client on the heap; supports every algorithm. See {@link InMemoryLimiterStore}.
+     */
+    HEAP,
+    /**
+     * Fixed-size slots in direct memory, outside of GC scanning; token bucket only. See {@link OffHeapLimiterStore}.
+     */
+    OFF_HEAP
+}
@@ -0,0 +1,424 @@
+package com.io.spring_boot_archetype.ratelimiter.store;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimiter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent, bounded open-addressing map from an endpoint ordinal and a 128-bit client key to a {@link RateLimiter}.
+ * <p>
+ * Keys are stored as primitives in a flat {@code long[]}, so a lookup neither builds a composite key object
+ * nor hashes a string. The table is split into segments; lookups are lock-free, while inserts and rebuilds
+ * take the segment's monitor and publish slots with release semantics.
+ * </p>
+ * <p>
+ * When a segment runs out of room it is rebuilt: idle limiters (whose state equals a fresh one) are dropped first,
+ * and if the segment is still at its share of {@code maxEntries}, the least recently used entries are evicted
+ * in a batch. Access recency is tracked with a coarse clock of roughly one second.
+ * </p>
+ * <p>
+ * Each slot also remembers the configuration its limiter was created for. When an endpoint's limit is changed at
+ * runtime, the next lookup with the new configuration migrates the limiter: a limiter with the new parameters is
+ * created and marked as used up as much as the previous one (see {@link RateLimiter#occupy(double)}), so clients
+ * keep their position relative to the limit.
+ * </p>
+ */
+public class LimiterTable {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int INITIAL_SLOTS = 16;
+    private static final int KEY_STRIDE = 3;
+    private static final int ACCESS_TICK_SHIFT = 30;
+    private static final int HISTOGRAM_BUCKETS = 64;
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(RateLimiter[].class);
+    private static final VarHandle CONFIGS = MethodHandles.arrayElementVarHandle(EffectiveRateLimitConfig[].class);
+
+    private static final LimiterFactory DEFAULT_FACTORY = (config, high, low) -> config.newLimiter();
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int maxSegmentEntries;
+    private final long origin = System.nanoTime();
+    private final AtomicLong expiredEvictions = new AtomicLong();
+    private final AtomicLong capacityEvictions = new AtomicLong();
+    private final AtomicLong limiterBytes = new AtomicLong();
+    private volatile Restorer restorer;
+
+    /**
+     * @param maxEntries approximate maximum number of limiters held; the bound is enforced per segment.
+     */
+    public LimiterTable(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Invalid limiter table size: " + maxEntries + ".");
+        }
+        this.maxSegmentEntries = Math.max(1, (maxEntries + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Returns the limiter of the given endpoint and client, creating it from the configuration if absent.
+     *
+     * @param config the endpoint's effective configuration.
+     * @param high   the upper 64 bits of the client key.
+     * @param low    the lower 64 bits of the client key.
+     * @return the limiter for the endpoint and client.
+     */
+    public RateLimiter getOrCreate(EffectiveRateLimitConfig config, long high, long low) {
+        return getOrCreate(config, high, low, DEFAULT_FACTORY);
+    }
+
+    /**
+     * Returns the limiter of the given endpoint and client, creating it with the given factory if absent.
+     *
+     * @param config  the endpoint's effective configuration.
+     * @param high    the upper 64 bits of the client key.
+     * @param low     the lower 64 bits of the client key.
+     * @param factory creates the limiter on first use; should be a shared instance to avoid allocation.
+     * @return the limiter for the endpoint and client.
+     */
+    public RateLimiter getOrCreate(EffectiveRateLimitConfig config, long high, long low, LimiterFactory factory) {
+        int endpoint = config.endpointId();
+        long hash = hash(endpoint, high, low);
+        Segment segment = segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+        int tick = accessTick();
+        RateLimiter limiter = segment.find(hash, endpoint, high, low, config, factory, tick);
+        return limiter != null ? limiter : segment.insert(hash, endpoint, high, low, config, factory, tick);
+    }
+
+    /**
+     * Visits every limiter held. Limiters inserted or evicted concurrently may or may not be visited.
+     *
+     * @param visitor the visitor.
+     */
+    public void forEach(Visitor visitor) {
+        for (Segment segment : segments) {
+            Slots current = segment.slots;
+            long[] keys = current.keys;
+            for (int i = 0; i < current.values.length; i++) {
+                RateLimiter value = (RateLimiter) VALUES.getAcquire(current.values, i);
+                if (value != null) {
+                    int k = i * KEY_STRIDE;
+                    visitor.visit((EffectiveRateLimitConfig) CONFIGS.getAcquire(current.configs, i),
+                            keys[k + 1], keys[k + 2], value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the source of state restored into limiters as they are created, e.g. from a snapshot taken before
+     * a restart.
+     *
+     * @param restorer the restorer, or null to stop restoring.
+     */
+    public void setRestorer(Restorer restorer) {
+        this.restorer = restorer;
+    }
+
+    /**
+     * @return the number of limiters currently held.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of limiters dropped because they were idle.
+     */
+    public long getExpiredEvictions() {
+        return expiredEvictions.get();
+    }
+
+    /**
+     * @return the number of active limiters dropped to stay within the size bound.
+     */
+    public long getCapacityEvictions() {
+        return capacityEvictions.get();
+    }
+
+    /**
+     * @return the estimated heap retained by the table's slot arrays and limiters, in bytes.
+     */
+    public long estimatedBytes() {
+        long bytes = limiterBytes.get();
+        for (Segment segment : segments) {
+            int slots = segment.slots.values.length;
+            // keys (3 longs), value and configuration references and access tick per slot, plus four array headers.
+            bytes += slots * (KEY_STRIDE * 8L + 4 + 4 + 4) + 4 * 16;
+        }
+        return bytes;
+    }
+
+    private int accessTick() {
+        return (int) ((System.nanoTime() - origin) >>> ACCESS_TICK_SHIFT);
+    }
+
+    /**
+     * Creates the limiter for an endpoint and client that is not in the table yet.
+     */
+    @FunctionalInterface
+    public interface LimiterFactory {
+        RateLimiter create(EffectiveRateLimitConfig config, long high, long low);
+    }
+
+    /**
+     * Visits the limiters of a table.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(EffectiveRateLimitConfig config, long high, long low, RateLimiter limiter);
+    }
+
+    /**
+     * Restores previously saved state into limiters as they are created.
+     */
+    @FunctionalInterface
+    public interface Restorer {
+        /**
+         * Restores the saved state of the given endpoint and client, if any, into a fresh limiter.
+         *
+         * @return false once no saved state can apply any more, after which the restorer is dropped.
+         */
+        boolean restore(EffectiveRateLimitConfig config, long high, long low, RateLimiter limiter);
+    }
+
+    static long hash(int endpoint, long high, long low) {
+        long h = low * 0x9E3779B97F4A7C15L + high * 0xC2B2AE3D27D4EB4FL + endpoint;
+        // MurmurHash3 finalizer, so that both the top bits (segment) and the low bits (slot) are well mixed.
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Checks whether limiters created for two configurations of the same endpoint would behave identically.
+     */
+    private static boolean sameLimits(EffectiveRateLimitConfig a, EffectiveRateLimitConfig b) {
+        return a.capacity() == b.capacity() && a.duration() == b.duration() && a.algorithm() == b.algorithm()
+                && a.tolerance() == b.tolerance();
+    }
+
+    /**
+     * Keys, values, configurations and access ticks of a segment. Keys and configurations are written before the
+     * value is released, so a reader that sees a non-null value also sees its key.
+     */
+    private static final class Slots {
+        final long[] keys;
+        final RateLimiter[] values;
+        final EffectiveRateLimitConfig[] configs;
+        final int[] accessed;
+
+        Slots(int capacity) {
+            this.keys = new long[capacity * KEY_STRIDE];
+            this.values = new RateLimiter[capacity];
+            this.configs = new EffectiveRateLimitConfig[capacity];
+            this.accessed = new int[capacity];
+        }
+    }
+
+    private final class Segment {
+        private volatile Slots slots = new Slots(INITIAL_SLOTS);
+        // Written under the segment's monitor only; read racily for size reporting.
+        private volatile int count;
+
+        RateLimiter find(long hash, int endpoint, long high, long low,
+                         EffectiveRateLimitConfig config, LimiterFactory factory, int tick) {
+            Slots current = slots;
+            long[] keys = current.keys;
+            RateLimiter[] values = current.values;
+            int mask = values.length - 1;
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                RateLimiter value = (RateLimiter) VALUES.getAcquire(values, i);
+                if (value == null) {
+                    return null;
+                }
+                int k = i * KEY_STRIDE;
+                if (keys[k + 2] == low && keys[k + 1] == high && keys[k] == endpoint) {
+                    // Racy, best-effort recency update; written only when the coarse tick changes.
+                    if (current.accessed[i] != tick) {
+                        current.accessed[i] = tick;
+                    }
+                    if (CONFIGS.getAcquire(current.configs, i) != config) {
+                        return migrate(hash, endpoint, high, low, config, factory, tick);
+                    }
+                    return value;
+                }
+            }
+        }
+
+        /**
+         * Moves the limiter of a key to a new configuration of its endpoint, or creates it if it was evicted
+         * in the meantime. Threads still holding the previous limiter may make a few more decisions against it.
+         */
+        synchronized RateLimiter migrate(long hash, int endpoint, long high, long low,
+                                         EffectiveRateLimitConfig config, LimiterFactory factory, int tick) {
+            Slots current = slots;
+            long[] keys = current.keys;
+            RateLimiter[] values = current.values;
+            int mask = values.length - 1;
+            for (int i = (int) hash & mask; values[i] != null; i = (i + 1) & mask) {
+                int k = i * KEY_STRIDE;
+                if (keys[k + 2] != low || keys[k + 1] != high || keys[k] != endpoint) {
+                    continue;
+                }
+                RateLimiter previous = values[i];
+                EffectiveRateLimitConfig previousConfig = current.configs[i];
+                if (previousConfig != config && !sameLimits(previousConfig, config)) {
+                    RateLimiter migrated = factory.create(config, high, low);
+                    migrated.occupy(previous.utilization());
+                    limiterBytes.addAndGet(migrated.estimatedBytes() - previous.estimatedBytes());
+                    CONFIGS.setRelease(current.configs, i, config);
+                    VALUES.setRelease(values, i, migrated);
+                    return migrated;
+                }
+                CONFIGS.setRelease(current.configs, i, config);
+                return previous;
+            }
+            return insert(hash, endpoint, high, low, config, factory, tick);
+        }
+
+        synchronized RateLimiter insert(long hash, int endpoint, long high, long low,
+                                        EffectiveRateLimitConfig config, LimiterFactory factory, int tick) {
+            // Another thread may have inserted the key while we were waiting for the monitor.
+            RateLimiter existing = find(hash, endpoint, high, low, config, factory, tick);
+            if (existing != null) {
+                return existing;
+            }
+            Slots current = slots;
+            // Keep the load factor below 2/3 so that probe sequences stay short.
+            if (count >= maxSegmentEntries || (count + 1) * 3 > current.values.length * 2) {
+                current = rebuild(current);
+            }
+            RateLimiter limiter = factory.create(config, high, low);
+            Restorer source = restorer;
+            if (source != null && !source.restore(config, high, low, limiter)) {
+                restorer = null;
+            }
+            put(current, hash, endpoint, high, low, limiter, config, tick);
+            count++;
+            limiterBytes.addAndGet(limiter.estimatedBytes());
+            return limiter;
+        }
+
+        /**
+         * Drops idle limiters, evicts the least recently used ones if the segment is still full,
+         * and copies the survivors into slots sized for one more insert.
+         */
+        private Slots rebuild(Slots current) {
+            long[] keys = current.keys;
+            RateLimiter[] values = current.values;
+            int[] accessed = current.accessed;
+            boolean[] evict = new boolean[values.length];
+            int survivors = 0;
+            int minTick = Integer.MAX_VALUE;
+            int maxTick = Integer.MIN_VALUE;
+            long freedBytes = 0;
+            long expired = 0;
+            for (int i = 0; i < values.length; i++) {
+                RateLimiter value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                if (value.isIdle()) {
+                    evict[i] = true;
+                    freedBytes += value.estimatedBytes();
+                    expired++;
+                } else {
+                    survivors++;
+                    minTick = Math.min(minTick, accessed[i]);
+                    maxTick = Math.max(maxTick, accessed[i]);
+                }
+            }
+            long evicted = 0;
+            if (survivors >= maxSegmentEntries) {
+                // Evict at least an eighth of the segment at once, so that rebuilds stay amortized.
+                int needed = survivors - (maxSegmentEntries - Math.max(1, maxSegmentEntries / 8));
+                int threshold = lruThreshold(values, accessed, evict, minTick, maxTick, needed);
+                for (int i = 0; i < values.length && evicted < needed; i++) {
+                    if (values[i] != null && !evict[i] && accessed[i] <= threshold) {
+                        evict[i] = true;
+                        freedBytes += values[i].estimatedBytes();
+                        evicted++;
+                    }
+                }
+                survivors -= (int) evicted;
+            }
+            // Leave room for the segment to double (up to its bound) before the next rebuild.
+            int target = Math.min(survivors * 2, maxSegmentEntries) + 1;
+            int capacity = INITIAL_SLOTS;
+            while (target * 3 > capacity * 2) {
+                capacity <<= 1;
+            }
+            Slots rebuilt = new Slots(capacity);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null && !evict[i]) {
+                    int k = i * KEY_STRIDE;
+                    int endpoint = (int) keys[k];
+                    put(rebuilt, hash(endpoint, keys[k + 1], keys[k + 2]), endpoint, keys[k + 1], keys[k + 2],
+                            values[i], current.configs[i], accessed[i]);
+                }
+            }
+            count = survivors;
+            expiredEvictions.addAndGet(expired);
+            capacityEvictions.addAndGet(evicted);
+            limiterBytes.addAndGet(-freedBytes);
+            // Volatile write publishes the fully populated slots to lock-free readers.
+            slots = rebuilt;
+            return rebuilt;
+        }
+
+        /**
+         * Finds the access tick at or below which at least {@code needed} surviving entries lie,
+         * using a fixed-size histogram instead of sorting.
+         */
+        private int lruThreshold(RateLimiter[] values, int[] accessed, boolean[] evict,
+                                 int minTick, int maxTick, int needed) {
+            long span = (long) maxTick - minTick + 1;
+            long width = Math.max(1, (span + HISTOGRAM_BUCKETS - 1) / HISTOGRAM_BUCKETS);
+            int[] histogram = new int[HISTOGRAM_BUCKETS];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null && !evict[i]) {
+                    histogram[(int) ((accessed[i] - (long) minTick) / width)]++;
+                }
+            }
+            int cumulative = 0;
+            for (int b = 0; b < HISTOGRAM_BUCKETS; b++) {
+                cumulative += histogram[b];
+                if (cumulative >= needed) {
+                    return (int) Math.min(maxTick, minTick + (b + 1) * width - 1);
+                }
+            }
+            return maxTick;
+        }
+
+        private static void put(Slots target, long hash, int endpoint, long high, long low,
+                                RateLimiter limiter, EffectiveRateLimitConfig config, int tick) {
+            long[] keys = target.keys;
+            RateLimiter[] values = target.values;
+            int mask = values.length - 1;
+            int i = (int) hash & mask;
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            int k = i * KEY_STRIDE;
+            keys[k] = endpoint;
+            keys[k + 1] = high;
+            keys[k + 2] = low;
+            target.accessed[i] = tick;
+            target.configs[i] = config;
+            VALUES.setRelease(values, i, limiter);
+        }
+    }
+}
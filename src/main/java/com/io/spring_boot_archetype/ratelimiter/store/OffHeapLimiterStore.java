@@ -0,0 +1,255 @@
+package com.io.spring_boot_archetype.ratelimiter.store;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.LimiterContention;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitAlgorithm;
+import com.io.spring_boot_archetype.ratelimiter.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.io.spring_boot_archetype.ratelimiter.TokenBucketRateLimiter.TOKEN_BITS;
+import static com.io.spring_boot_archetype.ratelimiter.TokenBucketRateLimiter.TOKEN_MASK;
+import static com.io.spring_boot_archetype.ratelimiter.TokenBucketRateLimiter.TICK_MASK;
+
+/**
+ * {@link LimiterStore} keeping token bucket state in fixed-size slots of a direct {@link ByteBuffer}.
+ * <p>
+ * Each slot holds three longs: a 64-bit hash of the endpoint and client key, the packed token bucket state
+ * (see {@link TokenBucketRateLimiter}) and the packed bucket parameters (capacity and refill period), which are
+ * only used to tell whether a slot is idle. Slots are updated with {@link VarHandle} CAS, so tracking millions
+ * of clients costs 24 bytes each and adds nothing to GC scanning.
+ * </p>
+ * <p>
+ * The table does not resize: a key is looked up within a short probe window, and when the window is full
+ * an idle slot is reused, or failing that the least recently refilled one. Two clients whose 64-bit hashes
+ * collide would share a bucket, which is accepted as negligible. Every endpoint is evaluated as a token bucket;
+ * other algorithms need per-client objects, so endpoints configured with them are rejected when their
+ * configuration is resolved (see {@link #supports(RateLimitAlgorithm)}).
+ * </p>
+ * <p>
+ * The bucket parameters are passed on every acquisition, so a limit changed at runtime applies to the existing
+ * state as is: tokens above a lowered capacity are dropped by the next refill.
+ * </p>
+ */
+public class OffHeapLimiterStore implements LimiterStore, MeterBinder {
+
+    private static final int SLOT_BYTES = 24;
+    private static final int STATE_OFFSET = 8;
+    private static final int PARAMS_OFFSET = 16;
+    private static final int PROBE_LIMIT = 8;
+    private static final int MAX_SLOTS = 1 << 26;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer slots;
+    private final int mask;
+    private final long origin = System.nanoTime();
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong expiredEvictions = new AtomicLong();
+    private final AtomicLong capacityEvictions = new AtomicLong();
+
+    /**
+     * @param maxEntries number of clients the table should hold; it is sized to the next power of two
+     *                   above {@code maxEntries * 1.25}.
+     */
+    public OffHeapLimiterStore(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Invalid limiter store size: " + maxEntries + ".");
+        }
+        long wanted = maxEntries + (maxEntries >> 2);
+        int capacity = (int) Math.min(MAX_SLOTS, Long.highestOneBit(Math.max(PROBE_LIMIT, wanted - 1)) << 1);
+        this.mask = capacity - 1;
+        // CAS through a byte buffer view requires 8-byte aligned offsets.
+        this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES + Long.BYTES).alignedSlice(Long.BYTES);
+    }
+
+    /**
+     * @param algorithm a resolved rate limiting algorithm.
+     * @return whether the off-heap store can evaluate it, i.e. whether it is a token bucket.
+     */
+    public static boolean supports(RateLimitAlgorithm algorithm) {
+        return algorithm == RateLimitAlgorithm.TOKEN_BUCKET || algorithm == RateLimitAlgorithm.STRIPED_TOKEN_BUCKET;
+    }
+
+    @Override
+    public long tryAcquire(EffectiveRateLimitConfig config, long high, long low) {
+        int capacity = config.capacity();
+        long periodTicks = TokenBucketRateLimiter.toPeriodTicks(config.duration());
+        long tag = tag(config.endpointId(), high, low);
+        long now = currentTick();
+        int slot = findOrClaim(tag, TokenBucketRateLimiter.pack(capacity, periodTicks), now);
+        return acquire(slot * SLOT_BYTES + STATE_OFFSET, now, capacity, periodTicks);
+    }
+
+    @Override
+    public void refund(EffectiveRateLimitConfig config, long high, long low, long acquiredAt) {
+        int slot = find(tag(config.endpointId(), high, low));
+        if (slot < 0) {
+            // Reclaimed in the meantime; a fresh bucket is full anyway.
+            return;
+        }
+        int stateOffset = slot * SLOT_BYTES + STATE_OFFSET;
+        while (true) {
+            long current = (long) LONGS.getVolatile(slots, stateOffset);
+            if (current == 0 || (current & TOKEN_MASK) >= config.capacity()
+                    || LONGS.compareAndSet(slots, stateOffset, current, current + 1)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, entries.get());
+    }
+
+    /**
+     * @return the number of slots, i.e. the maximum number of clients tracked at once.
+     */
+    public int slotCount() {
+        return mask + 1;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ratelimiter.store.entries", entries, AtomicLong::get)
+                .description("Number of rate limiters currently held in memory")
+                .tag("store", "off-heap")
+                .register(registry);
+        FunctionCounter.builder("ratelimiter.store.evictions", expiredEvictions, AtomicLong::get)
+                .description("Number of rate limiters evicted from the store")
+                .tags("store", "off-heap", "reason", "expired")
+                .register(registry);
+        FunctionCounter.builder("ratelimiter.store.evictions", capacityEvictions, AtomicLong::get)
+                .description("Number of rate limiters evicted from the store")
+                .tags("store", "off-heap", "reason", "capacity")
+                .register(registry);
+        Gauge.builder("ratelimiter.store.memory", slots, ByteBuffer::capacity)
+                .description("Estimated memory retained by the rate limiter store")
+                .tag("store", "off-heap")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    /**
+     * Returns the slot holding the tag, claiming an empty one or reclaiming one in the probe window if absent.
+     */
+    private int findOrClaim(long tag, long params, long now) {
+        int start = (int) tag & mask;
+        for (int i = 0; i < PROBE_LIMIT; i++) {
+            int slot = (start + i) & mask;
+            int offset = slot * SLOT_BYTES;
+            long current = (long) LONGS.getAcquire(slots, offset);
+            if (current == 0) {
+                long witness = (long) LONGS.compareAndExchange(slots, offset, 0L, tag);
+                if (witness == 0) {
+                    // State 0 reads as a fresh, full bucket, so only the parameters need writing.
+                    LONGS.setRelease(slots, offset + PARAMS_OFFSET, params);
+                    entries.incrementAndGet();
+                    return slot;
+                }
+                current = witness;
+            }
+            if (current == tag) {
+                // The state carries over when the endpoint's limit changes; only the idleness check needs updating.
+                if ((long) LONGS.getAcquire(slots, offset + PARAMS_OFFSET) != params) {
+                    LONGS.setRelease(slots, offset + PARAMS_OFFSET, params);
+                }
+                return slot;
+            }
+        }
+        return reclaim(start, tag, params, now);
+    }
+
+    /**
+     * Returns the slot holding the tag, or -1 if it is not in its probe window.
+     */
+    private int find(long tag) {
+        int start = (int) tag & mask;
+        for (int i = 0; i < PROBE_LIMIT; i++) {
+            int slot = (start + i) & mask;
+            if ((long) LONGS.getAcquire(slots, slot * SLOT_BYTES) == tag) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces an idle slot of the probe window, or the one refilled least recently, with the given tag.
+     * Concurrent updates of the evicted client may leak into the new one; this only affects a few decisions.
+     */
+    private int reclaim(int start, long tag, long params, long now) {
+        int victim = start;
+        long oldestAge = -1;
+        boolean idle = false;
+        for (int i = 0; i < PROBE_LIMIT; i++) {
+            int slot = (start + i) & mask;
+            int offset = slot * SLOT_BYTES;
+            long state = (long) LONGS.getAcquire(slots, offset + STATE_OFFSET);
+            long slotParams = (long) LONGS.getAcquire(slots, offset + PARAMS_OFFSET);
+            if (isIdle(state, slotParams, now)) {
+                victim = slot;
+                idle = true;
+                break;
+            }
+            long age = (now - (state >>> TOKEN_BITS)) & TICK_MASK;
+            if (age > oldestAge) {
+                oldestAge = age;
+                victim = slot;
+            }
+        }
+        int offset = victim * SLOT_BYTES;
+        LONGS.setRelease(slots, offset, tag);
+        LONGS.setRelease(slots, offset + STATE_OFFSET, 0L);
+        LONGS.setRelease(slots, offset + PARAMS_OFFSET, params);
+        (idle ? expiredEvictions : capacityEvictions).incrementAndGet();
+        return victim;
+    }
+
+    private long acquire(int stateOffset, long now, int capacity, long periodTicks) {
+        while (true) {
+            long current = (long) LONGS.getVolatile(slots, stateOffset);
+            long state = current == 0 ? TokenBucketRateLimiter.pack(capacity, now) : current;
+            long refilled = TokenBucketRateLimiter.refill(state, now, capacity, periodTicks);
+            if ((refilled & TOKEN_MASK) == 0) {
+                return TokenBucketRateLimiter.rejected(refilled, now, capacity, periodTicks);
+            }
+            if (LONGS.compareAndSet(slots, stateOffset, current, refilled - 1)) {
+                return TokenBucketRateLimiter.allowed(refilled - 1, now, capacity, periodTicks);
+            }
+            LimiterContention.retry();
+        }
+    }
+
+    private static boolean isIdle(long state, long params, long now) {
+        if (state == 0) {
+            return true;
+        }
+        if (params == 0) {
+            // Parameters not published yet: the slot has just been claimed.
+            return false;
+        }
+        int capacity = (int) (params & TOKEN_MASK);
+        long periodTicks = params >>> TOKEN_BITS;
+        return (TokenBucketRateLimiter.refill(state, now, capacity, periodTicks) & TOKEN_MASK) >= capacity;
+    }
+
+    private long currentTick() {
+        return TokenBucketRateLimiter.toTick(System.nanoTime() - origin);
+    }
+
+    private static long tag(int endpoint, long high, long low) {
+        long hash = LimiterTable.hash(endpoint, high, low);
+        // Zero marks an empty slot.
+        return hash == 0 ? 1 : hash;
+    }
+}
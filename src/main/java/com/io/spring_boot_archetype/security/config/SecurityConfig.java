@@ -14,9 +14,16 @@ import java.util.List;
 @Configuration
 public class SecurityConfig {
 
+    /**
+     * Role required to read and change rate limits through the {@code /actuator/ratelimits} endpoint.
+     */
+    public static final String RATE_LIMIT_ADMIN_ROLE = "RATE_LIMIT_ADMIN";
+
     /**
      * Security filter chain configuration.
      * This method configures the security settings for the application.
+     * The rate limit overrides endpoint changes limits for every client, so it requires the
+     * {@value #RATE_LIMIT_ADMIN_ROLE} role; everything else is open.
      *
      * @param http the HttpSecurity object to configure
      * @return the configured SecurityFilterChain
@@ -28,6 +35,8 @@ public class SecurityConfig {
                 .cors()
                 .and()
                 .authorizeHttpRequests(authorize -> authorize
+                        .requestMatchers("/actuator/ratelimits", "/actuator/ratelimits/**")
+                        .hasRole(RATE_LIMIT_ADMIN_ROLE)
                         .anyRequest().permitAll()
                 )
                 .httpBasic(httpBasic -> httpBasic.disable())
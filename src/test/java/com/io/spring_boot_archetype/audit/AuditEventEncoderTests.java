@@ -0,0 +1,53 @@
+package com.io.spring_boot_archetype.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditEventEncoderTests {
+
+	private final AuditEventEncoder encoder = new AuditEventEncoder();
+
+	@Test
+	void writesEachValueAsEscapedField() throws Exception {
+		String query = "q=\"quoted\"\\&tab=\t&ctl=\u0001&text=héllo € \uD83D\uDE00";
+		encoder.append(new AuditEvent(1_760_613_296_789L, "5f0c6a1e2b3d4c7f", "GET", "/api/hello", "/api/hello",
+				query, "192.0.2.1", 200, 12_345_678, 0, 57, null));
+
+		String line = decode(encoder.buffer());
+		assertThat(line).endsWith("}\n");
+		JsonNode json = new ObjectMapper().readTree(line);
+		assertThat(json.get("@timestamp").asText()).isEqualTo("2025-10-16T11:14:56.789Z");
+		assertThat(json.get("requestId").asText()).isEqualTo("5f0c6a1e2b3d4c7f");
+		assertThat(json.get("query").asText()).isEqualTo(query);
+		assertThat(json.get("status").asInt()).isEqualTo(200);
+		assertThat(json.get("durationMs").decimalValue()).isEqualByComparingTo("12.345");
+		assertThat(json.get("responseBytes").asLong()).isEqualTo(57);
+		assertThat(json.has("body")).isFalse();
+	}
+
+	@Test
+	void reusesBufferAcrossBatches() {
+		AuditEvent event = new AuditEvent(0, "1", "POST", "/api/items/{id}", "/api/items/7", null, "192.0.2.1", 429,
+				1_000, 12, 57, null);
+		encoder.append(event);
+		int length = encoder.length();
+		encoder.append(event);
+		assertThat(encoder.length()).isEqualTo(2 * length);
+		encoder.reset();
+		encoder.append(event);
+		assertThat(decode(encoder.buffer())).isEqualTo("{\"@timestamp\":\"1970-01-01T00:00:00.000Z\","
+				+ "\"requestId\":\"1\",\"method\":\"POST\",\"route\":\"/api/items/{id}\",\"path\":\"/api/items/7\","
+				+ "\"remoteIp\":\"192.0.2.1\",\"status\":429,\"durationMs\":0.001,\"requestBytes\":12,"
+				+ "\"responseBytes\":57}\n");
+	}
+
+	private static String decode(ByteBuffer buffer) {
+		return StandardCharsets.UTF_8.decode(buffer).toString();
+	}
+}
@@ -0,0 +1,108 @@
+package com.io.spring_boot_archetype.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditPipelineTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void ringBufferKeepsEveryProducersOrder() throws InterruptedException {
+		AuditRingBuffer<long[]> buffer = new AuditRingBuffer<>(64);
+		int producers = 4;
+		int perProducer = 10_000;
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			int producer = p;
+			threads.add(Thread.ofPlatform().start(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					while (!buffer.offer(new long[] {producer, i})) {
+						Thread.yield();
+					}
+				}
+			}));
+		}
+		long[] next = new long[producers];
+		int received = 0;
+		while (received < producers * perProducer) {
+			received += buffer.drain(element -> {
+				assertThat(element[1]).isEqualTo(next[(int) element[0]]);
+				next[(int) element[0]]++;
+			}, 100);
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(buffer.size()).isZero();
+	}
+
+	@Test
+	void dropsRecordsWhenFullAndWritesTheRestAtShutdown() throws Exception {
+		AuditProperties properties = new AuditProperties();
+		properties.setFile(directory.resolve("audit-log.json").toString());
+		properties.setBufferSize(4);
+		AuditPipeline pipeline = new AuditPipeline(properties);
+		for (int i = 0; i < 6; i++) {
+			pipeline.publish(new AuditEvent(0, String.valueOf(i), "GET", "/api/{id}", "/api/" + i, null,
+					"192.0.2.1", 200, 0, 0, 0, null));
+		}
+		pipeline.start();
+		pipeline.stop();
+
+		List<String> lines = Files.readAllLines(directory.resolve("audit-log.json"));
+		assertThat(lines).hasSize(4);
+		assertThat(lines.get(0)).startsWith("{\"@timestamp\":\"1970-01-01T00:00:00.000Z\",\"requestId\":\"0\"");
+	}
+
+	@Test
+	void writerSurvivesRecordThatFailsToEncode() throws Exception {
+		AuditProperties properties = new AuditProperties();
+		properties.setFile(directory.resolve("audit-log.json").toString());
+		properties.setOverflowPolicy(AuditOverflowPolicy.BLOCK);
+		AuditPipeline pipeline = new AuditPipeline(properties);
+		pipeline.start();
+		// Encoding the null record throws on the writer thread; the record behind it must still be written.
+		pipeline.publish(null);
+		pipeline.publish(event("1"));
+		pipeline.stop();
+
+		assertThat(Files.readAllLines(directory.resolve("audit-log.json"))).hasSize(1);
+	}
+
+	@Test
+	void deletesRolledFilesBeyondMaxHistory() throws Exception {
+		LocalDate today = LocalDate.now();
+		Path expired = directory.resolve("audit-log." + today.minusDays(3) + ".json");
+		Path kept = directory.resolve("audit-log." + today.minusDays(2) + ".json");
+		Path unrelated = directory.resolve("audit-log.backup.json");
+		for (Path path : List.of(expired, kept, unrelated)) {
+			Files.writeString(path, "{}\n");
+		}
+		AuditProperties properties = new AuditProperties();
+		properties.setFile(directory.resolve("audit-log.json").toString());
+		properties.setMaxHistory(2);
+		AuditPipeline pipeline = new AuditPipeline(properties);
+		pipeline.publish(event("0"));
+		pipeline.start();
+		pipeline.stop();
+
+		assertThat(Files.exists(expired)).isFalse();
+		assertThat(Files.exists(kept)).isTrue();
+		assertThat(Files.exists(unrelated)).isTrue();
+	}
+
+	private static AuditEvent event(String requestId) {
+		return new AuditEvent(0, requestId, "GET", "/api/{id}", "/api/" + requestId, null,
+				"192.0.2.1", 200, 0, 0, 0, null);
+	}
+}
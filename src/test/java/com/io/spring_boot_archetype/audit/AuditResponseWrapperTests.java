@@ -0,0 +1,87 @@
+package com.io.spring_boot_archetype.audit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditResponseWrapperTests {
+
+	private static final List<MediaType> JSON = List.of(MediaType.APPLICATION_JSON);
+
+	@Test
+	void countsBytesPassedThroughAndCapturesBoundedStart() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		AuditResponseWrapper wrapper = new AuditResponseWrapper(response, 8, JSON);
+		wrapper.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		wrapper.getOutputStream().write("{\"message\":\"hello\"}".getBytes(StandardCharsets.UTF_8));
+
+		// Written through to the client right away, not held until the end of the request.
+		assertThat(response.getContentAsString()).isEqualTo("{\"message\":\"hello\"}");
+		assertThat(wrapper.getBytesWritten()).isEqualTo(19);
+		assertThat(wrapper.getCapturedBody()).isEqualTo("{\"messag");
+	}
+
+	@Test
+	void countsEncodedCharactersAndSkipsOtherContentTypes() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		AuditResponseWrapper wrapper = new AuditResponseWrapper(response, 8, JSON);
+		wrapper.setContentType("text/plain;charset=UTF-8");
+		wrapper.getWriter().write("héllo");
+		wrapper.flushWriter();
+
+		assertThat(response.getContentAsString()).isEqualTo("héllo");
+		assertThat(wrapper.getBytesWritten()).isEqualTo(6);
+		assertThat(wrapper.getCapturedBody()).isNull();
+	}
+
+	@Test
+	void writerLocksCharsetIntoContentType() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		AuditResponseWrapper wrapper = new AuditResponseWrapper(response, 0, JSON);
+		wrapper.setContentType("text/plain");
+		wrapper.getWriter().write("hello");
+		wrapper.flushWriter();
+
+		assertThat(response.getContentType()).isEqualTo("text/plain;charset=" + response.getCharacterEncoding());
+		assertThat(response.getContentAsString()).isEqualTo("hello");
+	}
+
+	@Test
+	void resetDiscardsCountAndCapture() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		AuditResponseWrapper wrapper = new AuditResponseWrapper(response, 8, JSON);
+		wrapper.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		wrapper.getOutputStream().write("{\"stale\":true}".getBytes(StandardCharsets.UTF_8));
+		wrapper.reset();
+
+		// An error page may pick the writer after the body was reset.
+		wrapper.setContentType("application/json;charset=UTF-8");
+		wrapper.getWriter().write("{\"error\":1}");
+		wrapper.flushWriter();
+
+		assertThat(response.getContentAsString()).isEqualTo("{\"error\":1}");
+		assertThat(wrapper.getBytesWritten()).isEqualTo(11);
+		assertThat(wrapper.getCapturedBody()).isEqualTo("{\"error\"");
+	}
+
+	@Test
+	void resetBufferDiscardsCharactersBufferedInWriter() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		AuditResponseWrapper wrapper = new AuditResponseWrapper(response, 8, JSON);
+		wrapper.setContentType("application/json;charset=UTF-8");
+		wrapper.getWriter().write("{\"stale\":true}");
+		wrapper.resetBuffer();
+		wrapper.getWriter().write("{}");
+		wrapper.flushWriter();
+
+		assertThat(response.getContentAsString()).isEqualTo("{}");
+		assertThat(wrapper.getBytesWritten()).isEqualTo(2);
+		assertThat(wrapper.getCapturedBody()).isEqualTo("{}");
+	}
+}
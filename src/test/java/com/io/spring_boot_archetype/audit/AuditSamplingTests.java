@@ -0,0 +1,81 @@
+package com.io.spring_boot_archetype.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class AuditSamplingTests {
+
+	private static final long KEEP = 0;
+	private static final long DROP = -1;
+
+	@Test
+	void matchesExcludedPathsBySegment() {
+		AuditPathTrie trie = new AuditPathTrie(List.of("/actuator/prometheus", "/actuator/health/**",
+				"/api/*/status"));
+
+		assertThat(trie.matches("/actuator/prometheus")).isTrue();
+		assertThat(trie.matches("/actuator/prometheus/")).isTrue();
+		assertThat(trie.matches("/actuator/health")).isTrue();
+		assertThat(trie.matches("/actuator/health/liveness")).isTrue();
+		assertThat(trie.matches("/api/items/status")).isTrue();
+		assertThat(trie.matches("/actuator/prometheusx")).isFalse();
+		assertThat(trie.matches("/actuator")).isFalse();
+		assertThat(trie.matches("/api/items/7/status")).isFalse();
+		assertThat(trie.matches("/api/hello")).isFalse();
+	}
+
+	@Test
+	void rejectsDoubleWildcardBeforeLastSegment() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new AuditPathTrie(List.of("/api/**/status")));
+	}
+
+	@Test
+	void samplesByRouteThenStatusClass() {
+		AuditProperties.Sampling sampling = new AuditProperties.Sampling();
+		sampling.setDefaultRate(0.5);
+		sampling.setRoutes(Map.of("/api/hello", 0.0));
+		sampling.setStatusClasses(Map.of("2xx", 0.0));
+		AuditSampler sampler = new AuditSampler(sampling);
+
+		assertThat(sampler.retain("/api/hello", 404, 0, KEEP)).isFalse();
+		assertThat(sampler.retain("/api/items", 200, 0, KEEP)).isFalse();
+		assertThat(sampler.retain("/api/items", 404, 0, KEEP)).isTrue();
+		assertThat(sampler.retain("/api/items", 404, 0, DROP)).isFalse();
+	}
+
+	@Test
+	void alwaysRetainsErrorsRejectionsAndSlowExchanges() {
+		AuditProperties.Sampling sampling = new AuditProperties.Sampling();
+		sampling.setDefaultRate(0.0);
+		sampling.setSlowThreshold(Duration.ofMillis(500));
+		AuditSampler sampler = new AuditSampler(sampling);
+
+		assertThat(sampler.retain("/api/hello", 200, 0, KEEP)).isFalse();
+		assertThat(sampler.retain("/api/hello", 503, 0, DROP)).isTrue();
+		assertThat(sampler.retain("/api/hello", 429, 0, DROP)).isTrue();
+		assertThat(sampler.retain("/api/hello", 200, Duration.ofMillis(500).toNanos(), DROP)).isTrue();
+
+		sampling.setKeepErrors(false);
+		sampling.setKeepRejections(false);
+		sampler = new AuditSampler(sampling);
+		assertThat(sampler.retain("/api/hello", 503, 0, KEEP)).isFalse();
+		assertThat(sampler.retain("/api/hello", 429, 0, KEEP)).isFalse();
+	}
+
+	@Test
+	void rejectsInvalidRules() {
+		AuditProperties.Sampling sampling = new AuditProperties.Sampling();
+		sampling.setStatusClasses(Map.of("6xx", 0.5));
+		assertThatIllegalArgumentException().isThrownBy(() -> new AuditSampler(sampling));
+
+		sampling.setStatusClasses(Map.of());
+		sampling.setDefaultRate(1.5);
+		assertThatIllegalArgumentException().isThrownBy(() -> new AuditSampler(sampling));
+	}
+}
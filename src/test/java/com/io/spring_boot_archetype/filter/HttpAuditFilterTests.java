@@ -0,0 +1,74 @@
+package com.io.spring_boot_archetype.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.io.spring_boot_archetype.audit.AuditMetrics;
+import com.io.spring_boot_archetype.audit.AuditPipeline;
+import com.io.spring_boot_archetype.audit.AuditProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpAuditFilterTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void recordsOneEventPerExchange() throws Exception {
+		AuditProperties properties = new AuditProperties();
+		properties.setFile(directory.resolve("audit-log.json").toString());
+		AuditPipeline pipeline = new AuditPipeline(properties);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		HttpAuditFilter filter = new HttpAuditFilter(pipeline, new AuditMetrics(registry), properties);
+		String[] requestId = new String[1];
+		HttpServlet servlet = new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+				requestId[0] = MDC.get(HttpAuditFilter.REQUEST_ID_MDC_KEY);
+				request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/items/{id}");
+				request.getInputStream().readAllBytes();
+				response.setStatus(201);
+				response.getWriter().write("{\"id\":7}");
+			}
+		};
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/items/7");
+		request.setContent("{\"name\":\"item\"}".getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		pipeline.start();
+		filter.doFilter(request, response, new MockFilterChain(servlet));
+		pipeline.stop();
+
+		assertThat(requestId[0]).hasSize(16);
+		assertThat(response.getHeader(HttpAuditFilter.REQUEST_ID_HEADER)).isEqualTo(requestId[0]);
+		assertThat(MDC.get(HttpAuditFilter.REQUEST_ID_MDC_KEY)).isNull();
+		List<String> lines = Files.readAllLines(directory.resolve("audit-log.json"));
+		assertThat(lines).hasSize(1);
+		JsonNode event = new ObjectMapper().readTree(lines.get(0));
+		assertThat(event.get("requestId").asText()).isEqualTo(requestId[0]);
+		assertThat(event.get("route").asText()).isEqualTo("/api/items/{id}");
+		assertThat(event.get("path").asText()).isEqualTo("/api/items/7");
+		assertThat(event.get("status").asInt()).isEqualTo(201);
+		assertThat(event.get("requestBytes").asLong()).isEqualTo(15);
+		assertThat(event.get("responseBytes").asLong()).isEqualTo(8);
+		assertThat(registry.get("audit.exchange.duration")
+				.tags("method", "POST", "route", "/api/items/{id}", "status", "2xx").timer().count()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,31 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import com.io.spring_boot_archetype.ratelimiter.key.RemoteAddressClientKeyResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitMetricsTests {
+
+	private static final EffectiveRateLimitConfig CONFIG = new EffectiveRateLimitConfig(40, 1L, "Api.get()", true,
+			2, 60_000, RateLimitAlgorithm.TOKEN_BUCKET, 0, RemoteAddressClientKeyResolver.INSTANCE, null);
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final RateLimitMetrics metrics = new RateLimitMetrics(registry);
+
+	@Test
+	void countsDecisionsPerEndpoint() {
+		RateLimiter limiter = CONFIG.newLimiter();
+		for (int i = 0; i < 3; i++) {
+			long started = System.nanoTime();
+			metrics.record(CONFIG, started, limiter.tryAcquire());
+		}
+		assertThat(registry.get("ratelimiter.requests").tags("endpoint", "Api.get()", "outcome", "allowed")
+				.counter().count()).isEqualTo(2);
+		assertThat(registry.get("ratelimiter.requests").tags("endpoint", "Api.get()", "outcome", "rejected")
+				.counter().count()).isEqualTo(1);
+		assertThat(registry.get("ratelimiter.decision.latency").timer().count()).isEqualTo(3);
+		assertThat(registry.find("ratelimiter.cas.retries").functionCounter()).isNotNull();
+	}
+}
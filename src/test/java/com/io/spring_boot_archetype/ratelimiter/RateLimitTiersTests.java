@@ -0,0 +1,75 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKey;
+import com.io.spring_boot_archetype.ratelimiter.key.EndpointClientKeyResolver;
+import com.io.spring_boot_archetype.ratelimiter.key.RemoteAddressClientKeyResolver;
+import com.io.spring_boot_archetype.ratelimiter.override.RateLimitOverrides;
+import com.io.spring_boot_archetype.ratelimiter.store.InMemoryLimiterStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitTiersTests {
+
+	// 2 requests per client, 3 requests per endpoint across all clients.
+	private static final EffectiveRateLimitConfig ENDPOINT_TIER = new EffectiveRateLimitConfig(1, 2L, "test", true,
+			3, 60_000, RateLimitAlgorithm.TOKEN_BUCKET, 0, EndpointClientKeyResolver.INSTANCE, null);
+	private static final EffectiveRateLimitConfig CLIENT_TIER = new EffectiveRateLimitConfig(0, 1L, "test", true,
+			2, 60_000, RateLimitAlgorithm.TOKEN_BUCKET, 0, RemoteAddressClientKeyResolver.INSTANCE, ENDPOINT_TIER);
+
+	private final InMemoryLimiterStore store = new InMemoryLimiterStore(100);
+
+	@Test
+	void admitsOnlyWhenEveryTierAdmits() {
+		assertThat(acquire("192.0.2.1")).isTrue();
+		assertThat(acquire("192.0.2.1")).isTrue();
+		// The client tier is exhausted.
+		assertThat(acquire("192.0.2.1")).isFalse();
+		assertThat(acquire("192.0.2.2")).isTrue();
+		// The endpoint tier is exhausted.
+		assertThat(acquire("192.0.2.2")).isFalse();
+		assertThat(acquire("192.0.2.3")).isFalse();
+	}
+
+	@Test
+	void rejectedRequestsConsumeNothing() {
+		for (int i = 0; i < 3; i++) {
+			assertThat(acquire("192.0.2." + i)).isTrue();
+		}
+		// Rejected by the endpoint tier after passing the client tier, which is refunded.
+		assertThat(acquire("192.0.2.9")).isFalse();
+		assertThat(acquire("192.0.2.9")).isFalse();
+		long decision = store.tryAcquire(CLIENT_TIER, 0, 0x0000ffffc0000209L);
+		assertThat(RateLimitDecision.remaining(decision)).isEqualTo(1);
+	}
+
+	@Test
+	void reportsBindingTierInHeaders() {
+		acquire("192.0.2.1");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		RateLimitTiers.tryAcquire(store, RateLimitOverrides.NONE, CLIENT_TIER, request("192.0.2.2"), response,
+				new ClientKey());
+		// One request left for the endpoint, one for the client: the first tier with the fewest wins.
+		assertThat(response.getHeader(RateLimitHeaders.LIMIT)).isEqualTo("2");
+		assertThat(response.getHeader(RateLimitHeaders.REMAINING)).isEqualTo("1");
+		response = new MockHttpServletResponse();
+		RateLimitTiers.tryAcquire(store, RateLimitOverrides.NONE, CLIENT_TIER, request("192.0.2.3"), response,
+				new ClientKey());
+		assertThat(response.getHeader(RateLimitHeaders.LIMIT)).isEqualTo("3");
+		assertThat(response.getHeader(RateLimitHeaders.REMAINING)).isEqualTo("0");
+	}
+
+	private boolean acquire(String address) {
+		long decision = RateLimitTiers.tryAcquire(store, RateLimitOverrides.NONE, CLIENT_TIER, request(address), null,
+				new ClientKey());
+		return RateLimitDecision.isAllowed(decision);
+	}
+
+	private static MockHttpServletRequest request(String address) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setRemoteAddr(address);
+		return request;
+	}
+}
@@ -0,0 +1,96 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterAlgorithmTests {
+
+	@ParameterizedTest
+	@EnumSource(value = RateLimitAlgorithm.class, names = "DEFAULT", mode = EnumSource.Mode.EXCLUDE)
+	void admitsUpToLimitWithinWindow(RateLimitAlgorithm algorithm) {
+		RateLimiter limiter = algorithm.newLimiter(5, 60_000);
+		int allowed = 0;
+		for (int i = 0; i < 20; i++) {
+			if (limiter.allowRequest()) {
+				allowed++;
+			}
+		}
+		assertThat(allowed).isEqualTo(5);
+	}
+
+	@ParameterizedTest
+	@EnumSource(value = RateLimitAlgorithm.class, names = "DEFAULT", mode = EnumSource.Mode.EXCLUDE)
+	void admitsAgainOnceWindowHasPassed(RateLimitAlgorithm algorithm) throws InterruptedException {
+		// A long window keeps the rejection independent of scheduling pauses.
+		RateLimiter exhausted = algorithm.newLimiter(2, 60_000);
+		assertThat(exhausted.allowRequest()).isTrue();
+		assertThat(exhausted.allowRequest()).isTrue();
+		assertThat(exhausted.allowRequest()).isFalse();
+
+		RateLimiter limiter = algorithm.newLimiter(2, 50);
+		limiter.allowRequest();
+		limiter.allowRequest();
+		limiter.allowRequest();
+		// Two full windows let the sliding counter forget the previous bucket as well.
+		Thread.sleep(120);
+		assertThat(limiter.allowRequest()).isTrue();
+	}
+
+	@ParameterizedTest
+	@EnumSource(value = RateLimitAlgorithm.class, names = "DEFAULT", mode = EnumSource.Mode.EXCLUDE)
+	void reportsRemainingRequestsAndRetryDelay(RateLimitAlgorithm algorithm) {
+		RateLimiter limiter = algorithm.newLimiter(3, 60_000);
+		for (int remaining = 2; remaining >= 0; remaining--) {
+			long decision = limiter.tryAcquire();
+			assertThat(RateLimitDecision.isAllowed(decision)).isTrue();
+			assertThat(RateLimitDecision.remaining(decision)).isEqualTo(remaining);
+		}
+		long rejection = limiter.tryAcquire();
+		assertThat(RateLimitDecision.isAllowed(rejection)).isFalse();
+		assertThat(RateLimitDecision.delayMillis(rejection)).isBetween(1L, 60_001L);
+	}
+
+	@ParameterizedTest
+	@EnumSource(value = RateLimitAlgorithm.class, names = "DEFAULT", mode = EnumSource.Mode.EXCLUDE)
+	void refundGivesBackOnePermit(RateLimitAlgorithm algorithm) {
+		RateLimiter limiter = algorithm.newLimiter(2, 60_000);
+		assertThat(limiter.allowRequest()).isTrue();
+		long acquiredAt = System.nanoTime();
+		assertThat(limiter.allowRequest()).isTrue();
+		limiter.refund(acquiredAt);
+		assertThat(limiter.allowRequest()).isTrue();
+		assertThat(limiter.allowRequest()).isFalse();
+	}
+
+	@ParameterizedTest
+	@EnumSource(value = RateLimitAlgorithm.class, names = {"FIXED_WINDOW", "SLIDING_WINDOW_COUNTER"})
+	void refundIsDroppedOnceWindowHasMovedOn(RateLimitAlgorithm algorithm) throws InterruptedException {
+		RateLimiter limiter = algorithm.newLimiter(1, 100);
+		long acquiredAt = System.nanoTime();
+		assertThat(limiter.allowRequest()).isTrue();
+		Thread.sleep(150);
+		assertThat(limiter.allowRequest()).isTrue();
+		// The permit was counted in a window that is over; giving it back would admit a second request in this one.
+		limiter.refund(acquiredAt);
+		assertThat(limiter.allowRequest()).isFalse();
+	}
+
+	@Test
+	void tokenBucketEarnsNothingFromAClockReadBeforeTheLastRefill() {
+		long state = TokenBucketRateLimiter.pack(0, 1_000);
+		// Another thread stamped tick 1000 after this one read tick 999.
+		assertThat(TokenBucketRateLimiter.refill(state, 999, 10, 1_000_000)).isEqualTo(state);
+		assertThat(TokenBucketRateLimiter.refill(state, 201_000, 10, 1_000_000))
+				.isEqualTo(TokenBucketRateLimiter.pack(2, 201_000));
+	}
+
+	@Test
+	void defaultAlgorithmCannotCreateLimiter() {
+		assertThatThrownBy(() -> RateLimitAlgorithm.DEFAULT.newLimiter(1, 1000))
+				.isInstanceOf(IllegalStateException.class);
+	}
+}
@@ -0,0 +1,43 @@
+package com.io.spring_boot_archetype.ratelimiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedTokenBucketRateLimiterTests {
+
+	@Test
+	void staysWithinToleranceUnderContention() throws InterruptedException {
+		int capacity = 10_000;
+		StripedTokenBucketRateLimiter limiter = new StripedTokenBucketRateLimiter(capacity, 3_600_000, 0.05);
+		AtomicInteger allowed = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			threads.add(Thread.ofPlatform().start(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for (int i = 0; i < 5_000; i++) {
+					if (limiter.allowRequest()) {
+						allowed.incrementAndGet();
+					}
+				}
+			}));
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		// Empty cells are refilled from, and drained into, the other cells, so no parked token is lost.
+		assertThat(allowed.get()).isBetween(capacity, capacity + capacity / 20);
+	}
+}
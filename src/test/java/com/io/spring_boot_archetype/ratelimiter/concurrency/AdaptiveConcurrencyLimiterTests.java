@@ -0,0 +1,63 @@
+package com.io.spring_boot_archetype.ratelimiter.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTests {
+
+	private static final long FAST = TimeUnit.MICROSECONDS.toNanos(100);
+	private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+	@Test
+	void shedsRequestsBeyondLimit() {
+		AdaptiveConcurrencyLimiter limiter = new GradientConcurrencyLimiter(2, 1, 10);
+		assertThat(limiter.tryAcquire()).isTrue();
+		assertThat(limiter.tryAcquire()).isTrue();
+		assertThat(limiter.tryAcquire()).isFalse();
+		limiter.release(FAST);
+		assertThat(limiter.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void aimdBacksOffOncePerRoundTripAndGrowsUnderLoad() throws InterruptedException {
+		AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(10, 1, 20, TimeUnit.MILLISECONDS.toNanos(1), 0.5);
+		for (int i = 0; i < 10; i++) {
+			assertThat(limiter.tryAcquire()).isTrue();
+		}
+		Thread.sleep(5);
+		limiter.release(TimeUnit.MILLISECONDS.toNanos(2));
+		// Started before the decrease, so it says nothing about the new limit.
+		limiter.release(TimeUnit.MILLISECONDS.toNanos(2));
+		assertThat(limiter.getLimit()).isEqualTo(5);
+		// Fast completions while the limit is in use add 1/limit each.
+		for (int i = 0; i < 6; i++) {
+			limiter.release(FAST);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(6);
+	}
+
+	@Test
+	void gradientShrinksLimitWhenLatencyRises() throws InterruptedException {
+		GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(50, 1, 100, TimeUnit.MILLISECONDS.toNanos(1));
+		runWindow(limiter, FAST);
+		int baseline = limiter.getLimit();
+		for (int i = 0; i < 10; i++) {
+			runWindow(limiter, SLOW);
+		}
+		assertThat(limiter.getLimit()).isLessThan(baseline);
+	}
+
+	private static void runWindow(AdaptiveConcurrencyLimiter limiter, long latency) throws InterruptedException {
+		Thread.sleep(2);
+		int admitted = 0;
+		while (admitted < 20 && limiter.tryAcquire()) {
+			admitted++;
+		}
+		for (int i = 0; i < admitted; i++) {
+			limiter.release(latency);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitAlgorithm;
+import com.io.spring_boot_archetype.ratelimiter.key.RemoteAddressClientKeyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeasingRateLimiterTests {
+
+	private static final EffectiveRateLimitConfig CONFIG = new EffectiveRateLimitConfig(0, 42L, "test", true,
+			100, 60_000, RateLimitAlgorithm.TOKEN_BUCKET, 0, RemoteAddressClientKeyResolver.INSTANCE, null);
+
+	@Test
+	void nodesSharingLedgerStayWithinGlobalLimit() {
+		QuotaLedger ledger = new QuotaLedger(16);
+		LeasingRateLimiter first = new LeasingRateLimiter(ledger, LeaseListener.NOOP, CONFIG, 0, 1, 8, 100);
+		LeasingRateLimiter second = new LeasingRateLimiter(ledger, LeaseListener.NOOP, CONFIG, 0, 1, 8, 100);
+		int allowed = 0;
+		for (int i = 0; i < 300; i++) {
+			if ((i % 2 == 0 ? first : second).allowRequest()) {
+				allowed++;
+			}
+		}
+		assertThat(allowed).isEqualTo(100);
+	}
+
+	@Test
+	void prefetchesNextLeaseAtLowWaterMark() {
+		QuotaLedger ledger = new QuotaLedger(16);
+		AtomicInteger prefetches = new AtomicInteger();
+		LeaseListener listener = new LeaseListener() {
+			@Override
+			public void onLease(QuotaGrant grant, long latencyNanos, boolean prefetch) {
+				if (prefetch) {
+					prefetches.incrementAndGet();
+				}
+			}
+		};
+		LeasingRateLimiter limiter = new LeasingRateLimiter(ledger, listener, CONFIG, 0, 2, 8, 100);
+		for (int i = 0; i < 40; i++) {
+			assertThat(limiter.allowRequest()).isTrue();
+		}
+		// Only the first lease is a blocking refill; each later one arrives before the block runs out.
+		assertThat(prefetches.get()).isEqualTo(5);
+	}
+}
@@ -0,0 +1,146 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+class QuotaServerTests {
+
+	@Test
+	void leaseAndGrantFramesRoundTrip() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		QuotaProtocol.writeHandshake(out);
+		QuotaProtocol.writeLease(out, 42L, -1L, 0x0000ffffc0000201L, 100, 60_000, 8);
+		QuotaProtocol.writeGrant(out, new QuotaGrant(5, 600_000_000L));
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		QuotaProtocol.readHandshake(in);
+		assertThat(QuotaProtocol.readLease(in))
+				.isEqualTo(new QuotaProtocol.Lease(42L, -1L, 0x0000ffffc0000201L, 100, 60_000, 8));
+		assertThat(QuotaProtocol.readGrant(in)).isEqualTo(new QuotaGrant(5, 600_000_000L));
+		assertThat(in.read()).isEqualTo(-1);
+	}
+
+	@Test
+	void truncatedFramesFailWithEof() throws IOException {
+		ByteArrayOutputStream lease = new ByteArrayOutputStream();
+		QuotaProtocol.writeLease(new DataOutputStream(lease), 42L, 1L, 2L, 100, 60_000, 8);
+		ByteArrayOutputStream grant = new ByteArrayOutputStream();
+		QuotaProtocol.writeGrant(new DataOutputStream(grant), new QuotaGrant(5, 0));
+
+		for (int length = 0; length < lease.size(); length++) {
+			DataInputStream in = truncated(lease.toByteArray(), length);
+			assertThatExceptionOfType(EOFException.class).isThrownBy(() -> QuotaProtocol.readLease(in));
+		}
+		for (int length = 0; length < grant.size(); length++) {
+			DataInputStream in = truncated(grant.toByteArray(), length);
+			assertThatExceptionOfType(EOFException.class).isThrownBy(() -> QuotaProtocol.readGrant(in));
+		}
+	}
+
+	@Test
+	void rejectsUnknownHandshakeAndOperation() {
+		DataInputStream handshake = new DataInputStream(new ByteArrayInputStream(new byte[]{'H', 'T', 'T', 'P', 1}));
+		assertThatIOException().isThrownBy(() -> QuotaProtocol.readHandshake(handshake))
+				.withMessageContaining("Unsupported quota protocol");
+		DataInputStream operation = new DataInputStream(new ByteArrayInputStream(new byte[40]));
+		assertThatIOException().isThrownBy(() -> QuotaProtocol.readLease(operation))
+				.withMessageContaining("Unknown quota operation");
+	}
+
+	@Test
+	void clientLeasesFromServerOverPipelinedConnection() throws Exception {
+		try (QuotaServer server = started(new QuotaServer(new QuotaLedger(100), "127.0.0.1", 0));
+			 QuotaClient client = new QuotaClient("127.0.0.1", server.getPort(), 1_000)) {
+			CompletableFuture<QuotaGrant> first = client.lease(42L, 0, 1, 10, 60_000, 8);
+			CompletableFuture<QuotaGrant> second = client.lease(42L, 0, 1, 10, 60_000, 8);
+			CompletableFuture<QuotaGrant> third = client.lease(42L, 0, 1, 10, 60_000, 8);
+			assertThat(first.get(5, TimeUnit.SECONDS).granted()).isEqualTo(8);
+			assertThat(second.get(5, TimeUnit.SECONDS).granted()).isEqualTo(2);
+			QuotaGrant denied = third.get(5, TimeUnit.SECONDS);
+			assertThat(denied.granted()).isZero();
+			assertThat(denied.retryAfterNanos()).isEqualTo(TimeUnit.SECONDS.toNanos(6));
+		}
+	}
+
+	@Test
+	void clientFailsFastWhileServerIsDownAndReconnectsInBackground() throws Exception {
+		QuotaServer stopped = started(new QuotaServer(new QuotaLedger(100), "127.0.0.1", 0));
+		int port = stopped.getPort();
+		stopped.close();
+		try (QuotaClient client = new QuotaClient("127.0.0.1", port, 1_000)) {
+			assertThat(client.lease(42L, 0, 1, 10, 60_000, 8).isCompletedExceptionally()).isTrue();
+			try (QuotaServer server = started(new QuotaServer(new QuotaLedger(100), "127.0.0.1", port))) {
+				long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+				CompletableFuture<QuotaGrant> lease = client.lease(42L, 0, 1, 10, 60_000, 8);
+				while (lease.isCompletedExceptionally() && System.nanoTime() - deadline < 0) {
+					Thread.sleep(50);
+					lease = client.lease(42L, 0, 1, 10, 60_000, 8);
+				}
+				assertThat(lease.get(5, TimeUnit.SECONDS).granted()).isEqualTo(8);
+			}
+		}
+	}
+
+	@Test
+	void serverDropsConnectionOnTruncatedFrame() throws Exception {
+		try (QuotaServer server = started(new QuotaServer(new QuotaLedger(100), "127.0.0.1", 0));
+			 Socket socket = new Socket("127.0.0.1", server.getPort())) {
+			socket.setSoTimeout(5_000);
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			QuotaProtocol.writeHandshake(out);
+			QuotaProtocol.writeLease(out, 42L, 0, 1, 10, 60_000, 8);
+			socket.getOutputStream().write(Arrays.copyOf(bytes.toByteArray(), bytes.size() - 3));
+			socket.shutdownOutput();
+
+			InputStream in = socket.getInputStream();
+			assertThat(in.read()).isEqualTo(-1);
+		}
+	}
+
+	@Test
+	void ledgerStaysBoundedUnderKeyChurn() {
+		QuotaLedger ledger = new QuotaLedger(1_024);
+		for (int client = 0; client < 100_000; client++) {
+			assertThat(ledger.grant(42L, 0, client, 10, 60_000, 1).granted()).isEqualTo(1);
+		}
+		assertThat(ledger.size()).isLessThanOrEqualTo(1_024);
+	}
+
+	@Test
+	void ledgerCarriesUsedQuotaOverWhenLimitChanges() {
+		QuotaLedger ledger = new QuotaLedger(1_024);
+		assertThat(ledger.grant(42L, 0, 1, 10, 60_000, 8).granted()).isEqualTo(8);
+		// Raised tenfold by an override, the bucket keeps 80% of it used.
+		assertThat(ledger.grant(42L, 0, 1, 100, 60_000, 30).granted()).isEqualTo(20);
+		// Another client of the same endpoint keeps its own limit.
+		assertThat(ledger.grant(42L, 0, 2, 10, 60_000, 30).granted()).isEqualTo(10);
+		assertThat(ledger.grant(42L, 0, 1, 10, 60_000, 1).granted()).isZero();
+		assertThat(ledger.size()).isEqualTo(2);
+	}
+
+	private static DataInputStream truncated(byte[] frame, int length) {
+		return new DataInputStream(new ByteArrayInputStream(Arrays.copyOf(frame, length)));
+	}
+
+	private static QuotaServer started(QuotaServer server) throws IOException {
+		server.start();
+		return server;
+	}
+}
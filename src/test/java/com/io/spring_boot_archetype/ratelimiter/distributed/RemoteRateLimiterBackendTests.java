@@ -0,0 +1,58 @@
+package com.io.spring_boot_archetype.ratelimiter.distributed;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitAlgorithm;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitDecision;
+import com.io.spring_boot_archetype.ratelimiter.key.RemoteAddressClientKeyResolver;
+import com.io.spring_boot_archetype.ratelimiter.store.InMemoryLimiterStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RemoteRateLimiterBackendTests {
+
+	private static final EffectiveRateLimitConfig CONFIG = new EffectiveRateLimitConfig(0, 42L, "test", true,
+			100, 3_600_000, RateLimitAlgorithm.TOKEN_BUCKET, 0, RemoteAddressClientKeyResolver.INSTANCE, null);
+
+	private final QuotaLedger ledger = new QuotaLedger(16);
+	private final AtomicBoolean reachable = new AtomicBoolean();
+	private final AtomicInteger leases = new AtomicInteger();
+	private final InMemoryLimiterStore fallback = new InMemoryLimiterStore(100);
+	private final RemoteRateLimiterBackend backend = new RemoteRateLimiterBackend(
+			(endpointKey, high, low, capacity, duration, requested) -> {
+				leases.incrementAndGet();
+				return reachable.get()
+						? ledger.lease(endpointKey, high, low, capacity, duration, requested)
+						: CompletableFuture.failedFuture(new IOException("Connection refused"));
+			}, LeaseListener.NOOP, fallback, 100, 8, 100);
+
+	@Test
+	void probesUnavailableCoordinatorOncePerIntervalAndRecoversOnLease() throws Exception {
+		assertThat(RateLimitDecision.isAllowed(backend.tryAcquire(CONFIG, 0, 1))).isTrue();
+		long degradedRequestAt = System.nanoTime();
+		for (int i = 0; i < 49; i++) {
+			assertThat(RateLimitDecision.isAllowed(backend.tryAcquire(CONFIG, 0, 1))).isTrue();
+		}
+		// Only the first request tried to lease; the others went straight to the fallback store.
+		assertThat(leases.get()).isEqualTo(1);
+
+		reachable.set(true);
+		Thread.sleep(1_100);
+		assertThat(RateLimitDecision.isAllowed(backend.tryAcquire(CONFIG, 0, 1))).isTrue();
+		assertThat(leases.get()).isEqualTo(2);
+		for (int i = 0; i < 4; i++) {
+			backend.tryAcquire(CONFIG, 0, 1);
+		}
+		// Served from the leased block again.
+		assertThat(leases.get()).isEqualTo(2);
+
+		// A request decided while degraded gives its permit back to the fallback store.
+		backend.refund(CONFIG, 0, 1, degradedRequestAt);
+		assertThat(RateLimitDecision.remaining(fallback.tryAcquire(CONFIG, 0, 1))).isEqualTo(50);
+	}
+}
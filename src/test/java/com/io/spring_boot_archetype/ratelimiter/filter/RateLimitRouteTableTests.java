@@ -0,0 +1,100 @@
+package com.io.spring_boot_archetype.ratelimiter.filter;
+
+import com.io.spring_boot_archetype.ratelimiter.RateLimit;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitConfigRegistry;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitMetrics;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitProperties;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitRejectionLogger;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKeyResolvers;
+import com.io.spring_boot_archetype.ratelimiter.store.InMemoryLimiterStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitRouteTableTests {
+
+	private final RateLimitProperties properties = new RateLimitProperties();
+	private final RateLimitConfigRegistry configRegistry =
+			new RateLimitConfigRegistry(properties, new ClientKeyResolvers(properties));
+	private final RateLimitRouteTable routeTable = routeTable();
+
+	@Test
+	void resolvesEncodedAndMatrixParameterPathsLikeTheDispatcherServlet() {
+		RateLimitRouteTable.Route greet = routeTable.find(request("/api/greet"));
+		assertThat(greet).isNotNull();
+		assertThat(routeTable.find(request("/api/gr%65et"))).isSameAs(greet);
+		assertThat(routeTable.find(request("/api/greet;x=1"))).isSameAs(greet);
+		assertThat(routeTable.find(request("/api;v=2/gr%65et;x=1"))).isSameAs(greet);
+
+		RateLimitRouteTable.Route item = routeTable.find(request("/api/items/7"));
+		assertThat(item).isNotNull();
+		assertThat(routeTable.find(request("/api/it%65ms/7;x=1"))).isSameAs(item);
+
+		// An encoded slash is part of a segment, as in the DispatcherServlet.
+		assertThat(routeTable.find(request("/api%2Fgreet"))).isNull();
+	}
+
+	@Test
+	void resolvesPathWithinContextPath() {
+		MockHttpServletRequest request = request("/app/api/gr%65et");
+		request.setContextPath("/app");
+		assertThat(routeTable.find(request)).isSameAs(routeTable.find(request("/api/greet")));
+	}
+
+	@Test
+	void filterLimitsEveryEncodingOfAPath() throws Exception {
+		RateLimitFilter filter = new RateLimitFilter(routeTable, configRegistry, new InMemoryLimiterStore(100),
+				new RateLimitRejectionLogger(), new RateLimitMetrics(new SimpleMeterRegistry()));
+		assertThat(status(filter, "/api/greet")).isEqualTo(200);
+		assertThat(status(filter, "/api/gr%65et")).isEqualTo(429);
+		assertThat(status(filter, "/api/greet;jsessionid=1")).isEqualTo(429);
+	}
+
+	private RateLimitRouteTable routeTable() {
+		StaticWebApplicationContext context = new StaticWebApplicationContext();
+		context.registerSingleton("greetingController", GreetingController.class);
+		context.refresh();
+		RequestMappingHandlerMapping mapping = new RequestMappingHandlerMapping();
+		mapping.setApplicationContext(context);
+		mapping.afterPropertiesSet();
+		context.getBeanFactory().registerSingleton("requestMappingHandlerMapping", mapping);
+		RateLimitRouteTable table = new RateLimitRouteTable(configRegistry,
+				context.getBeanProvider(RequestMappingHandlerMapping.class));
+		table.afterSingletonsInstantiated();
+		return table;
+	}
+
+	private static int status(RateLimitFilter filter, String uri) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request(uri), response, new MockFilterChain());
+		return response.getStatus();
+	}
+
+	private static MockHttpServletRequest request(String uri) {
+		return new MockHttpServletRequest("GET", uri);
+	}
+
+	@RestController
+	static class GreetingController {
+
+		@GetMapping("/api/greet")
+		@RateLimit(limit = 1, duration = 1, unit = "MINUTE")
+		public String greet() {
+			return "Hello";
+		}
+
+		@GetMapping("/api/items/{id}")
+		public String item(@PathVariable String id) {
+			return id;
+		}
+	}
+}
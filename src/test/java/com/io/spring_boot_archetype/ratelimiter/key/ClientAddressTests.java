@@ -0,0 +1,41 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientAddressTests {
+
+	@ParameterizedTest
+	@CsvSource({
+			"127.0.0.1, 0, 0x0000ffff7f000001",
+			"::ffff:127.0.0.1, 0, 0x0000ffff7f000001",
+			"::1, 0, 1",
+			"2001:db8::8a2e:370:7334, 0x20010db800000000, 0x00008a2e03707334",
+			"2001:0db8:0000:0000:0000:8a2e:0370:7334, 0x20010db800000000, 0x00008a2e03707334",
+			"fe80::1%eth0, 0xfe80000000000000, 1",
+			"1:2:3:4:5:6:7:8, 0x0001000200030004, 0x0005000600070008"
+	})
+	void parsesAddressLiterals(String address, String high, String low) {
+		ClientKey key = ClientAddress.parse(address, new ClientKey());
+		assertThat(key.getHigh()).isEqualTo(Long.decode(high));
+		assertThat(Long.toHexString(key.getLow())).isEqualTo(Long.toHexString(Long.decode(low)));
+	}
+
+	@ParameterizedTest
+	@CsvSource({"localhost", "256.1.1.1", "1.2.3", "1:2:3:4:5:6:7:8:9", "1:::2"})
+	void hashesAnythingElseIntoReservedRange(String address) {
+		ClientKey key = ClientAddress.parse(address, new ClientKey());
+		assertThat(key.getHigh() >>> 56).isEqualTo(0xFFL);
+	}
+
+	@Test
+	void hashIsStable() {
+		ClientKey first = ClientAddress.parse("unknown", new ClientKey());
+		ClientKey second = ClientAddress.parse("unknown", new ClientKey());
+		assertThat(first.getHigh()).isEqualTo(second.getHigh());
+		assertThat(first.getLow()).isEqualTo(second.getLow());
+	}
+}
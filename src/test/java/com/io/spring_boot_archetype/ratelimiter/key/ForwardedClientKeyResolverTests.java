@@ -0,0 +1,85 @@
+package com.io.spring_boot_archetype.ratelimiter.key;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ForwardedClientKeyResolverTests {
+
+	private static final TrustedProxies TRUSTED_PROXIES = new TrustedProxies(List.of("10.0.0.0/8", "fd00::/8"));
+
+	private final ForwardedClientKeyResolver resolver =
+			new ForwardedClientKeyResolver(TRUSTED_PROXIES, ForwardedHeader.X_FORWARDED_FOR);
+	private final ForwardedClientKeyResolver forwardedResolver =
+			new ForwardedClientKeyResolver(TRUSTED_PROXIES, ForwardedHeader.FORWARDED);
+
+	@Test
+	void ignoresForwardingHeadersFromUntrustedPeers() {
+		MockHttpServletRequest request = request("203.0.113.9");
+		request.addHeader("X-Forwarded-For", "198.51.100.1");
+		assertResolvesTo(request, "203.0.113.9");
+	}
+
+	@Test
+	void skipsTrustedHopsFromTheRight() {
+		MockHttpServletRequest request = request("10.0.0.1");
+		request.addHeader("X-Forwarded-For", "192.0.2.66, 198.51.100.1 ,10.1.2.3");
+		assertResolvesTo(request, "198.51.100.1");
+	}
+
+	@Test
+	void walksRepeatedHeaderLinesLastOneFirst() {
+		MockHttpServletRequest request = request("10.0.0.1");
+		request.addHeader("X-Forwarded-For", "198.51.100.1");
+		request.addHeader("X-Forwarded-For", "10.9.9.9");
+		assertResolvesTo(request, "198.51.100.1");
+	}
+
+	@Test
+	void ignoresSpoofedForwardedHeaderBesideProxyAppendedXForwardedFor() {
+		MockHttpServletRequest request = request("10.0.0.1");
+		request.addHeader("Forwarded", "for=192.0.2.99");
+		request.addHeader("X-Forwarded-For", "198.51.100.1");
+		assertResolvesTo(resolver, request, "198.51.100.1");
+	}
+
+	@Test
+	void readsOnlyForwardedHeaderWhenConfiguredAndStripsQuotesAndPorts() {
+		MockHttpServletRequest request = request("fd00::1");
+		request.addHeader("X-Forwarded-For", "192.0.2.66");
+		request.addHeader("Forwarded", "for=192.0.2.43:4711, For=\"[2001:db8:cafe::17]:4711\";proto=https, for=10.0.0.2");
+		assertResolvesTo(forwardedResolver, request, "2001:db8:cafe::17");
+
+		MockHttpServletRequest withoutForwarded = request("10.0.0.1");
+		withoutForwarded.addHeader("X-Forwarded-For", "192.0.2.66");
+		assertResolvesTo(forwardedResolver, withoutForwarded, "10.0.0.1");
+	}
+
+	@Test
+	void keepsReportingProxyForObfuscatedClients() {
+		MockHttpServletRequest request = request("10.0.0.1");
+		request.addHeader("Forwarded", "for=unknown;proto=http, for=10.0.0.7");
+		assertResolvesTo(forwardedResolver, request, "10.0.0.7");
+	}
+
+	private static MockHttpServletRequest request(String remoteAddr) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setRemoteAddr(remoteAddr);
+		return request;
+	}
+
+	private void assertResolvesTo(MockHttpServletRequest request, String address) {
+		assertResolvesTo(resolver, request, address);
+	}
+
+	private static void assertResolvesTo(ForwardedClientKeyResolver resolver, MockHttpServletRequest request,
+										 String address) {
+		ClientKey expected = ClientAddress.parse(address, new ClientKey());
+		ClientKey actual = resolver.resolve(request, new ClientKey());
+		assertThat(actual.getHigh()).isEqualTo(expected.getHigh());
+		assertThat(actual.getLow()).isEqualTo(expected.getLow());
+	}
+}
@@ -0,0 +1,93 @@
+package com.io.spring_boot_archetype.ratelimiter.override;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitAlgorithm;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitDecision;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitTiers;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKey;
+import com.io.spring_boot_archetype.ratelimiter.key.RemoteAddressClientKeyResolver;
+import com.io.spring_boot_archetype.ratelimiter.store.InMemoryLimiterStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class RateLimitOverridesTests {
+
+	private static final EffectiveRateLimitConfig DAILY = new EffectiveRateLimitConfig(1, 2L, "Api.get()", true,
+			100, 86_400_000, RateLimitAlgorithm.TOKEN_BUCKET, 0, RemoteAddressClientKeyResolver.INSTANCE, null);
+	private static final EffectiveRateLimitConfig MINUTELY = new EffectiveRateLimitConfig(0, 1L, "Api.get()", true,
+			2, 60_000, RateLimitAlgorithm.TOKEN_BUCKET, 0, RemoteAddressClientKeyResolver.INSTANCE, DAILY);
+
+	private final InMemoryLimiterStore store = new InMemoryLimiterStore(100);
+
+	@Test
+	void mostSpecificEndpointRuleWins() {
+		RateLimitOverrides overrides = new RateLimitOverrides(List.of(
+				new RateLimitOverride("Api.get()", null, null, null, 5, null),
+				new RateLimitOverride("Api.get()", 1, null, null, 500, Duration.ofHours(1))));
+		EffectiveRateLimitConfig config = overrides.apply(MINUTELY);
+		assertThat(config.capacity()).isEqualTo(5);
+		assertThat(config.duration()).isEqualTo(60_000);
+		assertThat(config.next().capacity()).isEqualTo(500);
+		assertThat(config.next().duration()).isEqualTo(3_600_000);
+		assertThat(config.endpointId()).isEqualTo(MINUTELY.endpointId());
+		assertThat(new RateLimitOverrides(List.of(new RateLimitOverride("Other.get()", null, null, null, 5, null)))
+				.apply(MINUTELY)).isSameAs(MINUTELY);
+		assertThat(new RateLimitOverrides(List.of(new RateLimitOverride("Api.get()", null, null, false, null, null)))
+				.apply(MINUTELY).enabled()).isFalse();
+	}
+
+	@Test
+	void raisedLimitKeepsUsedQuota() {
+		assertThat(acquire(RateLimitOverrides.NONE, MINUTELY, "192.0.2.1")).isTrue();
+		RateLimitOverrides raised = new RateLimitOverrides(List.of(
+				new RateLimitOverride("Api.get()", 0, null, null, 10, null)));
+		// Half of the previous limit was used, so 5 of the new 10 remain before this request.
+		long decision = RateLimitTiers.tryAcquire(store, raised, raised.apply(MINUTELY), request("192.0.2.1"), null,
+				new ClientKey());
+		assertThat(RateLimitDecision.remaining(decision)).isEqualTo(4);
+	}
+
+	@Test
+	void clientRulesOverrideEndpointLimits() {
+		RateLimitOverrides overrides = new RateLimitOverrides(List.of(
+				new RateLimitOverride(null, null, "192.0.2.1", false, null, null),
+				new RateLimitOverride("Api.get()", 0, "192.0.2.2", null, 3, null)));
+		for (int i = 0; i < 5; i++) {
+			assertThat(acquire(overrides, MINUTELY, "192.0.2.1")).isTrue();
+		}
+		for (int i = 0; i < 3; i++) {
+			assertThat(acquire(overrides, MINUTELY, "192.0.2.2")).isTrue();
+		}
+		assertThat(acquire(overrides, MINUTELY, "192.0.2.2")).isFalse();
+		assertThat(acquire(overrides, MINUTELY, "192.0.2.3")).isTrue();
+		assertThat(acquire(overrides, MINUTELY, "192.0.2.3")).isTrue();
+		assertThat(acquire(overrides, MINUTELY, "192.0.2.3")).isFalse();
+	}
+
+	@Test
+	void rejectsInvalidRules() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new RateLimitOverride(null, null, null, null, 5, null));
+		assertThatIllegalArgumentException().isThrownBy(() -> new RateLimitOverride("Api.get()", 0, null, false,
+				null, null));
+		assertThatIllegalArgumentException().isThrownBy(() -> new RateLimitOverrides(List.of(
+				new RateLimitOverride("Api.get()", null, null, null, Integer.MAX_VALUE, null))).validate(MINUTELY));
+	}
+
+	private boolean acquire(RateLimitOverrides overrides, EffectiveRateLimitConfig config, String address) {
+		long decision = RateLimitTiers.tryAcquire(store, overrides, overrides.apply(config), request(address), null,
+				new ClientKey());
+		return RateLimitDecision.isAllowed(decision);
+	}
+
+	private static MockHttpServletRequest request(String address) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setRemoteAddr(address);
+		return request;
+	}
+}
@@ -0,0 +1,59 @@
+package com.io.spring_boot_archetype.ratelimiter.shedding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LoadSheddingTests {
+
+	private static final long MAX_QUEUE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	@Test
+	void lowerPrioritiesAreShedFirst() {
+		assertThat(RequestPriority.LOW.shedProbability(0.8)).isCloseTo(0.5, within(1e-9));
+		assertThat(RequestPriority.NORMAL.shedProbability(0.8)).isZero();
+		assertThat(RequestPriority.LOW.shedProbability(0.95)).isEqualTo(1);
+		assertThat(RequestPriority.HIGH.shedProbability(0.95)).isCloseTo(0.25, within(1e-9));
+		assertThat(RequestPriority.CRITICAL.shedProbability(100)).isZero();
+	}
+
+	@Test
+	void loadIsTheHighestSignal() {
+		LoadSignal signal = new LoadSignal(10, 0.8, MAX_QUEUE_NANOS, () -> 0.4);
+		assertThat(signal.load()).isCloseTo(0.5, within(1e-9));
+		for (int i = 0; i < 7; i++) {
+			signal.enter();
+		}
+		assertThat(signal.load()).isCloseTo(0.7, within(1e-9));
+		// The moving average moves a tenth of the way towards each sample.
+		signal.recordQueueTime(10 * MAX_QUEUE_NANOS);
+		assertThat(signal.load()).isCloseTo(1.0, within(1e-9));
+	}
+
+	@Test
+	void queueTimeSampleIsCapped() {
+		LoadSignal signal = new LoadSignal(10, 0.8, MAX_QUEUE_NANOS, () -> 0);
+		// A request start of t=1 claims decades of queueing, but weighs in as ten maximum queue times.
+		signal.recordQueueTime(TimeUnit.DAYS.toNanos(365 * 56));
+		assertThat(signal.load()).isCloseTo(1.0, within(1e-9));
+		signal.recordQueueTime(0);
+		assertThat(signal.load()).isCloseTo(0.9, within(1e-9));
+	}
+
+	@Test
+	void parsesRequestStartInAnyUnit() {
+		long micros = 1_700_000_000_123_456L;
+		assertThat(LoadSheddingFilter.parseRequestStart("t=1700000000.123456")).isEqualTo(micros);
+		assertThat(LoadSheddingFilter.parseRequestStart("1700000000.123")).isEqualTo(micros - 456);
+		assertThat(LoadSheddingFilter.parseRequestStart("t=1700000000123")).isEqualTo(micros - 456);
+		assertThat(LoadSheddingFilter.parseRequestStart("1700000000123456")).isEqualTo(micros);
+		assertThat(LoadSheddingFilter.parseRequestStart("1700000000123456789")).isEqualTo(micros);
+		assertThat(LoadSheddingFilter.parseRequestStart("t=")).isEqualTo(-1);
+		assertThat(LoadSheddingFilter.parseRequestStart("abc")).isEqualTo(-1);
+		assertThat(LoadSheddingFilter.parseRequestStart("t=99999999999999.5")).isEqualTo(-1);
+		assertThat(LoadSheddingFilter.parseRequestStart(null)).isEqualTo(-1);
+	}
+}
@@ -0,0 +1,59 @@
+package com.io.spring_boot_archetype.ratelimiter.snapshot;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitAlgorithm;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitDecision;
+import com.io.spring_boot_archetype.ratelimiter.key.RemoteAddressClientKeyResolver;
+import com.io.spring_boot_archetype.ratelimiter.store.InMemoryLimiterStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+class LimiterSnapshotTests {
+
+	private static final EffectiveRateLimitConfig HOURLY = new EffectiveRateLimitConfig(0, 1L, "Api.get()", true,
+			10, 3_600_000, RateLimitAlgorithm.TOKEN_BUCKET, 0, RemoteAddressClientKeyResolver.INSTANCE, null);
+	private static final EffectiveRateLimitConfig SHORT = new EffectiveRateLimitConfig(1, 2L, "Api.poll()", true,
+			10, 200, RateLimitAlgorithm.FIXED_WINDOW, 0, RemoteAddressClientKeyResolver.INSTANCE, null);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void restoresUsedQuotaAndDropsRecoveredLimiters() throws Exception {
+		InMemoryLimiterStore store = new InMemoryLimiterStore(100);
+		for (int i = 0; i < 4; i++) {
+			store.tryAcquire(HOURLY, 0, 1);
+			store.tryAcquire(SHORT, 0, 1);
+		}
+		// Untouched limiters are full and not worth saving.
+		long acquiredAt = System.nanoTime();
+		store.tryAcquire(HOURLY, 0, 2);
+		store.refund(HOURLY, 0, 2, acquiredAt);
+		Path path = directory.resolve("ratelimiter.snapshot");
+		assertThat(LimiterSnapshot.write(store, path)).isEqualTo(2);
+		Thread.sleep(250);
+
+		RestoredLimiters restored = LimiterSnapshot.read(path);
+		assertThat(restored.size()).isEqualTo(1);
+		// Endpoint ordinals differ in the new JVM; only the stable key identifies the endpoint.
+		EffectiveRateLimitConfig hourly = new EffectiveRateLimitConfig(7, 1L, "Api.get()", true,
+				10, 3_600_000, RateLimitAlgorithm.TOKEN_BUCKET, 0, RemoteAddressClientKeyResolver.INSTANCE, null);
+		InMemoryLimiterStore restarted = new InMemoryLimiterStore(100);
+		restarted.setRestorer(restored);
+		assertThat(RateLimitDecision.remaining(restarted.tryAcquire(hourly, 0, 1))).isEqualTo(5);
+		assertThat(RateLimitDecision.remaining(restarted.tryAcquire(hourly, 0, 2))).isEqualTo(9);
+	}
+
+	@Test
+	void rejectsUnknownFormat() throws IOException {
+		Path path = Files.write(directory.resolve("ratelimiter.snapshot"), new byte[LimiterSnapshot.HEADER_BYTES]);
+		assertThatIOException().isThrownBy(() -> LimiterSnapshot.read(path));
+	}
+}
@@ -0,0 +1,127 @@
+package com.io.spring_boot_archetype.ratelimiter.store;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitAlgorithm;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitDecision;
+import com.io.spring_boot_archetype.ratelimiter.RateLimiter;
+import com.io.spring_boot_archetype.ratelimiter.key.RemoteAddressClientKeyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LimiterTableTests {
+
+	private static final EffectiveRateLimitConfig CONFIG = config(10);
+
+	@Test
+	void evictsLeastRecentlyUsedLimitersToStayWithinBound() throws Exception {
+		// 8 entries per segment.
+		LimiterTable table = new LimiterTable(512);
+		int oldClients = 64;
+		RateLimiter[] old = new RateLimiter[oldClients];
+		for (int i = 0; i < oldClients; i++) {
+			old[i] = table.getOrCreate(CONFIG, 0, i);
+			old[i].tryAcquire();
+		}
+		// Access recency is tracked with a clock of about one second.
+		Thread.sleep(1_200);
+		int newClients = 4_096;
+		for (int i = 0; i < newClients; i++) {
+			table.getOrCreate(CONFIG, 1, i).tryAcquire();
+		}
+		assertThat(table.size()).isLessThanOrEqualTo(512);
+		assertThat(table.getCapacityEvictions()).isEqualTo(oldClients + newClients - table.size());
+		assertThat(table.getExpiredEvictions()).isEqualTo(0);
+		for (int i = 0; i < oldClients; i++) {
+			assertThat(table.getOrCreate(CONFIG, 0, i)).isNotSameAs(old[i]);
+		}
+	}
+
+	@Test
+	void dropsIdleLimitersBeforeEvictingActiveOnes() {
+		LimiterTable table = new LimiterTable(512);
+		int activeClients = 32;
+		RateLimiter[] active = new RateLimiter[activeClients];
+		for (int i = 0; i < activeClients; i++) {
+			active[i] = table.getOrCreate(CONFIG, 0, i);
+			active[i].tryAcquire();
+		}
+		int idleClients = 4_096;
+		for (int i = 0; i < idleClients; i++) {
+			// A limiter that has not been used yet is idle.
+			table.getOrCreate(CONFIG, 1, i);
+		}
+		assertThat(table.size()).isLessThanOrEqualTo(512);
+		assertThat(table.getExpiredEvictions()).isEqualTo(activeClients + idleClients - table.size());
+		assertThat(table.getCapacityEvictions()).isEqualTo(0);
+		for (int i = 0; i < activeClients; i++) {
+			assertThat(table.getOrCreate(CONFIG, 0, i)).isSameAs(active[i]);
+		}
+	}
+
+	@Test
+	void migratesStateWhenTheConfigurationChanges() {
+		LimiterTable table = new LimiterTable(100);
+		RateLimiter limiter = table.getOrCreate(CONFIG, 0, 1);
+		for (int i = 0; i < 5; i++) {
+			limiter.tryAcquire();
+		}
+		// Equal limits keep the limiter.
+		assertThat(table.getOrCreate(config(10), 0, 1)).isSameAs(limiter);
+
+		EffectiveRateLimitConfig doubled = config(20);
+		RateLimiter migrated = table.getOrCreate(doubled, 0, 1);
+		assertThat(migrated).isNotSameAs(limiter);
+		assertThat(table.getOrCreate(doubled, 0, 1)).isSameAs(migrated);
+		// Half of the limit was used before, so half of the new one is.
+		assertThat(RateLimitDecision.remaining(migrated.tryAcquire())).isEqualTo(9);
+		assertThat(table.size()).isEqualTo(1);
+	}
+
+	@Test
+	void concurrentLookupsCreateOneLimiterPerKey() throws Exception {
+		LimiterTable table = new LimiterTable(100_000);
+		// Idle limiters may be dropped by a rebuild between two lookups, so these start out partly used.
+		LimiterTable.LimiterFactory factory = (config, high, low) -> {
+			RateLimiter limiter = config.newLimiter();
+			limiter.occupy(0.5);
+			return limiter;
+		};
+		int clients = 2_000;
+		AtomicReferenceArray<RateLimiter> seen = new AtomicReferenceArray<>(clients);
+		AtomicInteger mismatches = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < clients; i++) {
+					RateLimiter limiter = table.getOrCreate(CONFIG, 0, i, factory);
+					if (!seen.compareAndSet(i, null, limiter) && seen.get(i) != limiter) {
+						mismatches.incrementAndGet();
+					}
+				}
+			});
+			threads[t].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(mismatches.get()).isEqualTo(0);
+		assertThat(table.size()).isEqualTo(clients);
+	}
+
+	private static EffectiveRateLimitConfig config(int capacity) {
+		return new EffectiveRateLimitConfig(0, 1L, "test", true, capacity, 3_600_000, RateLimitAlgorithm.TOKEN_BUCKET,
+				0, RemoteAddressClientKeyResolver.INSTANCE, null);
+	}
+}
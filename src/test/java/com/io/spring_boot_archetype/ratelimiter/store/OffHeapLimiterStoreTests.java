@@ -0,0 +1,171 @@
+package com.io.spring_boot_archetype.ratelimiter.store;
+
+import com.io.spring_boot_archetype.ratelimiter.EffectiveRateLimitConfig;
+import com.io.spring_boot_archetype.ratelimiter.RateLimit;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitAlgorithm;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitConfigRegistry;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitDecision;
+import com.io.spring_boot_archetype.ratelimiter.RateLimitProperties;
+import com.io.spring_boot_archetype.ratelimiter.key.ClientKeyResolvers;
+import com.io.spring_boot_archetype.ratelimiter.key.RemoteAddressClientKeyResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class OffHeapLimiterStoreTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void concurrentFirstRequestsClaimOneSlot() throws Exception {
+		OffHeapLimiterStore store = new OffHeapLimiterStore(100);
+		EffectiveRateLimitConfig config = config(50);
+		AtomicInteger allowed = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int j = 0; j < 20; j++) {
+					if (RateLimitDecision.isAllowed(store.tryAcquire(config, 0, 1))) {
+						allowed.incrementAndGet();
+					}
+				}
+			});
+			threads[i].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(store.size()).isEqualTo(1);
+		assertThat(allowed.get()).isEqualTo(50);
+	}
+
+	@Test
+	void reclaimsLeastRecentlyRefilledSlotWhenProbeWindowIsFull() throws Exception {
+		OffHeapLimiterStore store = store();
+		EffectiveRateLimitConfig config = config(1);
+		assertThat(RateLimitDecision.isAllowed(store.tryAcquire(config, 0, 0))).isTrue();
+		assertThat(RateLimitDecision.isAllowed(store.tryAcquire(config, 0, 0))).isFalse();
+		Thread.sleep(2);
+		int clients = 200;
+		for (int i = 1; i <= clients; i++) {
+			store.tryAcquire(config, 0, i);
+		}
+		assertThat(store.size()).isLessThanOrEqualTo(store.slotCount());
+		assertThat(evictions("capacity")).isEqualTo(clients + 1 - store.size());
+		assertThat(evictions("expired")).isEqualTo(0);
+		// The oldest bucket was reclaimed first, so the client starts over with a full one.
+		assertThat(RateLimitDecision.isAllowed(store.tryAcquire(config, 0, 0))).isTrue();
+	}
+
+	@Test
+	void reclaimsIdleSlotsBeforeBusyOnes() {
+		OffHeapLimiterStore store = store();
+		EffectiveRateLimitConfig config = config(2);
+		int clients = 200;
+		for (int i = 0; i < clients; i++) {
+			long acquiredAt = System.nanoTime();
+			store.tryAcquire(config, 0, i);
+			// A refunded bucket is full again, hence idle.
+			store.refund(config, 0, i, acquiredAt);
+		}
+		assertThat(evictions("expired")).isEqualTo(clients - store.size());
+		assertThat(evictions("capacity")).isEqualTo(0);
+	}
+
+	@Test
+	void refundReturnsTheToken() {
+		OffHeapLimiterStore store = new OffHeapLimiterStore(100);
+		EffectiveRateLimitConfig config = config(1);
+		long acquiredAt = System.nanoTime();
+		assertThat(RateLimitDecision.isAllowed(store.tryAcquire(config, 0, 1))).isTrue();
+		assertThat(RateLimitDecision.isAllowed(store.tryAcquire(config, 0, 1))).isFalse();
+		store.refund(config, 0, 1, acquiredAt);
+		assertThat(RateLimitDecision.isAllowed(store.tryAcquire(config, 0, 1))).isTrue();
+		// A bucket is never refunded above its capacity.
+		store.refund(config, 0, 1, acquiredAt);
+		store.refund(config, 0, 1, acquiredAt);
+		assertThat(RateLimitDecision.remaining(store.tryAcquire(config, 0, 1))).isEqualTo(0);
+	}
+
+	@Test
+	void changedParametersApplyToExistingState() {
+		OffHeapLimiterStore store = new OffHeapLimiterStore(100);
+		store.tryAcquire(config(2), 0, 1);
+		store.tryAcquire(config(2), 0, 1);
+		// A raised capacity does not refill the tokens already used.
+		assertThat(RateLimitDecision.isAllowed(store.tryAcquire(config(5), 0, 1))).isFalse();
+
+		store.tryAcquire(config(3), 0, 2);
+		// Tokens above a lowered capacity are dropped.
+		long decision = store.tryAcquire(config(1), 0, 2);
+		assertThat(RateLimitDecision.isAllowed(decision)).isTrue();
+		assertThat(RateLimitDecision.remaining(decision)).isEqualTo(0);
+		assertThat(store.size()).isEqualTo(2);
+	}
+
+	@Test
+	void rejectsAlgorithmsOtherThanTokenBuckets() {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getStore().setType(LimiterStoreType.OFF_HEAP);
+		properties.setAlgorithm(RateLimitAlgorithm.SLIDING_LOG);
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new LimiterStoreConfig().offHeapLimiterStore(properties));
+
+		properties.setAlgorithm(RateLimitAlgorithm.TOKEN_BUCKET);
+		RateLimitConfigRegistry configRegistry =
+				new RateLimitConfigRegistry(properties, new ClientKeyResolvers(properties));
+		assertThat(configRegistry.getConfig(method("tokenBucket"), Api.class).algorithm())
+				.isEqualTo(RateLimitAlgorithm.TOKEN_BUCKET);
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> configRegistry.getConfig(method("fixedWindow"), Api.class));
+	}
+
+	private OffHeapLimiterStore store() {
+		// 16 slots, i.e. two probe windows.
+		OffHeapLimiterStore store = new OffHeapLimiterStore(1);
+		store.bindTo(registry);
+		return store;
+	}
+
+	private long evictions(String reason) {
+		return (long) registry.get("ratelimiter.store.evictions").tags("store", "off-heap", "reason", reason)
+				.functionCounter().count();
+	}
+
+	private static EffectiveRateLimitConfig config(int capacity) {
+		return new EffectiveRateLimitConfig(0, 1L, "test", true, capacity, 3_600_000, RateLimitAlgorithm.TOKEN_BUCKET,
+				0, RemoteAddressClientKeyResolver.INSTANCE, null);
+	}
+
+	private static Method method(String name) {
+		try {
+			return Api.class.getDeclaredMethod(name);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static class Api {
+
+		@RateLimit(limit = 1)
+		void tokenBucket() {
+		}
+
+		@RateLimit(limit = 1, algorithm = RateLimitAlgorithm.FIXED_WINDOW)
+		void fixedWindow() {
+		}
+	}
+}